@@ -3,6 +3,9 @@ package qirkat;
 import static qirkat.PieceColor.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * A Player that computes its own moves.
@@ -14,7 +17,7 @@ class AI extends Player {
     /**
      * Maximum minimax search depth before going to static evaluation.
      */
-    private static final int MAX_DEPTH = 8;
+    private static final int MAX_DEPTH = 10;
     /**
      * A position magnitude indicating a win (for white if positive, black
      * if negative).
@@ -24,12 +27,172 @@ class AI extends Player {
      * A magnitude greater than a normal value.
      */
     private static final int INFTY = Integer.MAX_VALUE;
+    /**
+     * The value of a drawn position.
+     */
+    private static final int DRAW_VALUE = 0;
+    /**
+     * Nanoseconds per second and per millisecond.
+     */
+    private static final long NANOS_PER_SEC = 1_000_000_000,
+        NANOS_PER_MSEC = 1_000_000;
+    /**
+     * Maximum number of plies from the root that a search can reach.
+     */
+    private static final int MAX_PLY = 64;
+    /**
+     * Log2 of the number of entries in the transposition table.
+     */
+    private static final int TABLE_BITS = 16;
+    /**
+     * Depth by which a null-move search is reduced, besides the ply
+     * passed, and the least depth at which one is tried.
+     */
+    private static final int NULL_REDUCTION = 2, NULL_MIN_DEPTH = 3;
+    /**
+     * Null moves and futility pruning are used only when both players
+     * have more than this many pieces, since with few pieces, having
+     * to move can be a disadvantage, and a quiet move can win by
+     * leaving the opponent no move.
+     */
+    private static final int SELECTIVE_MIN_PIECES = 3;
+    /**
+     * Late-move reductions apply to the quiet moves after the first
+     * LMR_MIN_MOVES searched at a node, at depth LMR_MIN_DEPTH or more,
+     * and are doubled after the first LMR_LATE_MOVES.
+     */
+    private static final int LMR_MIN_MOVES = 3, LMR_MIN_DEPTH = 3,
+        LMR_LATE_MOVES = 8;
+    /**
+     * Futility pruning applies at depths up to FUTILITY_DEPTH, skipping
+     * quiet moves when the static value plus FUTILITY_MARGIN per ply of
+     * depth cannot reach alpha.
+     */
+    private static final int FUTILITY_DEPTH = 2, FUTILITY_MARGIN = 150;
 
     /**
-     * A new AI for GAME that will play MYCOLOR.
+     * The selective-search techniques, each of which can be turned
+     * off.  NULL_MOVE: if passing the move and searching to reduced
+     * depth still fails high, so does the position.  LMR (late-move
+     * reductions): search quiet moves that come late in the move order
+     * to reduced depth first, and to full depth only if they look
+     * better than the best so far.  FUTILITY: near the horizon, skip
+     * quiet moves when the position is so far below alpha that no quiet
+     * move is likely to bring it up.
+     */
+    enum Selectivity {
+        NULL_MOVE("null"), LMR("lmr"), FUTILITY("futility");
+
+        /** A technique called NAME in commands. */
+        Selectivity(String name) {
+            _name = name;
+        }
+
+        /** Return the technique called NAME (ignoring case), or null. */
+        static Selectivity parse(String name) {
+            for (Selectivity s : values()) {
+                if (s._name.equalsIgnoreCase(name)) {
+                    return s;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return _name;
+        }
+
+        /** My name in commands. */
+        private final String _name;
+    }
+
+    /**
+     * A new AI for GAME that will play MYCOLOR, sharing GAME's
+     * transposition table, or with its own if GAME is null.
      */
     AI(Game game, PieceColor myColor) {
+        this(game, myColor, Evaluator.STANDARD, Network.standard(),
+             game == null ? new TranspositionTable(TABLE_BITS)
+             : game.table());
+    }
+
+    /**
+     * A new AI for GAME that will play MYCOLOR, judging positions with
+     * EVALUATOR.
+     */
+    AI(Game game, PieceColor myColor, Evaluator evaluator) {
+        this(game, myColor, evaluator, null);
+    }
+
+    /**
+     * A new AI for GAME that will play MYCOLOR, judging positions with
+     * NETWORK, or with EVALUATOR if NETWORK is null.
+     */
+    AI(Game game, PieceColor myColor, Evaluator evaluator,
+       Network network) {
+        this(game, myColor, evaluator, network,
+             new TranspositionTable(TABLE_BITS));
+    }
+
+    /**
+     * A new AI for GAME that will play MYCOLOR, judging positions with
+     * NETWORK, or with EVALUATOR if NETWORK is null, and keeping search
+     * results in TABLE, which it may share with other AIs that judge
+     * positions the same way.
+     */
+    AI(Game game, PieceColor myColor, Evaluator evaluator,
+       Network network, TranspositionTable table) {
         super(game, myColor);
+        _evaluator = evaluator;
+        _accumulator = network == null ? null : network.newAccumulator();
+        _fingerprint = (network == null ? evaluator.fingerprint()
+                        : network.fingerprint()) ^ new Board().key();
+        _table = table;
+        _selectivity = defaultSelectivity();
+    }
+
+    /** Return a fingerprint of the way I judge positions and compute
+     *  keys, which identifies the transposition tables whose contents I
+     *  can use (see TranspositionTable.save). */
+    long fingerprint() {
+        return _fingerprint;
+    }
+
+    /** Return the selective-search techniques that new AIs use. */
+    static synchronized Set<Selectivity> defaultSelectivity() {
+        return EnumSet.copyOf(_defaultSelectivity);
+    }
+
+    /** Make new AIs use the techniques in TECHNIQUES. */
+    static synchronized void setDefaultSelectivity(
+        Set<Selectivity> techniques) {
+        _defaultSelectivity = EnumSet.noneOf(Selectivity.class);
+        _defaultSelectivity.addAll(techniques);
+    }
+
+    /** Use the selective-search techniques in TECHNIQUES from my next
+     *  search on. */
+    void setSelectivity(Set<Selectivity> techniques) {
+        EnumSet<Selectivity> s = EnumSet.noneOf(Selectivity.class);
+        s.addAll(techniques);
+        _selectivity = s;
+    }
+
+    /** Return the selective-search techniques I use. */
+    Set<Selectivity> selectivity() {
+        return EnumSet.copyOf(_selectivity);
+    }
+
+    /** Set up the search flags from _selectivity and CONTROL, in
+     *  preparation for a search. */
+    private void startSearch(SearchControl control) {
+        Set<Selectivity> s = _selectivity;
+        _nullMoves = s.contains(Selectivity.NULL_MOVE);
+        _reductions = s.contains(Selectivity.LMR);
+        _futility = s.contains(Selectivity.FUTILITY);
+        _control = control;
+        _abort = false;
     }
 
     @Override
@@ -41,9 +204,10 @@ class AI extends Player {
         }
         Main.startTiming();
         System.out.println(board().toString());
-        Move move = findMove();
+        Move move = findMove(board(), MAX_DEPTH, game().startThinking());
         Main.endTiming();
         String x = move.toString();
+        Main.reportSearch(myColor(), x, _stats);
 
         System.out.printf("%s moves %s.\n", myColor(), x);
         if (x.length() > 5) {
@@ -53,80 +217,531 @@ class AI extends Player {
     }
 
     /**
-     * Return a move for me from the current position, assuming there
-     * is a move.
+     * Return a move for the player to move on BOARD, searching DEPTH
+     * plies.  BOARD itself is not modified.  This is the entry point
+     * for callers that have no Game, such as the benchmarks.
      */
-    private Move findMove() {
-        Board b = new Board(board());
-        if (myColor() == WHITE) {
-            findMove(b, MAX_DEPTH, true, 1, -INFTY, INFTY);
-        } else {
-            findMove(b, MAX_DEPTH, true, -1, -INFTY, INFTY);
+    Move findMove(Board board, int depth) {
+        return findMove(board, depth, new SearchControl());
+    }
+
+    /**
+     * Return a move for the player to move on BOARD, searching DEPTH
+     * plies or until CONTROL says to stop, or null if there is no move.
+     * A stopped search returns the best move it has completely
+     * examined, which is at least as good as the result of the last
+     * finished iteration.  BOARD itself is not modified.
+     */
+    Move findMove(Board board, int depth, SearchControl control) {
+        return findMove(board, depth, control, null);
+    }
+
+    /**
+     * As for findMove(BOARD, DEPTH, CONTROL), also reporting to
+     * REPORTER, unless it is null, after each completed depth, one line
+     * giving the progress of the search (as for analyze), the value,
+     * and the principal variation.
+     */
+    Move findMove(Board board, int depth, SearchControl control,
+                  Reporter reporter) {
+        Board b = searchBoard(board);
+        _stats.start(depth);
+        startSearch(control);
+        int best = Move.NO_MOVE, d0 = 1;
+        _value = 0;
+        if (_ponderMove != Move.NO_MOVE && b.key() == _ponderKey) {
+            best = _ponderMove;
+            d0 = _ponderDepth + 1;
         }
+        _ponderMove = Move.NO_MOVE;
+        for (int d = d0; d <= depth && !_abort; d += 1) {
+            _rootMove = Move.NO_MOVE;
+            int value = search(b, d, 0, -INFTY, INFTY);
+            if (_rootMove == Move.NO_MOVE) {
+                break;
+            }
+            best = _rootMove;
+            if (!_abort) {
+                _value = value;
+                if (reporter != null) {
+                    reporter.infoMsg("%s score %s pv %s", progress(d),
+                                     scoreString(value),
+                                     variation(b, best, d));
+                }
+            }
+        }
+        if (best == Move.NO_MOVE) {
+            _pickers[0].init(b, Move.NO_MOVE, Move.NO_MOVE, Move.NO_MOVE);
+            best = _pickers[0].next();
+        }
+        _stats.stop();
+        _lastFoundMove = best == Move.NO_MOVE ? null : b.toMove(best);
         return _lastFoundMove;
     }
 
+    /** Return the statistics gathered by my last search. */
+    SearchStats stats() {
+        return _stats;
+    }
+
+    /** Return the value, to the player to move, of the last completed
+     *  iteration of my last findMove, as text (see scoreString). */
+    String value() {
+        return scoreString(_value);
+    }
+
+    /** Forget everything learned from earlier searches, so that my next
+     *  search does not depend on them. */
+    void clear() {
+        stopPondering();
+        _table.clear();
+        Arrays.fill(_killers, Move.NO_MOVE);
+        _ponderMove = Move.NO_MOVE;
+    }
+
+    /** Analyze BOARD until CONTROL says to stop or the maximum depth is
+     *  reached, deepening one ply at a time and reporting to REPORTER,
+     *  after each completed depth, one progress line and the best K
+     *  moves with their values and principal variations.  The moves are
+     *  found one at a time, each by searching all moves not yet chosen,
+     *  so that their values are exact.  BOARD is not modified. */
+    void analyze(Board board, int k, SearchControl control,
+                 Reporter reporter) {
+        Board b = searchBoard(board);
+        _stats.start(MAX_PLY - 1);
+        startSearch(control);
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        int n = b.legalMoves(moves);
+        if (n == 0) {
+            reporter.infoMsg("info no legal moves");
+            _stats.stop();
+            return;
+        }
+        k = Math.max(1, Math.min(k, n));
+        int[] values = new int[k];
+        for (int d = 1; d < MAX_PLY && !_abort; d += 1) {
+            for (int pv = 0; pv < k && !_abort; pv += 1) {
+                int best = -INFTY;
+                for (int i = pv; i < n && !_abort; i += 1) {
+                    int undo = b.play(moves[i]);
+                    int value = -search(b, d - 1, 1, -INFTY, -best);
+                    b.retract(moves[i], undo);
+                    if (!_abort && value > best) {
+                        best = value;
+                        int m = moves[i];
+                        moves[i] = moves[pv];
+                        moves[pv] = m;
+                    }
+                }
+                values[pv] = best;
+            }
+            if (_abort) {
+                break;
+            }
+            reporter.infoMsg("%s", progress(d));
+            for (int pv = 0; pv < k; pv += 1) {
+                reporter.infoMsg("info multipv %d score %s pv %s",
+                                 pv + 1, scoreString(values[pv]),
+                                 variation(b, moves[pv], d));
+            }
+        }
+        _stats.stop();
+    }
+
+    /** Return a line reporting the progress of the current search,
+     *  which has just completed DEPTH plies. */
+    private String progress(int depth) {
+        long nanos = _stats.runningNanos();
+        return String.format("info depth %d seldepth %d nodes %d nps %d "
+                             + "time %d hashfull %d",
+                             depth, _stats.selDepth(), _stats.nodes(),
+                             nanos == 0 ? 0
+                             : _stats.nodes() * NANOS_PER_SEC / nanos,
+                             nanos / NANOS_PER_MSEC, _table.hashfull());
+    }
+
+    /** Return VALUE, a search value, as text: a number, or "win N" or
+     *  "loss N" for a win or loss in N plies. */
+    private static String scoreString(int value) {
+        if (value > WINNING_VALUE - MAX_PLY) {
+            return "win " + (WINNING_VALUE - value);
+        } else if (value < -(WINNING_VALUE - MAX_PLY)) {
+            return "loss " + (WINNING_VALUE + value);
+        }
+        return Integer.toString(value);
+    }
+
+    /** Return the principal variation of at most LENGTH moves beginning
+     *  with MOVE on BOARD, as found by following best moves in the
+     *  transposition table.  BOARD is left unchanged. */
+    private String variation(Board board, int move, int length) {
+        StringBuilder result = new StringBuilder();
+        int[] codes = new int[length], undos = new int[length];
+        int n;
+        for (n = 0; n < length; n += 1) {
+            if (move == Move.NO_MOVE || !board.isLegal(move)) {
+                break;
+            }
+            if (n > 0) {
+                result.append(' ');
+            }
+            result.append(board.toMove(move));
+            codes[n] = move;
+            undos[n] = board.play(move);
+            move = hashMove(board);
+        }
+        for (n -= 1; n >= 0; n -= 1) {
+            board.retract(codes[n], undos[n]);
+        }
+        return result.toString();
+    }
+
+    /** Start searching BOARD, on which my opponent is to move, in the
+     *  background until stopPondering is called.  I guess my opponent's
+     *  reply from the transposition table and search the position it
+     *  leads to, so that if the guess is right, my next search can begin
+     *  where this one left off; if there is no guess or it is wrong, the
+     *  entries this search leaves in the table still speed up the next
+     *  one. */
+    @Override
+    void ponder(Board board) {
+        stopPondering();
+        Board b = searchBoard(board);
+        _ponderControl.start(0);
+        startSearch(_ponderControl);
+        _ponderer = new Thread(() -> ponderSearch(b));
+        _ponderer.setDaemon(true);
+        _ponderer.start();
+    }
+
+    @Override
+    void stopPondering() {
+        if (_ponderer == null) {
+            return;
+        }
+        _ponderControl.cancel();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                _ponderer.join();
+                break;
+            } catch (InterruptedException excp) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        _ponderer = null;
+    }
+
+    /** Return the reply that my last ponder expected from my opponent,
+     *  or null if it had no guess.  Valid once pondering has stopped. */
+    Move predictedReply() {
+        return _predictedReply;
+    }
+
+    /** Body of the pondering thread: search BOARD, or the position
+     *  after the expected reply on BOARD, deepening until stopped,
+     *  recording completed results in _ponderMove and _ponderDepth.  If
+     *  those already describe the expected position (pondering was
+     *  interrupted and restarted on the same board), deepening resumes
+     *  where it left off. */
+    private void ponderSearch(Board board) {
+        _stats.start(MAX_DEPTH);
+        int reply = hashMove(board);
+        boolean predicted = reply != Move.NO_MOVE && board.isLegal(reply);
+        _predictedReply = predicted ? board.toMove(reply) : null;
+        int d0 = 1;
+        if (predicted) {
+            board.play(reply);
+            if (_ponderMove != Move.NO_MOVE && board.key() == _ponderKey) {
+                d0 = _ponderDepth + 1;
+            } else {
+                _ponderMove = Move.NO_MOVE;
+                _ponderKey = board.key();
+            }
+        } else {
+            _ponderMove = Move.NO_MOVE;
+        }
+        for (int d = d0; d <= MAX_DEPTH; d += 1) {
+            _rootMove = Move.NO_MOVE;
+            search(board, d, 0, -INFTY, INFTY);
+            if (_abort || _rootMove == Move.NO_MOVE) {
+                break;
+            }
+            if (predicted) {
+                _ponderMove = _rootMove;
+                _ponderDepth = d;
+            }
+        }
+        _stats.stop();
+    }
+
+    /** Return the best move recorded in the transposition table for
+     *  BOARD, or Move.NO_MOVE if there is none. */
+    private int hashMove(Board board) {
+        boolean mirrored = board.isMirrored();
+        int slot = _table.probe(board.canonicalKey());
+        if (slot < 0) {
+            return Move.NO_MOVE;
+        }
+        return mirrored ? Move.mirrorCode(_table.move(slot))
+            : _table.move(slot);
+    }
+
+    /** Counters for the current (or last) search. */
+    private final SearchStats _stats = new SearchStats();
+
     /**
      * The move found by the last call to one of the ...FindMove methods
      * below.
      */
     private Move _lastFoundMove;
 
-    /** finds the move for AI. Returns FINDMOVE. BOARD, DEPTH,
-     *  SAVEMOVE, SENSE, ALPHA, BETA. */
-    private int findMove(Board board, int depth, boolean saveMove, int sense,
-                         int alpha, int beta) {
-        int f = 0;
-        int a = board.numPieces(board.whoseMove());
-        int b = board.numPieces(board.whoseMove().opposite());
-        if (board.gameOver() && (a > b)) {
-            return WINNING_VALUE;
-        } else if (board.gameOver() && (a < b)) {
-            return -WINNING_VALUE;
-        } else {
-            if (depth == 0) {
-                return staticScore(board);
-            } else if (sense == 1) {
-                f = -INFTY;
-                ArrayList<Move> c =
-                        board.findlegalmoves(board, board.whoseMove());
-                for (Move move : c) {
-                    TestBoard d = new TestBoard(board);
-                    d.makeMove(move);
-                    int e = findMove(d,
-                            depth - 1, false, -1, alpha, beta);
-                    if (saveMove && e > f) {
-                        _lastFoundMove = move;
-                    }
-                    f = Math.max(f, e);
-                    alpha = Math.max(alpha, f);
-                    if (beta <= alpha) {
-                        break;
-                    }
-                    return f;
+    /** Return the value of BOARD, searched to DEPTH more plies, to the
+     *  player to move, where BOARD is PLY plies from the root.  Values
+     *  outside ALPHA .. BETA are reported only as ALPHA or less, or BETA
+     *  or more.  At the root, sets _rootMove to the best move found.
+     *  Moves are made and taken back on BOARD itself, as move codes; no
+     *  Move objects are created below the root.  Polls _control every
+     *  SearchControl.POLL_INTERVAL nodes, and once it says to stop, sets
+     *  _abort and unwinds, returning meaningless values and storing
+     *  nothing in the transposition table.  At the root, _rootMove is
+     *  then the best of the moves searched completely.  Below the root,
+     *  a position that repeats an earlier one (in the game or the
+     *  search), or that reaches the no-capture limit, is a draw. */
+    private int search(Board board, int depth, int ply, int alpha,
+                       int beta) {
+        _polls += 1;
+        if ((_polls & (SearchControl.POLL_INTERVAL - 1)) == 0
+            && _control.shouldStop(_stats.nodes())) {
+            _abort = true;
+        }
+        if (_abort) {
+            return 0;
+        }
+        _stats.node(ply);
+        if (ply > 0
+            && (board.repeated()
+                || board.noCaptureLimitReached() && board.hasLegalMove())) {
+            return DRAW_VALUE;
+        }
+        if (depth == 0 || ply == MAX_PLY - 1) {
+            if (!board.hasLegalMove()) {
+                return -(WINNING_VALUE - ply);
+            }
+            _stats.leaf();
+            int score = staticScore(board);
+            return board.whoseMove() == WHITE ? score : -score;
+        }
+        long key = board.key(), mirrorKey = board.mirrorKey();
+        boolean mirrored = mirrorKey < key;
+        if (mirrored) {
+            key = mirrorKey;
+        }
+        int slot = _table.probe(key);
+        _stats.ttProbe(slot >= 0);
+        int hashMove = Move.NO_MOVE;
+        if (slot >= 0) {
+            hashMove = mirrored ? Move.mirrorCode(_table.move(slot))
+                : _table.move(slot);
+            if (ply > 0 && _table.depth(slot) >= depth) {
+                int value = fromTable(_table.value(slot), ply);
+                int bound = _table.bound(slot);
+                if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && value >= beta)
+                    || (bound == TranspositionTable.UPPER
+                        && value <= alpha)) {
+                    return value;
+                }
+            }
+        }
+        PieceColor side = board.whoseMove();
+        boolean selective = ply > 0 && !board.canJump(side)
+            && board.numPieces(WHITE) > SELECTIVE_MIN_PIECES
+            && board.numPieces(BLACK) > SELECTIVE_MIN_PIECES;
+        int eval = -INFTY;
+        if (selective && (_nullMoves || _futility && depth <= FUTILITY_DEPTH)
+            && board.hasLegalMove()) {
+            int score = staticScore(board);
+            eval = side == WHITE ? score : -score;
+        }
+        _passed[ply] = false;
+        if (_nullMoves && selective && depth >= NULL_MIN_DEPTH
+            && !_passed[ply - 1] && !isWin(beta) && eval >= beta) {
+            _passed[ply] = true;
+            board.playNull();
+            int value = -search(board, depth - 1 - NULL_REDUCTION, ply + 1,
+                                -beta, -beta + 1);
+            board.retractNull();
+            _passed[ply] = false;
+            if (_abort) {
+                return 0;
+            }
+            _stats.nullMove(value >= beta);
+            if (value >= beta) {
+                return isWin(value) ? beta : value;
+            }
+        }
+        boolean futile = _futility && selective && depth <= FUTILITY_DEPTH
+            && !isWin(-alpha) && eval != -INFTY
+            && eval + FUTILITY_MARGIN * depth <= alpha;
+        int alpha0 = alpha;
+        int best = -INFTY, bestMove = Move.NO_MOVE;
+        MovePicker picker = _pickers[ply];
+        int killer1 = _killers[2 * ply], killer2 = _killers[2 * ply + 1];
+        picker.init(board, hashMove, killer1, killer2);
+        int moveNum = 0;
+        for (int move = picker.next(); move != Move.NO_MOVE;
+             move = picker.next(), moveNum += 1) {
+            boolean late = moveNum > 0 && !Move.codeIsJump(move)
+                && move != hashMove && move != killer1 && move != killer2;
+            if (futile && late) {
+                _stats.futile();
+                best = Math.max(best, eval + FUTILITY_MARGIN * depth);
+                continue;
+            }
+            int reduction = 0;
+            if (_reductions && late && ply > 0 && moveNum >= LMR_MIN_MOVES
+                && depth >= LMR_MIN_DEPTH) {
+                reduction = moveNum >= LMR_LATE_MOVES ? 2 : 1;
+            }
+            int undo = board.play(move);
+            int value;
+            if (reduction > 0) {
+                value = -search(board, depth - 1 - reduction, ply + 1,
+                                -alpha - 1, -alpha);
+                boolean again = !_abort && value > alpha;
+                _stats.reduction(again);
+                if (again) {
+                    value = -search(board, depth - 1, ply + 1, -beta,
+                                    -alpha);
                 }
             } else {
-                f = INFTY;
-                ArrayList<Move> listOfMoves =
-                        board.findlegalmoves(board, board.whoseMove());
-                for (Move move : listOfMoves) {
-                    TestBoard copyBoard = new TestBoard(board);
-                    copyBoard.makeMove(move);
-                    int e = findMove(copyBoard,
-                            depth - 1, false, 1, alpha, beta);
-                    if (saveMove && e < f) {
-                        _lastFoundMove = move;
-                    }
-                    f = Math.min(f, e);
-                    beta = Math.min(beta, f);
-                    if (beta <= alpha) {
-                        break;
-                    }
-                    return f;
+                value = -search(board, depth - 1, ply + 1, -beta, -alpha);
+            }
+            board.retract(move, undo);
+            if (_abort) {
+                return 0;
+            }
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (ply == 0) {
+                    _rootMove = move;
                 }
             }
-            return 0;
+            alpha = Math.max(alpha, value);
+            if (alpha >= beta) {
+                _stats.cutoff(moveNum);
+                if (!Move.codeIsJump(move)
+                    && _killers[2 * ply] != move) {
+                    _killers[2 * ply + 1] = _killers[2 * ply];
+                    _killers[2 * ply] = move;
+                }
+                break;
+            }
+        }
+        if (bestMove == Move.NO_MOVE) {
+            return -(WINNING_VALUE - ply);
+        }
+        int bound = best >= beta ? TranspositionTable.LOWER
+            : best > alpha0 ? TranspositionTable.EXACT
+            : TranspositionTable.UPPER;
+        _table.store(key, depth, toTable(best, ply), bound,
+                     mirrored ? Move.mirrorCode(bestMove) : bestMove);
+        return best;
+    }
+
+    /** Return true iff VALUE, to the player to move, is a forced win
+     *  (or, negated, a forced loss) rather than a heuristic value. */
+    private static boolean isWin(int value) {
+        return value > WINNING_VALUE - MAX_PLY;
+    }
+
+    /** Return VALUE, found PLY plies from the root, as stored in the
+     *  transposition table, where wins are counted from the position
+     *  stored rather than from the root. */
+    private static int toTable(int value, int ply) {
+        if (value > WINNING_VALUE - MAX_PLY) {
+            return value + ply;
+        } else if (value < -(WINNING_VALUE - MAX_PLY)) {
+            return value - ply;
         }
+        return value;
+    }
+
+    /** Return the inverse of toTable(VALUE, PLY). */
+    private static int fromTable(int value, int ply) {
+        if (value > WINNING_VALUE - MAX_PLY) {
+            return value - ply;
+        } else if (value < -(WINNING_VALUE - MAX_PLY)) {
+            return value + ply;
+        }
+        return value;
+    }
+
+    /** Value of the last completed iteration of findMove. */
+    private int _value;
+
+    /** Best move found so far at the root of the current search. */
+    private int _rootMove;
+
+    /** Controls the current search. */
+    private SearchControl _control = new SearchControl();
+    /** True once _control has told the current search to stop. */
+    private volatile boolean _abort;
+    /** Number of nodes visited, for timing polls of _control. */
+    private int _polls;
+    /** Controls pondering. */
+    private final SearchControl _ponderControl = new SearchControl();
+    /** The thread searching while my opponent thinks, or null. */
+    private Thread _ponderer;
+    /** The best move found by pondering for the position with key
+     *  _ponderKey, or Move.NO_MOVE. */
+    private int _ponderMove = Move.NO_MOVE;
+    /** Key of the position for which _ponderMove was found. */
+    private long _ponderKey;
+    /** Depth of the deepest completed search that found _ponderMove. */
+    private int _ponderDepth;
+    /** The reply my last ponder expected from my opponent, or null. */
+    private Move _predictedReply;
+
+    /** Positions already searched, indexed by canonical key, so that a
+     *  position and its mirror image share an entry. */
+    private final TranspositionTable _table;
+
+    /** One move picker for each ply of the search. */
+    private final MovePicker[] _pickers = new MovePicker[MAX_PLY];
+
+    {
+        for (int i = 0; i < MAX_PLY; i += 1) {
+            _pickers[i] = new MovePicker();
+        }
+    }
+
+    /** _passed[p] is true while a null move made at ply p is being
+     *  searched, so that the next ply does not pass too. */
+    private final boolean[] _passed = new boolean[MAX_PLY];
+
+    /** The selective-search techniques I use, never modified once
+     *  set. */
+    private volatile Set<Selectivity> _selectivity;
+    /** Whether the current search uses null moves, late-move
+     *  reductions, and futility pruning. */
+    private boolean _nullMoves, _reductions, _futility;
+
+    /** The techniques new AIs use. */
+    private static EnumSet<Selectivity> _defaultSelectivity =
+        EnumSet.allOf(Selectivity.class);
+
+    /** _killers[2p] and _killers[2p+1] are the last two quiet moves that
+     *  caused cutoffs at ply p. */
+    private final int[] _killers = new int[2 * MAX_PLY];
+
+    {
+        Arrays.fill(_killers, Move.NO_MOVE);
     }
 
     /**
@@ -166,10 +781,30 @@ class AI extends Player {
 
 
     /**
-     * Return a heuristic value for BOARD.
+     * Return a heuristic value for BOARD, positive if it favors white.
      */
     private int staticScore(Board board) {
-        return 0;
+        if (_accumulator != null) {
+            return _accumulator.score(board.whoseMove());
+        }
+        return _evaluator.score(board);
     }
 
+    /** Return a copy of BOARD to search, which keeps my network's
+     *  accumulator, if any, up to date. */
+    private Board searchBoard(Board board) {
+        Board b = new Board(board);
+        b.setAccumulator(_accumulator);
+        return b;
+    }
+
+    /** See fingerprint. */
+    private final long _fingerprint;
+    /** My static evaluation function, when I have no network. */
+    private final Evaluator _evaluator;
+    /** The sums of my network's first layer for the board being
+     *  searched, or null if I use _evaluator.  Only one search uses it
+     *  at a time. */
+    private final Network.Accumulator _accumulator;
+
 }
@@ -0,0 +1,155 @@
+package qirkat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import static qirkat.PieceColor.*;
+
+/** Tests of the AI class.
+ *  @author Sarah Jin
+ */
+public class AITest {
+
+    /** Log2 of the size of the transposition tables used here. */
+    private static final int TABLE_BITS = 16;
+    /** Stand-in for a won position's value in comparisons of scores. */
+    private static final int WIN = 1_000_000;
+    /** Time allowed for pondering in testPonder, in milliseconds. */
+    private static final long PONDER_TIME = 200;
+
+    @Test
+    public void testMultiPV() {
+        AI ai = newAI();
+        Board b0 = new Board();
+        int k = 4;
+        List<String> lines = analyze(ai, b0, k, 200_000);
+        List<String> pvs = new ArrayList<>();
+        for (String line : lines) {
+            if (line.startsWith("info multipv ")) {
+                pvs.add(line);
+            }
+        }
+        assertTrue(pvs.size() >= k);
+        pvs = pvs.subList(pvs.size() - k, pvs.size());
+        Set<String> firstMoves = new HashSet<>();
+        int last = Integer.MAX_VALUE;
+        for (int i = 0; i < k; i += 1) {
+            String[] words = pvs.get(i).split(" ");
+            assertEquals(Integer.toString(i + 1), words[2]);
+            assertEquals("score", words[3]);
+            int at = 4;
+            int value;
+            if (words[at].equals("win") || words[at].equals("loss")) {
+                int plies = Integer.parseInt(words[at + 1]);
+                value = words[at].equals("win") ? WIN - plies : plies - WIN;
+                at += 2;
+            } else {
+                value = Integer.parseInt(words[at]);
+                at += 1;
+            }
+            assertTrue(value <= last);
+            last = value;
+            assertEquals("pv", words[at]);
+            String move = words[at + 1];
+            assertTrue(firstMoves.add(move));
+            assertTrue(b0.isLegal(Move.parseMove(move).code()));
+        }
+        assertEquals(new Board().toString(), b0.toString());
+    }
+
+    @Test
+    public void testAnalyzeNoMoves() {
+        AI ai = newAI();
+        Board b0 = new Board();
+        b0.setPieces("w----  -----  -----  -----  -----", BLACK);
+        List<String> lines = analyze(ai, b0, 1, 0);
+        assertEquals(1, lines.size());
+        assertEquals("info no legal moves", lines.get(0));
+        assertTrue(ai.stats().elapsedNanos() > 0);
+    }
+
+    @Test
+    public void testPonder() throws InterruptedException {
+        AI ai = newAI();
+        Board b0 = new Board();
+        ai.findMove(b0, 4);
+        Move reply = ponder(ai, b0);
+        assertNotNull(reply);
+        Board hit = new Board(b0);
+        hit.makeMove(reply);
+        Move move = ai.findMove(hit, 1);
+        assertEquals(0, ai.stats().nodes());
+        assertTrue(hit.isLegal(move.code()));
+
+        assertEquals(reply, ponder(ai, b0));
+        ai.ponder(b0);
+        ai.stopPondering();
+        move = ai.findMove(hit, 1);
+        assertEquals(0, ai.stats().nodes());
+        assertTrue(hit.isLegal(move.code()));
+
+        assertEquals(reply, ponder(ai, b0));
+        int[] replies = new int[MovePicker.MAX_MOVES];
+        int n = b0.legalMoves(replies);
+        assertTrue(n > 1);
+        Board miss = new Board(b0);
+        miss.makeMove(replies[0] == reply.code() ? replies[1] : replies[0]);
+        move = ai.findMove(miss, 1);
+        assertTrue(ai.stats().nodes() > 0);
+        assertTrue(miss.isLegal(move.code()));
+    }
+
+    /** Have AI ponder on BOARD for PONDER_TIME milliseconds, and return
+     *  the reply it expected. */
+    private static Move ponder(AI ai, Board board)
+        throws InterruptedException {
+        ai.ponder(board);
+        Thread.sleep(PONDER_TIME);
+        ai.stopPondering();
+        return ai.predictedReply();
+    }
+
+    /** Return a fresh AI playing white with its own table. */
+    private static AI newAI() {
+        return new AI(null, WHITE, Evaluator.STANDARD, Network.standard(),
+                      new TranspositionTable(TABLE_BITS));
+    }
+
+    /** Return the lines AI reports when analyzing the best K moves of
+     *  BOARD, stopping after about NODES nodes (0 for no limit). */
+    private static List<String> analyze(AI ai, Board board, int k,
+                                        long nodes) {
+        List<String> lines = new ArrayList<>();
+        Reporter reporter = new Reporter() {
+            @Override
+            public void errMsg(String format, Object... args) {
+                lines.add(String.format(format, args));
+            }
+
+            @Override
+            public void outcomeMsg(String format, Object... args) {
+                lines.add(String.format(format, args));
+            }
+
+            @Override
+            public void moveMsg(String format, Object... args) {
+                lines.add(String.format(format, args));
+            }
+
+            @Override
+            public void infoMsg(String format, Object... args) {
+                lines.add(String.format(format, args));
+            }
+        };
+        SearchControl control = new SearchControl();
+        control.start(0, nodes);
+        ai.analyze(board, k, control, reporter);
+        return lines;
+    }
+
+}
@@ -0,0 +1,142 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static qirkat.PieceColor.*;
+
+/** Evaluates a file of positions with a pool of AIs, writing the results
+ *  in input order.  Each input line gives a position as the operands of
+ *  a 'set' command: the player to move, then the 25 squares in the
+ *  order setPieces expects, for example
+ *  <pre>
+ *      white wwwww wwwww bb-ww bbbbb bbbbb
+ *  </pre>
+ *  Blank lines and comments (from '#') are skipped.  For the Nth
+ *  position (numbering from 1), the output has the line
+ *  <pre>
+ *      N MOVE SCORE NODES
+ *  </pre>
+ *  where MOVE is the best move found ("-" if there is none), SCORE its
+ *  value to the player to move (as reported by analyze), and NODES the
+ *  number of nodes searched; or "N error MESSAGE" for a bad line.
+ *  Searches are independent: each starts with an empty transposition
+ *  table, so that the results do not depend on the number of threads.
+ *  @author Sarah Jin
+ */
+class Batch {
+
+    /** Default search depth. */
+    static final int DEFAULT_DEPTH = 8;
+    /** Search depth used when only a time limit is given. */
+    static final int UNLIMITED_DEPTH = 60;
+    /** Number of positions per thread that may be in progress or
+     *  waiting to be written at once. */
+    private static final int WINDOW_PER_THREAD = 4;
+
+    /** A batch run that searches each position to DEPTH plies, or
+     *  for at most MSEC milliseconds (0 for no limit), with THREADS
+     *  threads. */
+    Batch(int depth, long msec, int threads) {
+        _depth = depth;
+        _msec = msec;
+        _threads = Math.max(1, threads);
+    }
+
+    /** Evaluate the positions read from IN, writing results to OUT as
+     *  they become available, in input order. */
+    void run(BufferedReader in, PrintWriter out) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(_threads);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int window = WINDOW_PER_THREAD * _threads;
+        try {
+            int n = 0, written = 0;
+            for (String line = in.readLine(); line != null;
+                 line = in.readLine()) {
+                if (line.indexOf('#') != -1) {
+                    line = line.substring(0, line.indexOf('#'));
+                }
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                n += 1;
+                int num = n;
+                String position = line;
+                pending.add(pool.submit(() -> evaluate(num, position)));
+                int written0 = written;
+                while (pending.size() >= window
+                       || !pending.isEmpty() && pending.peek().isDone()) {
+                    written += 1;
+                    out.println(result(written, pending.remove()));
+                }
+                if (written > written0) {
+                    out.flush();
+                }
+            }
+            while (!pending.isEmpty()) {
+                written += 1;
+                out.println(result(written, pending.remove()));
+                out.flush();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Return the output line for position number NUM, described by
+     *  POSITION. */
+    private String evaluate(int num, String position) {
+        Command cmnd = Command.parseCommand("set " + position);
+        if (cmnd.commandType() != Command.Type.SETBOARD) {
+            return num + " error bad position";
+        }
+        String[] operands = cmnd.operands();
+        Board board = new Board();
+        board.setPieces(operands[1],
+                        operands[0].equalsIgnoreCase("white")
+                        ? WHITE : BLACK);
+        AI ai = _engines.get();
+        ai.clear();
+        SearchControl control = new SearchControl();
+        control.start(_msec);
+        try {
+            Move move = ai.findMove(board, _depth, control);
+            return String.format("%d %s %s %d", num,
+                                 move == null ? "-" : move.toString(),
+                                 ai.value(), ai.stats().nodes());
+        } catch (RuntimeException excp) {
+            return num + " error " + excp;
+        }
+    }
+
+    /** Return the line computed by RESULT for position number NUM,
+     *  waiting for it if necessary. */
+    static String result(int num, Future<String> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            return num + " error interrupted";
+        } catch (ExecutionException excp) {
+            return num + " error " + excp.getCause();
+        }
+    }
+
+    /** Maximum search depth. */
+    private final int _depth;
+    /** Time limit per position in milliseconds, or 0 for none. */
+    private final long _msec;
+    /** Number of searching threads. */
+    private final int _threads;
+    /** Each thread's AI. */
+    private final ThreadLocal<AI> _engines =
+        ThreadLocal.withInitial(() -> new AI(null, WHITE));
+
+}
@@ -0,0 +1,59 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the Batch class.
+ *  @author Sarah Jin
+ */
+public class BatchTest {
+
+    @Test
+    public void testOrder() throws IOException {
+        StringBuilder in = new StringBuilder();
+        int n = 12, bad = 5;
+        for (int i = 1; i <= n; i += 1) {
+            if (i == bad) {
+                in.append("purple wwwww\n");
+            } else {
+                in.append(i % 2 == 0 ? "white" : "black")
+                    .append(" wwwww wwwww bb-ww bbbbb bbbbb  # ")
+                    .append(i).append("\n\n");
+            }
+        }
+        StringWriter out = new StringWriter();
+        new Batch(2, 0, 3).run(new BufferedReader(new StringReader(
+                                   in.toString())), new PrintWriter(out));
+        String[] lines = out.toString().split("\\R");
+        assertEquals(n, lines.length);
+        for (int i = 1; i <= n; i += 1) {
+            String[] words = lines[i - 1].split(" ");
+            assertEquals(Integer.toString(i), words[0]);
+            if (i == bad) {
+                assertEquals(i + " error bad position", lines[i - 1]);
+            } else {
+                assertEquals(4, words.length);
+                Move.parseMove(words[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testFailure() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        result.completeExceptionally(new StackOverflowError());
+        assertEquals("3 error java.lang.StackOverflowError",
+                     Batch.result(3, result));
+        assertEquals("4 done",
+                     Batch.result(4, CompletableFuture.completedFuture(
+                                         "4 done")));
+    }
+
+}
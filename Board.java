@@ -1,10 +1,9 @@
 package qirkat;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Formatter;
-import java.util.Observable;
-import java.util.Observer;
-import java.util.Stack;
+import java.util.Random;
 import static qirkat.PieceColor.*;
 import static qirkat.Move.*;
 
@@ -18,15 +17,65 @@ import static qirkat.Move.*;
  * counting from 0).
  * <p>
  * Moves on this board are denoted by Moves.
+ * <p>
+ * A Board reports each change to its contents to its BoardListeners, if
+ * it has any.  Copies of a Board start with no listeners, so that boards
+ * used for searching pay nothing for notification.
  *
  * @author Sarah Jin
  */
-class Board extends Observable {
+class Board {
     /**
      * Current board.
      */
     private PieceColor[] _board;
 
+    /** Number of white and black pieces on _board, maintained by set. */
+    private int _whiteCount, _blackCount;
+
+    /** Bits of _jumpCache: whether canJump(WHITE) is known, and its
+     *  value; likewise for BLACK. */
+    private static final int
+        WHITE_JUMP_KNOWN = 1, WHITE_CAN_JUMP = 2,
+        BLACK_JUMP_KNOWN = 4, BLACK_CAN_JUMP = 8;
+
+    /** The part of key() that depends on the pieces, maintained by
+     *  set. */
+    private long _pieceKey;
+
+    /** The part of mirrorKey() that depends on the pieces, maintained by
+     *  set. */
+    private long _mirrorPieceKey;
+
+    /** The values of canJump already computed for the current position,
+     *  as a set of the bits above.  Cleared by any change to _board. */
+    private int _jumpCache;
+
+    /** The network accumulator that set keeps up to date, or null. */
+    private Network.Accumulator _accumulator;
+
+    /** Default value of noCaptureLimit(). */
+    static final int DEFAULT_NO_CAPTURE_LIMIT = 50;
+    /** Number of occurrences of a position that make a game drawn. */
+    static final int DRAW_REPETITIONS = 3;
+    /** Initial capacity of the key history, in plies. */
+    private static final int INITIAL_PLIES = 64;
+
+    /** The keys (see key()) of the positions since the key history was
+     *  last reset, by ply: _keys[_depth] is the current position's.
+     *  Maintained by apply and unapply, so that searches keep it too. */
+    private long[] _keys = new long[INITIAL_PLIES];
+    /** For each ply in _keys, the number of reversible moves (lateral
+     *  non-captures) made in a row to reach it. */
+    private int[] _reversible = new int[INITIAL_PLIES];
+    /** For each ply in _keys, the number of non-capturing moves made in
+     *  a row to reach it. */
+    private int[] _quiet = new int[INITIAL_PLIES];
+    /** The current ply in _keys. */
+    private int _depth;
+    /** See noCaptureLimit(). */
+    private int _noCaptureLimit = DEFAULT_NO_CAPTURE_LIMIT;
+
     /** boolean variables. */
     private static boolean isAIWHITE, isAIBLACK;
 
@@ -61,14 +110,9 @@ class Board extends Observable {
     void clear() {
         isAIWHITE = false;
         isAIBLACK = false;
-        _prevBoards = new Stack<Board>();
-        stackOfPrevWhite = new Stack<String>();
-        stackOfPrevBlack = new Stack<String>();
+        _history = null;
+        _whiteLateral = _blackLateral = Move.NO_MOVE;
         _whoseMove = WHITE;
-        if (Main.getuseGUI() && Main.getINIT()) {
-            Main.getDisplay().setLabel("reporter",
-                    whoseMove().toString() + " to move");
-        }
         _gameOver = false;
 
         for (char x = 'a'; x <= 'e'; x++) {
@@ -90,8 +134,8 @@ class Board extends Observable {
             set(x, y, WHITE);
         }
         set('c', '3', EMPTY);
-        setChanged();
-        notifyObservers();
+        resetKeys();
+        fireChange(BoardChange.reset(_whoseMove));
     }
 
     /**
@@ -102,15 +146,50 @@ class Board extends Observable {
     }
 
     /**
-     * Copy B into me.
+     * Copy B into me, reusing my storage if I have any.
      */
     private void internalCopy(Board b) {
-        _board = b._board.clone();
+        if (_board == null) {
+            _board = b._board.clone();
+        } else {
+            System.arraycopy(b._board, 0, _board, 0, _board.length);
+        }
+        _whiteCount = b._whiteCount;
+        _blackCount = b._blackCount;
+        _jumpCache = b._jumpCache;
+        _pieceKey = b._pieceKey;
+        _mirrorPieceKey = b._mirrorPieceKey;
         _whoseMove = b._whoseMove;
-        _prevBoards = b._prevBoards;
+        _history = null;
         _gameOver = b._gameOver;
-        stackOfPrevBlack = b.stackOfPrevBlack;
-        stackOfPrevWhite = b.stackOfPrevWhite;
+        _whiteLateral = b._whiteLateral;
+        _blackLateral = b._blackLateral;
+        _noCaptureLimit = b.noCaptureLimit();
+        int tail = b._reversible[b._depth];
+        if (_keys.length <= tail) {
+            _keys = new long[b._keys.length];
+            _reversible = new int[b._keys.length];
+            _quiet = new int[b._keys.length];
+        }
+        System.arraycopy(b._keys, b._depth - tail, _keys, 0, tail + 1);
+        System.arraycopy(b._reversible, b._depth - tail, _reversible, 0,
+                         tail + 1);
+        System.arraycopy(b._quiet, b._depth - tail, _quiet, 0, tail + 1);
+        _depth = tail;
+        if (_accumulator != null) {
+            _accumulator.refresh(this);
+        }
+    }
+
+    /**
+     * Have set keep ACC (if not null) up to date with my pieces from now
+     * on, starting with the current ones.  Copies of me do not share it.
+     */
+    void setAccumulator(Network.Accumulator acc) {
+        _accumulator = acc;
+        if (acc != null) {
+            acc.refresh(this);
+        }
     }
 
     /**
@@ -147,8 +226,11 @@ class Board extends Observable {
                 break;
             }
         }
-        setChanged();
-        notifyObservers();
+        _whoseMove = nextMove;
+        _history = null;
+        _whiteLateral = _blackLateral = Move.NO_MOVE;
+        resetKeys();
+        fireChange(BoardChange.reset(_whoseMove));
     }
 
     /**
@@ -161,20 +243,11 @@ class Board extends Observable {
 
     /** boolean that returns true if game is over. */
     boolean gameOver() {
-        ArrayList<PieceColor> checker = new ArrayList<>();
-        for (int x = 0; x < SIDE * SIDE; x++) {
-            PieceColor z = get(x);
-            checker.add(z);
-        }
-        if (!checker.contains(WHITE)) {
+        if (_whiteCount == 0 || _blackCount == 0) {
             _gameOver = true;
             return _gameOver;
         }
-        if (!checker.contains(BLACK)) {
-            _gameOver = true;
-            return _gameOver;
-        }
-        if (findlegalmoves(this, whoseMove()).isEmpty()) {
+        if (!hasLegalMove()) {
             _gameOver = true;
             return _gameOver;
         }
@@ -214,12 +287,51 @@ class Board extends Observable {
      */
     public void set(int k, PieceColor v) {
         try {
+            PieceColor old = _board[k];
             _board[k] = v;
+            _jumpCache = 0;
+            _pieceKey ^= pieceKey(k, old) ^ pieceKey(k, v);
+            int m = mirrorSquare(k);
+            _mirrorPieceKey ^= pieceKey(m, old) ^ pieceKey(m, v);
+            if (_accumulator != null) {
+                _accumulator.update(k, old, v);
+            }
+            if (old == WHITE) {
+                _whiteCount -= 1;
+            } else if (old == BLACK) {
+                _blackCount -= 1;
+            }
+            if (v == WHITE) {
+                _whiteCount += 1;
+            } else if (v == BLACK) {
+                _blackCount += 1;
+            }
         } catch (ArrayIndexOutOfBoundsException e) {
             return;
         }
     }
 
+    /**
+     * Return true iff the player to move has at least one legal move.
+     * Unlike findlegalmoves, this stops at the first one found.
+     */
+    boolean hasLegalMove() {
+        if (canJump(_whoseMove)) {
+            return true;
+        }
+        for (int k = 0; k <= MAX_INDEX; k += 1) {
+            if (_board[k] != _whoseMove || onOpponentsBase(k)) {
+                continue;
+            }
+            for (int to : STEPS[k]) {
+                if (quietValid(k, to)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Return true iff MOV is legal on the current board.
      */
@@ -245,21 +357,8 @@ class Board extends Observable {
                 return false;
             }
             if (mov.row0() == mov.row1()) {
-                if (_whoseMove == WHITE && !stackOfPrevWhite.empty()) {
-                    String b = (String) stackOfPrevWhite.peek();
-                    String c = mov.col1() + "" + mov.row1()
-                            + "" + mov.col0() + "" + mov.row0();
-                    if (b.equals(c)) {
-                        return false;
-                    }
-                }
-                if (_whoseMove == BLACK && !stackOfPrevBlack.empty()) {
-                    String b = (String) stackOfPrevBlack.peek();
-                    String c = mov.col1() + "" + mov.row1()
-                            + "" + mov.col0() + "" + mov.row0();
-                    if (b.equals(c)) {
-                        return false;
-                    }
+                if (reversesLateral(mov)) {
+                    return false;
                 }
 
                 if (_whoseMove == BLACK) {
@@ -456,6 +555,7 @@ class Board extends Observable {
     /** set whosemove. W. */
     public void setWhoseMove(PieceColor w) {
         this._whoseMove = w;
+        resetKeys();
     }
 
     /**
@@ -504,21 +604,8 @@ class Board extends Observable {
             return false;
         }
         if (mov.row0() == mov.row1()) {
-            if (_whoseMove == WHITE && !stackOfPrevWhite.empty()) {
-                String b = (String) stackOfPrevWhite.peek();
-                String c = mov.col1() + "" + mov.row1() + ""
-                        + mov.col0() + "" + mov.row0();
-                if (b.equals(c)) {
-                    return false;
-                }
-            }
-            if (_whoseMove == BLACK && !stackOfPrevBlack.empty()) {
-                String b = (String) stackOfPrevBlack.peek();
-                String c = mov.col1() + "" + mov.row1() + ""
-                        + mov.col0() + "" + mov.row0();
-                if (b.equals(c)) {
-                    return false;
-                }
+            if (reversesLateral(mov)) {
+                return false;
             }
         }
         if (_whoseMove == BLACK) {
@@ -690,21 +777,382 @@ class Board extends Observable {
      * linearized index K.
      */
     boolean jumpPossible(int k) {
+        PieceColor who = get(k);
+        if (who != WHITE && who != BLACK) {
+            return false;
+        }
+        PieceColor opponent = who.opposite();
+        int[] jumps = JUMPS[k];
+        for (int n = 0; n < jumps.length; n += 2) {
+            if (_board[jumps[n]] == opponent && _board[jumps[n + 1]] == EMPTY) {
+                return true;
+            }
+        }
         return false;
     }
 
     /**
-     * Return true iff a jump is possible from the current board.
+     * Return true iff a jump is possible for the player to move.
      */
     boolean jumpPossible() {
+        return canJump(_whoseMove);
+    }
+
+    /**
+     * JUMPS[k] lists the jumps from square k as pairs of squares: the
+     * square jumped over, then the square landed on.  Orthogonal jumps
+     * are possible from every square, diagonal ones only from squares
+     * with even index, which are those on the diagonal lines.
+     */
+    private static final int[][] JUMPS = new int[MAX_INDEX + 1][];
+
+    /** The largest number of jumps from any square. */
+    private static final int MAX_JUMPS = 8;
+
+    static {
         for (int k = 0; k <= MAX_INDEX; k += 1) {
-            if (jumpPossible(k)) {
-                return true;
+            int[] jumps = new int[2 * MAX_JUMPS];
+            int n;
+            n = 0;
+            for (int dc = -1; dc <= 1; dc += 1) {
+                for (int dr = -1; dr <= 1; dr += 1) {
+                    char c = (char) (col(k) + 2 * dc);
+                    char r = (char) (row(k) + 2 * dr);
+                    boolean diagonal = dc != 0 && dr != 0;
+                    if ((dc != 0 || dr != 0) && validSquare(c, r)
+                        && (!diagonal || k % 2 == 0)) {
+                        jumps[n] = index((char) (col(k) + dc),
+                                         (char) (row(k) + dr));
+                        jumps[n + 1] = index(c, r);
+                        n += 2;
+                    }
+                }
+            }
+            JUMPS[k] = Arrays.copyOf(jumps, n);
+        }
+    }
+
+    /**
+     * STEPS[k] lists the squares adjacent to square k along the lines of
+     * the board.
+     */
+    private static final int[][] STEPS = new int[MAX_INDEX + 1][];
+
+    static {
+        for (int k = 0; k <= MAX_INDEX; k += 1) {
+            int[] steps = new int[MAX_JUMPS];
+            int n;
+            n = 0;
+            for (int dc = -1; dc <= 1; dc += 1) {
+                for (int dr = -1; dr <= 1; dr += 1) {
+                    char c = (char) (col(k) + dc), r = (char) (row(k) + dr);
+                    boolean diagonal = dc != 0 && dr != 0;
+                    if ((dc != 0 || dr != 0) && validSquare(c, r)
+                        && (!diagonal || k % 2 == 0)) {
+                        steps[n] = index(c, r);
+                        n += 1;
+                    }
+                }
+            }
+            STEPS[k] = Arrays.copyOf(steps, n);
+        }
+    }
+
+    /**
+     * Store the codes of all legal captures by the player to move into
+     * MOVES, starting at MOVES[N], and return the index just past the
+     * last one stored.  Only complete jumps (those that cannot be
+     * continued) are generated, and each distinct code only once.
+     * Stops early if MOVES fills up.
+     */
+    int jumpMoves(int[] moves, int n) {
+        int start = n;
+        for (int k = 0; k <= MAX_INDEX; k += 1) {
+            if (_board[k] == _whoseMove && jumpPossible(k)) {
+                n = jumpPaths(k, k, 0, moves, start, n);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Store into MOVES the codes of all complete jumps by the piece on
+     * ORIGIN that continue a jump that has reached SQUARE, capturing
+     * the set CAPTURED, omitting any code already in MOVES[START .. N-1].
+     * Return the index just past the last code stored.
+     */
+    private int jumpPaths(int origin, int square, int captured,
+                          int[] moves, int start, int n) {
+        PieceColor opponent = _whoseMove.opposite();
+        boolean extended = false;
+        int[] jumps = JUMPS[square];
+        for (int i = 0; i < jumps.length; i += 2) {
+            int over = jumps[i], to = jumps[i + 1];
+            if (_board[over] == opponent && (captured & (1 << over)) == 0
+                && (_board[to] == EMPTY || to == origin)) {
+                extended = true;
+                n = jumpPaths(origin, to, captured | (1 << over),
+                              moves, start, n);
+            }
+        }
+        if (!extended && captured != 0 && n < moves.length) {
+            int code = Move.code(origin, square, captured);
+            for (int i = start; i < n; i += 1) {
+                if (moves[i] == code) {
+                    return n;
+                }
+            }
+            moves[n] = code;
+            n += 1;
+        }
+        return n;
+    }
+
+    /**
+     * Store the codes of all non-capturing moves by the player to move
+     * that would be legal if no capture were possible into MOVES,
+     * starting at MOVES[N], and return the index just past the last one
+     * stored.  Stops early if MOVES fills up.
+     */
+    int quietMoves(int[] moves, int n) {
+        for (int k = 0; k <= MAX_INDEX && n < moves.length; k += 1) {
+            if (_board[k] != _whoseMove || onOpponentsBase(k)) {
+                continue;
+            }
+            for (int to : STEPS[k]) {
+                if (n < moves.length && quietValid(k, to)) {
+                    moves[n] = Move.code(k, to, 0);
+                    n += 1;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Store the codes of all legal moves by the player to move into
+     * MOVES, starting at MOVES[0], and return how many there are: the
+     * captures, if there are any, and otherwise the non-capturing moves.
+     */
+    int legalMoves(int[] moves) {
+        int n = jumpMoves(moves, 0);
+        return n > 0 ? n : quietMoves(moves, 0);
+    }
+
+    /**
+     * Return true iff square K is on the home row of the opponent of
+     * the player to move.
+     */
+    private boolean onOpponentsBase(int k) {
+        return row(k) == (_whoseMove == WHITE ? '5' : '1');
+    }
+
+    /**
+     * Return true iff the player to move, with a piece on FROM that is
+     * not on its opponent's home row, may move it to the adjacent square
+     * TO, assuming no capture is possible.
+     */
+    private boolean quietValid(int from, int to) {
+        if (_board[to] != EMPTY) {
+            return false;
+        }
+        int rise = row(to) - row(from);
+        if (_whoseMove == WHITE ? rise < 0 : rise > 0) {
+            return false;
+        }
+        return rise != 0 || lateral(_whoseMove) != Move.code(to, from, 0);
+    }
+
+    /**
+     * Return true iff CODE is the code of a legal move for the player
+     * to move.
+     */
+    boolean isLegal(int code) {
+        int from = Move.codeFrom(code), to = Move.codeTo(code);
+        if (code < 0 || _board[from] != _whoseMove) {
+            return false;
+        }
+        if (Move.codeIsJump(code)) {
+            return jumpPath(from, from, 0, code, null, 0);
+        }
+        if (canJump(_whoseMove) || onOpponentsBase(from)) {
+            return false;
+        }
+        for (int step : STEPS[from]) {
+            if (step == to) {
+                return quietValid(from, to);
             }
         }
         return false;
     }
 
+    /**
+     * Return true iff the jump that has reached SQUARE from ORIGIN,
+     * capturing the set CAPTURED, can be completed as the jump with
+     * code CODE.  If PATH is non-null, store the squares landed on
+     * from SQUARE onwards in PATH[LEN ..], ending with -1.
+     */
+    private boolean jumpPath(int origin, int square, int captured,
+                             int code, int[] path, int len) {
+        if (path != null) {
+            path[len] = square;
+        }
+        int target = Move.codeCaptures(code);
+        PieceColor opponent = _whoseMove.opposite();
+        boolean extended = false;
+        int[] jumps = JUMPS[square];
+        for (int i = 0; i < jumps.length; i += 2) {
+            int over = jumps[i], to = jumps[i + 1];
+            if (_board[over] == opponent && (captured & (1 << over)) == 0
+                && (_board[to] == EMPTY || to == origin)) {
+                extended = true;
+                if ((target & (1 << over)) != 0
+                    && jumpPath(origin, to, captured | (1 << over), code,
+                                path, len + 1)) {
+                    return true;
+                }
+            }
+        }
+        if (!extended && captured == target && square == Move.codeTo(code)
+            && captured != 0) {
+            if (path != null) {
+                path[len + 1] = -1;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Return the Move with code CODE, a legal move for the player to
+     * move, or null if there is none.
+     */
+    Move toMove(int code) {
+        int from = Move.codeFrom(code), to = Move.codeTo(code);
+        if (!Move.codeIsJump(code)) {
+            return Move.move(from, to);
+        }
+        int[] path = new int[MAX_INDEX + 2];
+        if (!jumpPath(from, from, 0, code, path, 0)) {
+            return null;
+        }
+        int len;
+        len = 0;
+        while (path[len + 1] != -1) {
+            len += 1;
+        }
+        Move result = null;
+        for (int i = len; i > 0; i -= 1) {
+            result = Move.move(col(path[i - 1]), row(path[i - 1]),
+                               col(path[i]), row(path[i]), result);
+        }
+        return result;
+    }
+
+    /**
+     * Return a hash key for the current position: the pieces, the
+     * player to move, and the lateral-move states that affect which
+     * moves are legal.  Equal positions have equal keys; unequal ones
+     * almost certainly do not.
+     */
+    long key() {
+        long key = _pieceKey ^ lateralKey(WHITE, _whiteLateral)
+            ^ lateralKey(BLACK, _blackLateral);
+        return _whoseMove == BLACK ? key ^ BLACK_TO_MOVE_KEY : key;
+    }
+
+    /**
+     * Return the key (see key()) that my mirror image under left-right
+     * reflection would have.  The board and the rules are symmetric
+     * under this reflection, so a position and its mirror image have
+     * the same value, with mirrored best moves.
+     */
+    long mirrorKey() {
+        long key = _mirrorPieceKey
+            ^ lateralKey(WHITE, mirrorCode(_whiteLateral))
+            ^ lateralKey(BLACK, mirrorCode(_blackLateral));
+        return _whoseMove == BLACK ? key ^ BLACK_TO_MOVE_KEY : key;
+    }
+
+    /**
+     * Return the key of whichever of me and my mirror image is
+     * canonical: the one with the smaller key.  A position and its
+     * mirror image have the same canonical key.
+     */
+    long canonicalKey() {
+        return Math.min(key(), mirrorKey());
+    }
+
+    /**
+     * Return true iff my mirror image, rather than I, is canonical, in
+     * which case moves must be mirrored (see Move.mirrorCode) going to
+     * or from tables indexed by canonicalKey().
+     */
+    boolean isMirrored() {
+        return mirrorKey() < key();
+    }
+
+    /**
+     * Return the contribution to a key of the piece P on square K.
+     */
+    private static long pieceKey(int k, PieceColor p) {
+        if (p == WHITE) {
+            return PIECE_KEYS[2 * k];
+        } else if (p == BLACK) {
+            return PIECE_KEYS[2 * k + 1];
+        }
+        return 0;
+    }
+
+    /**
+     * Return the contribution to a key of WHO's lateral-move state
+     * LATERAL.
+     */
+    private static long lateralKey(PieceColor who, int lateral) {
+        if (lateral == Move.NO_MOVE) {
+            return 0;
+        }
+        int k = Move.codeFrom(lateral);
+        int right = Move.codeTo(lateral) > k ? 1 : 0;
+        return LATERAL_KEYS[(who == WHITE ? 0 : 2 * (MAX_INDEX + 1))
+                            + 2 * k + right];
+    }
+
+    /**
+     * Seed for the random numbers used in keys, fixed so that keys are
+     * the same from run to run.
+     */
+    private static final long KEY_SEED = 0x5172_6b61_7421L;
+
+    /**
+     * PIECE_KEYS[2k] and PIECE_KEYS[2k+1] are the key contributions of a
+     * white or black piece on square k.
+     */
+    private static final long[] PIECE_KEYS = new long[2 * (MAX_INDEX + 1)];
+
+    /**
+     * Key contributions of each possible lateral-move state: a square and
+     * a direction, for each color.
+     */
+    private static final long[] LATERAL_KEYS =
+        new long[2 * 2 * (MAX_INDEX + 1)];
+
+    /**
+     * Key contribution of black's being to move.
+     */
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        Random random = new Random(KEY_SEED);
+        for (int i = 0; i < PIECE_KEYS.length; i += 1) {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < LATERAL_KEYS.length; i += 1) {
+            LATERAL_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
     /**
      * Return the color of the player who has the next move.  The
      * value is arbitrary if gameOver().
@@ -732,54 +1180,320 @@ class Board extends Observable {
      * Make the Move MOV on this Board, assuming it is legal.
      */
     void makeMove(Move mov) {
+        int captured = applyMove(mov);
+        if (captured >= 0 && _listeners != null) {
+            fireChange(BoardChange.move(mov, captured, _whoseMove));
+        }
+    }
+
+    /**
+     * Make the Move MOV on this Board, if it is legal, without
+     * notifying listeners.  Return the set of squares it captured
+     * (bit k for square k), or -1 if the move was not made.
+     */
+    private int applyMove(Move mov) {
         if (!legalMove(mov) && (!isAIWHITE || !isAIBLACK)) {
             System.out.println("Invalid Move.");
-            return;
+            return -1;
         } else if (!legalMove(mov) && (isAIWHITE || isAIBLACK)) {
-            return;
-        }
-        boolean didTurn = false;
-        if (mov.getNextJump() == null) {
-            _prevBoards.push(new Board(this));
+            return -1;
         }
-        PieceColor opponent = _whoseMove.opposite();
+        int captured = 0;
+        Move last = mov;
         if (mov.isJump()) {
-            if (_whoseMove == WHITE && !stackOfPrevWhite.empty()) {
-                stackOfPrevWhite.pop();
-            } else if (_whoseMove == BLACK && !stackOfPrevBlack.empty()) {
-                stackOfPrevBlack.pop();
-            }
-            set(mov.toIndex(), _whoseMove);
-            set(mov.fromIndex(), EMPTY);
-            set(mov.jumpedCol(), mov.jumpedRow(), EMPTY);
-            if (mov.getNextJump() != null) {
-                makeMove(mov.getNextJump());
-            }
-            didTurn = true;
-        }
-        if (didTurn) {
-            _whoseMove = opponent;
-        } else if (!didTurn) {
-            if (mov.row0() == mov.row1()) {
-                String a = mov.col0() + "" + mov.row0() + ""
-                        + mov.col1() + "" + mov.row1();
-                if (_whoseMove == WHITE) {
-                    stackOfPrevWhite.push(a);
-                } else if (_whoseMove == BLACK) {
-                    stackOfPrevBlack.push(a);
+            for (Move m = mov; m != null; m = m.jumpTail()) {
+                if (!tailJumpValid(m, mov.fromIndex(), captured)) {
+                    if (!isAIWHITE || !isAIBLACK) {
+                        System.out.println("Invalid Move.");
+                    }
+                    return -1;
                 }
+                captured |= 1 << m.jumpedIndex();
+                last = m;
             }
-            set(mov.toIndex(), _whoseMove);
-            set(mov.fromIndex(), EMPTY);
-            _whoseMove = opponent;
         }
-        if (Main.getuseGUI()) {
-            Main.getDisplay().setLabel("reporter",
-                    whoseMove().toString() + " to move");
+        recordAndApply(Move.code(mov.fromIndex(), last.toIndex(),
+                                 captured));
+        return captured;
+    }
+
+    /**
+     * Make the move with code CODE, which must be legal (see isLegal),
+     * on this Board.
+     */
+    void makeMove(int code) {
+        recordAndApply(code);
+        if (_listeners != null) {
+            fireChange(new BoardChange(BoardChange.Kind.MOVE,
+                                       Move.codeFrom(code),
+                                       Move.codeTo(code),
+                                       changedSquares(code), _whoseMove));
+        }
+    }
+
+    /**
+     * Make the legal move with code CODE, recording it in my history.
+     */
+    private void recordAndApply(int code) {
+        if (_history == null) {
+            _history = new MoveHistory(_board, _whoseMove,
+                                       _whiteLateral, _blackLateral);
+        }
+        _history.record(code, lateral(_whoseMove));
+        apply(code);
+        if (_history.needsCheckpoint()) {
+            _history.checkpoint(_board, _whoseMove,
+                                _whiteLateral, _blackLateral);
+        }
+    }
+
+    /**
+     * Return true iff the jump MOV may begin (if CAPTURED is 0) or
+     * continue a multi-jump by the player to move that started at
+     * square FROM and has so far captured the squares in CAPTURED (bit
+     * k for square k), none of which has yet been removed from the
+     * board.
+     */
+    private boolean tailJumpValid(Move mov, int from, int captured) {
+        if (!mov.isJump()) {
+            return false;
+        }
+        int over = mov.jumpedIndex(), to = mov.toIndex();
+        if ((captured & (1 << over)) != 0
+            || get(over) != _whoseMove.opposite()) {
+            return false;
+        }
+        if (get(to) != EMPTY && to != from) {
+            return false;
         }
-        setChanged();
-        notifyObservers();
+        return jumpSpaceValid(mov);
     }
+
+    /**
+     * Perform the move with code CODE, which is known to be legal, for
+     * the player to move, updating my lateral-move state but not my
+     * history.
+     */
+    private void apply(int code) {
+        int from = Move.codeFrom(code), to = Move.codeTo(code);
+        int captured = Move.codeCaptures(code);
+        PieceColor who = _whoseMove;
+        set(from, EMPTY);
+        set(to, who);
+        while (captured != 0) {
+            set(Integer.numberOfTrailingZeros(captured), EMPTY);
+            captured &= captured - 1;
+        }
+        boolean lateral = false;
+        if (Move.codeIsJump(code)) {
+            setLateral(who, Move.NO_MOVE);
+        } else if (Move.row(from) == Move.row(to)) {
+            setLateral(who, code);
+            lateral = true;
+        }
+        _whoseMove = who.opposite();
+        pushKey(Move.codeIsJump(code), lateral);
+    }
+
+    /**
+     * Make the legal move with code CODE without recording it in my
+     * history or telling my listeners, for use in searches.  Return the
+     * value to pass to retract to take it back.
+     */
+    int play(int code) {
+        int priorLateral = lateral(_whoseMove);
+        apply(code);
+        return priorLateral;
+    }
+
+    /**
+     * Take back the move with code CODE, made by play, which returned
+     * UNDO.
+     */
+    void retract(int code, int undo) {
+        unapply(code, undo);
+    }
+
+    /**
+     * Take back the move with code CODE, which was made by the player
+     * not now to move, whose lateral-move state had been PRIORLATERAL.
+     */
+    private void unapply(int code, int priorLateral) {
+        int from = Move.codeFrom(code), to = Move.codeTo(code);
+        int captured = Move.codeCaptures(code);
+        PieceColor who = _whoseMove.opposite();
+        set(to, EMPTY);
+        set(from, who);
+        while (captured != 0) {
+            set(Integer.numberOfTrailingZeros(captured), who.opposite());
+            captured &= captured - 1;
+        }
+        setLateral(who, priorLateral);
+        _whoseMove = who;
+        popKey();
+    }
+
+    /**
+     * Pass the move to the other player without moving, for null-move
+     * pruning in searches.  This is not a legal move; take it back with
+     * retractNull.
+     */
+    void playNull() {
+        _whoseMove = _whoseMove.opposite();
+        pushKey(false, false);
+    }
+
+    /**
+     * Take back the pass made by playNull.
+     */
+    void retractNull() {
+        _whoseMove = _whoseMove.opposite();
+        popKey();
+    }
+
+    /**
+     * Make the current position the first in my key history.
+     */
+    private void resetKeys() {
+        _depth = 0;
+        _keys[0] = key();
+        _reversible[0] = _quiet[0] = 0;
+    }
+
+    /**
+     * Remove the current position, which is being taken back, from my
+     * key history.
+     */
+    private void popKey() {
+        if (_depth == 0) {
+            resetKeys();
+        } else {
+            _depth -= 1;
+        }
+    }
+
+    /**
+     * Add the current position, just reached by a capture if CAPTURE,
+     * or else by a lateral move if LATERAL, to my key history.
+     */
+    private void pushKey(boolean capture, boolean lateral) {
+        int d = _depth + 1;
+        if (d == _keys.length) {
+            _keys = Arrays.copyOf(_keys, 2 * d);
+            _reversible = Arrays.copyOf(_reversible, 2 * d);
+            _quiet = Arrays.copyOf(_quiet, 2 * d);
+        }
+        _keys[d] = key();
+        _reversible[d] = lateral ? _reversible[_depth] + 1 : 0;
+        _quiet[d] = capture ? 0 : _quiet[_depth] + 1;
+        _depth = d;
+    }
+
+    /**
+     * Return the number of times the current position has occurred
+     * before in my key history.  Only positions since the last capture
+     * or forward move can match, so this examines only those.
+     */
+    int repetitions() {
+        long key = _keys[_depth];
+        int count = 0;
+        for (int d = _depth - 2; d >= _depth - _reversible[_depth];
+             d -= 2) {
+            if (_keys[d] == key) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return true iff the current position has occurred before in my
+     * key history.
+     */
+    boolean repeated() {
+        long key = _keys[_depth];
+        for (int d = _depth - 2; d >= _depth - _reversible[_depth];
+             d -= 2) {
+            if (_keys[d] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return the number of moves in a row without a capture after which
+     * a game is drawn, or 0 if there is no limit.
+     */
+    int noCaptureLimit() {
+        return _noCaptureLimit;
+    }
+
+    /**
+     * Set noCaptureLimit() to PLIES.  This is not a change to the
+     * position, so my listeners are not notified; my constant views
+     * read the limit from me.
+     */
+    void setNoCaptureLimit(int plies) {
+        _noCaptureLimit = plies;
+    }
+
+    /**
+     * Return true iff noCaptureLimit() moves have been made in a row
+     * without a capture.
+     */
+    boolean noCaptureLimitReached() {
+        int limit = noCaptureLimit();
+        return limit > 0 && _quiet[_depth] >= limit;
+    }
+
+    /**
+     * Return true iff the game is drawn: the current position has
+     * occurred DRAW_REPETITIONS times, or the no-capture limit has been
+     * reached and the player to move has not lost.
+     */
+    boolean isDraw() {
+        return repetitions() >= DRAW_REPETITIONS - 1
+            || noCaptureLimitReached() && hasLegalMove();
+    }
+
+    /**
+     * Return the set of squares (bit k for square k) changed by the move
+     * with code CODE.
+     */
+    private static int changedSquares(int code) {
+        return (1 << Move.codeFrom(code)) | (1 << Move.codeTo(code))
+            | Move.codeCaptures(code);
+    }
+
+    /**
+     * Return the code of the last horizontal non-capturing move made by
+     * WHO since its last capture, or Move.NO_MOVE if none.
+     */
+    private int lateral(PieceColor who) {
+        return who == WHITE ? _whiteLateral : _blackLateral;
+    }
+
+    /**
+     * Set lateral(WHO) to CODE.
+     */
+    private void setLateral(PieceColor who, int code) {
+        if (who == WHITE) {
+            _whiteLateral = code;
+        } else {
+            _blackLateral = code;
+        }
+    }
+
+    /**
+     * Return true iff the non-capturing MOV would move a piece straight
+     * back along the last horizontal move made by the player to move.
+     */
+    private boolean reversesLateral(Move mov) {
+        return lateral(_whoseMove)
+            == Move.code(mov.toIndex(), mov.fromIndex(), 0);
+    }
+
     /** north. return INDEX. */
     int north(int index) {
         return index + 5;
@@ -844,365 +1558,152 @@ class Board extends Observable {
     int twoSouthEast(int index) {
         return index + 2 - 10;
     }
-    /** canJump. return JUMP. WHO. */
+    /** canJump. return JUMP. WHO.  The answer for each side is
+     *  remembered until the board next changes. */
     boolean canJump(PieceColor who) {
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == who) {
-                if (twoNorth(i) >= 0 && twoNorth(i) < SIDE * SIDE) {
-                    if (get(twoNorth(i)) == EMPTY) {
-                        if (jumpValid(Move.move(i, twoNorth(i)))) {
-                            return true;
-                        }
-                    }
-                }
-                if (twoSouth(i) >= 0 && twoSouth(i) < SIDE * SIDE) {
-                    if (get(twoSouth(i)) == EMPTY) {
-                        if (jumpValid(Move.move(i, twoSouth(i)))) {
-                            return true;
-                        }
-                    }
-                }
-                if (twoEast(i) >= 0 && twoEast(i) < SIDE * SIDE) {
-                    if (get(twoEast(i)) == EMPTY) {
-                        if (jumpValid(Move.move(i, twoEast(i)))) {
-                            return true;
-                        }
-                    }
-                }
-                if (twoWest(i) >= 0 && twoWest(i) < SIDE * SIDE) {
-                    PieceColor d1 = get(twoWest(i));
-                    if (d1 == EMPTY) {
-                        if (jumpValid(Move.move(i, twoWest(i)))) {
-                            return true;
-                        }
-                    }
-                }
-                if (twoNorthEast(i) >= 0 && twoNorthEast(i) < SIDE * SIDE) {
-                    PieceColor e1 = get(twoNorthEast(i));
-                    if (jumpValid(Move.move(i, twoNorthEast(i)))) {
-                        return true;
-                    }
-                }
-                if (twoNorthWest(i) >= 0 && twoNorthWest(i) < SIDE * SIDE) {
-                    PieceColor f1 = get(twoNorthWest(i));
-                    if (jumpValid(Move.move(i, twoNorthWest(i)))) {
-                        return true;
-                    }
-                }
-                if (twoSouthEast(i) >= 0 && twoSouthEast(i) < SIDE * SIDE) {
-                    PieceColor g1 = get(twoSouthEast(i));
-                    if (jumpValid(Move.move(i, twoSouthEast(i)))) {
-                        return true;
-                    }
-                }
-                if (twoSouthWest(i) >= 0 && twoSouthWest(i) < SIDE * SIDE) {
-                    PieceColor h1 = get(twoSouthWest(i));
-                    if (jumpValid(Move.move(i, twoSouthWest(i)))) {
-                        return true;
-                    }
+        int known = who == WHITE ? WHITE_JUMP_KNOWN : BLACK_JUMP_KNOWN;
+        int can = who == WHITE ? WHITE_CAN_JUMP : BLACK_CAN_JUMP;
+        if ((_jumpCache & known) == 0) {
+            _jumpCache |= known;
+            for (int k = 0; k <= MAX_INDEX; k += 1) {
+                if (_board[k] == who && jumpPossible(k)) {
+                    _jumpCache |= can;
+                    break;
                 }
             }
         }
-        return false;
+        return (_jumpCache & can) != 0;
     }
 
     /**
-     * Undo the last move, if any. return WHO.
+     * Undo the last move, if any.
      */
     void undo() {
-        if (_prevBoards.empty()) {
+        int code = _history == null ? Move.NO_MOVE : _history.back();
+        if (code == Move.NO_MOVE) {
             return;
         }
-        Board a = _prevBoards.pop();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            this.set(i, a.get(i));
+        unapply(code, _history.priorLateral(_history.ply()));
+        if (_listeners != null) {
+            fireChange(new BoardChange(BoardChange.Kind.UNDO,
+                                       Move.codeTo(code),
+                                       Move.codeFrom(code),
+                                       changedSquares(code), _whoseMove));
         }
-        _whoseMove = _whoseMove.opposite();
-        setChanged();
-        notifyObservers();
     }
 
     /**
-     * Return an ArrayList FINDLEGALMOVES with BOARD and WHO.
-     */
-    /**
-     * Return an ArrayList FINDLEGALMOVES with BOARD and WHO.
+     * Redo the last move undone, if it has not since been replaced by
+     * another move.
      */
-    public ArrayList<Move> findlegalmoves(Board board, PieceColor who) {
-        ArrayList<Move> legalmoves = new ArrayList<Move>();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == _whoseMove) {
-                int north = north(i);
-                int south = south(i);
-                int west = west(i);
-                int east = east(i);
-                if (validIndex(north)) {
-                    Move x = Move.move(i, north);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                if (validIndex(south)) {
-                    Move x = Move.move(i, south);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                if (validIndex(east)) {
-                    Move x = Move.move(i, east);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                if (validIndex(west)) {
-                    Move x = Move.move(i, west);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                for (Move s : checkotherindexes()) {
-                    legalmoves.add(s);
-                }
-                for (Move p : checkotherindexes2()) {
-                    legalmoves.add(p);
-                }
-                for (Move r : checkotherindexes22()) {
-                    legalmoves.add(r);
-                }
-                for (Move r : checkotherindexes3()) {
-                    legalmoves.add(r);
-                }
-                for (Move r : checkotherindexes4()) {
-                    legalmoves.add(r);
-                }
-            }
+    void redo() {
+        int code = _history == null ? Move.NO_MOVE : _history.forward();
+        if (code == Move.NO_MOVE) {
+            return;
+        }
+        apply(code);
+        if (_listeners != null) {
+            fireChange(new BoardChange(BoardChange.Kind.MOVE,
+                                       Move.codeFrom(code),
+                                       Move.codeTo(code),
+                                       changedSquares(code), _whoseMove));
         }
-        return legalmoves;
     }
 
     /**
-     * checker. returns MOVE.
-     */
-    public ArrayList<Move> checkotherindexes2() {
-        ArrayList<Move> legalmoves = new ArrayList<Move>();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == _whoseMove) {
-                int twoNorth = twoNorth(i);
-                int twoSouth = twoSouth(i);
-
-                if (validIndex(twoNorth)) {
-                    Move x = Move.move(i, twoNorth);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
-                if (validIndex(twoSouth)) {
-                    Move x = Move.move(i, twoSouth);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
-            }
-        }
-        return legalmoves;
+     * Return the number of moves made (and not undone) since I was last
+     * cleared or set.
+     */
+    int ply() {
+        return _history == null ? 0 : _history.ply();
     }
 
     /**
-     * checker.returns MOVE.
-     */
-    public ArrayList<Move> checkotherindexes22() {
-        ArrayList<Move> legalmoves = new ArrayList<Move>();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == _whoseMove) {
-                int twoEast = twoEast(i);
-                int twoWest = twoWest(i);
-                if (validIndex(twoEast)) {
-                    Move x = Move.move(i, twoEast);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
+     * Return the number of moves that can be redone.
+     */
+    int redoable() {
+        return _history == null ? 0 : _history.length() - _history.ply();
+    }
 
-                if (validIndex(twoWest)) {
-                    Move x = Move.move(i, twoWest);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
+    /**
+     * Undo or redo moves until ply() == PLY, as far as possible.  The
+     * position is rebuilt from the nearest checkpoint when that is
+     * cheaper than stepping there one move at a time, in which case
+     * repetitions of positions before the checkpoint go unnoticed.
+     */
+    void gotoPly(int ply) {
+        if (_history == null) {
+            return;
+        }
+        ply = Math.max(0, Math.min(_history.length(), ply));
+        int now = _history.ply();
+        int checkPly = _history.checkpointPly(ply);
+        int steps = Math.abs(ply - now);
+        if (steps == 0) {
+            return;
+        }
+        if ((ply < now || now < checkPly) && ply - checkPly < steps) {
+            PieceColor[] saved = new PieceColor[linearSize];
+            int[] state = _history.restore(checkPly, saved);
+            for (int k = 0; k < linearSize; k += 1) {
+                set(k, saved[k]);
             }
+            _whoseMove = PIECE_VALUES[state[0]];
+            _whiteLateral = state[1];
+            _blackLateral = state[2];
+            resetKeys();
+            now = checkPly;
         }
-        return legalmoves;
+        for (; now > ply; now -= 1) {
+            int code = _history.back();
+            unapply(code, _history.priorLateral(_history.ply()));
+        }
+        for (; now < ply; now += 1) {
+            apply(_history.forward());
+        }
+        fireChange(BoardChange.reset(_whoseMove));
     }
 
     /**
-     * checker. returns MOVE.
-     */
-    public ArrayList<Move> checkotherindexes3() {
-        ArrayList<Move> legalmoves = new ArrayList<Move>();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == _whoseMove) {
-                int twonortheast = twoNorthEast(i);
-                int twonorthwest = twoNorthWest(i);
-                if (validIndex(twonorthwest)) {
-                    Move x = Move.move(i, twonorthwest);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
-                if (validIndex(twonortheast)) {
-                    Move x = Move.move(i, twonortheast);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
+     * Add LISTENER to the objects told of changes to me.
+     */
+    void addListener(BoardListener listener) {
+        if (_listeners == null) {
+            _listeners = new ArrayList<>();
+        }
+        _listeners.add(listener);
+    }
 
-            }
+    /**
+     * Remove LISTENER from the objects told of changes to me.
+     */
+    void removeListener(BoardListener listener) {
+        if (_listeners != null) {
+            _listeners.remove(listener);
         }
-        return legalmoves;
     }
 
     /**
-     * checker. return MOVE.
-     */
-    public ArrayList<Move> checkotherindexes4() {
-        ArrayList<Move> legalmoves = new ArrayList<Move>();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == _whoseMove) {
-                int twosoutheast = twoSouthEast(i);
-                int twosouthwest = twoSouthWest(i);
-                if (validIndex(twosoutheast)) {
-                    Move x = Move.move(i, twosoutheast);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
-                if (validIndex(twosouthwest)) {
-                    Move x = Move.move(i, twosouthwest);
-                    if (legalMove(x) && jumpValid(x)) {
-                        TestBoard hello = new TestBoard(this);
-                        if (!isAIBLACK) {
-                            hello.makeMove(x);
-                            Move y = hello.returnNextJump(x);
-                            Move superMove =
-                                    Move.move(x.col0(), x.row0(),
-                                            x.col1(), x.row1(), y);
-                            legalmoves.add(superMove);
-                        } else {
-                            legalmoves.add(x);
-                        }
-                    }
-                }
+     * Tell my listeners, if any, about CHANGE.
+     */
+    void fireChange(BoardChange change) {
+        if (_listeners != null) {
+            for (BoardListener listener : _listeners) {
+                listener.boardChanged(change);
             }
         }
-        return legalmoves;
     }
 
     /**
-     * checker. return MOVE.
+     * Return a list of the legal moves for the player to move.  BOARD
+     * and WHO are ignored; they must be this board and whoseMove().
      */
-    public ArrayList<Move> checkotherindexes() {
-        ArrayList<Move> legalmoves = new ArrayList<Move>();
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (get(i) == _whoseMove) {
-                int northwest = northwest(i);
-                int northeast = northeast(i);
-                int southeast = southeast(i);
-                int southwest = southwest(i);
-                if (validIndex(northeast)) {
-                    Move x = Move.move(i, northeast);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                if (validIndex(northwest)) {
-                    Move x = Move.move(i, northwest);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                if (validIndex(southeast)) {
-                    Move x = Move.move(i, southeast);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-                if (validIndex(southwest)) {
-                    Move x = Move.move(i, southwest);
-                    if (legalMove(x) && moveValid(x)) {
-                        legalmoves.add(x);
-                    }
-                }
-            }
+    public ArrayList<Move> findlegalmoves(Board board, PieceColor who) {
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        int n = legalMoves(moves);
+        ArrayList<Move> legalmoves = new ArrayList<Move>(n);
+        for (int i = 0; i < n; i += 1) {
+            legalmoves.add(toMove(moves[i]));
         }
         return legalmoves;
     }
@@ -1251,13 +1752,12 @@ class Board extends Observable {
     }
     /** numPieces. COLOR. return NUMPIECES. */
     int numPieces(PieceColor color) {
-        int counter = 0;
-        for (PieceColor piece : _board) {
-            if (color == piece) {
-                counter += 1;
-            }
+        if (color == WHITE) {
+            return _whiteCount;
+        } else if (color == BLACK) {
+            return _blackCount;
         }
-        return counter;
+        return linearSize - _whiteCount - _blackCount;
     }
 
     @Override
@@ -1276,13 +1776,7 @@ class Board extends Observable {
     }
     /** countnumPiece. return B. P. */
     public int countNumPiece(Board b, PieceColor p) {
-        int count = 0;
-        for (int i = 0; i < SIDE * SIDE; i++) {
-            if (b.get(i) == p) {
-                count++;
-            }
-        }
-        return count;
+        return b.numPieces(p);
     }
 
     /** sets isAIWHITE. B. */
@@ -1298,9 +1792,15 @@ class Board extends Observable {
     /** Return true iff there is a move for the current player. */
 
     /**
-     * Saved previous board for Undo.
+     * Objects to be told of changes to me, or null if none.
+     */
+    private ArrayList<BoardListener> _listeners;
+
+    /**
+     * The moves made since I was last cleared or set, or null if there
+     * have been none.  Copies of me start with no history.
      */
-    private Stack<Board> _prevBoards;
+    private MoveHistory _history;
 
     /**
      * Player that is on move.
@@ -1321,10 +1821,16 @@ class Board extends Observable {
      * Linear size of the current board.
      */
     private int linearSize = Move.SIDE * Move.SIDE;
-    /** stack. */
-    private Stack<String> stackOfPrevWhite;
-    /** stack. */
-    private Stack<String> stackOfPrevBlack;
+    /**
+     * The code of the last horizontal non-capturing move made by white
+     * since its last capture, or Move.NO_MOVE.  White may not make the
+     * reverse of this move.
+     */
+    private int _whiteLateral;
+    /**
+     * As for _whiteLateral, for black.
+     */
+    private int _blackLateral;
 
     /**
      * One cannot create arrays of ArrayList<Move>, so we introduce
@@ -1334,15 +1840,27 @@ class Board extends Observable {
     }
 
     /**
-     * A read-only view of a Board.
+     * A read-only view of a Board.  It keeps itself up to date by
+     * listening to the Board it views; listeners added to the view are
+     * attached directly to that Board.
      */
-    private class ConstantBoard extends Board implements Observer {
+    private class ConstantBoard extends Board implements BoardListener {
         /**
          * A constant view of this Board. return BOARD.
          */
         ConstantBoard() {
             super(Board.this);
-            Board.this.addObserver(this);
+            Board.this.addListener(this);
+        }
+
+        @Override
+        void addListener(BoardListener listener) {
+            Board.this.addListener(listener);
+        }
+
+        @Override
+        void removeListener(BoardListener listener) {
+            Board.this.removeListener(listener);
         }
 
         @Override
@@ -1361,10 +1879,25 @@ class Board extends Observable {
         }
 
         @Override
-        public void update(Observable obs, Object arg) {
-            super.copy((Board) obs);
-            setChanged();
-            notifyObservers(arg);
+        void redo() {
+        }
+
+        @Override
+        void gotoPly(int ply) {
+        }
+
+        @Override
+        int noCaptureLimit() {
+            return Board.this.noCaptureLimit();
+        }
+
+        @Override
+        void setNoCaptureLimit(int plies) {
+        }
+
+        @Override
+        public void boardChanged(BoardChange change) {
+            super.copy(Board.this);
         }
 
     }
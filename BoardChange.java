@@ -0,0 +1,108 @@
+package qirkat;
+
+/** Describes a change to a Board: a move, an undone move, or a
+ *  wholesale reset of the position.  Instances are immutable.
+ *  @author Sarah Jin
+ */
+class BoardChange {
+
+    /** The kinds of change. */
+    enum Kind {
+        /** A move was made. */
+        MOVE,
+        /** The last move was undone. */
+        UNDO,
+        /** The whole position was replaced (cleared or set). */
+        RESET;
+    }
+
+    /** Set of all squares. */
+    static final int ALL_SQUARES = (1 << (Move.MAX_INDEX + 1)) - 1;
+
+    /** A change of type KIND that moved a piece from FROM to TO (both -1
+     *  if not applicable), changed the set of squares DIRTY (bit k for
+     *  square k), and left NEXTMOVE to play. */
+    BoardChange(Kind kind, int from, int to, int dirty,
+                PieceColor nextMove) {
+        _kind = kind;
+        _from = from;
+        _to = to;
+        _dirty = dirty;
+        _nextMove = nextMove;
+    }
+
+    /** Return a change describing MOV, which captured the squares in
+     *  the set CAPTURED and left NEXTMOVE to play. */
+    static BoardChange move(Move mov, int captured, PieceColor nextMove) {
+        Move last = mov;
+        while (last.jumpTail() != null) {
+            last = last.jumpTail();
+        }
+        int from = mov.fromIndex(), to = last.toIndex();
+        return new BoardChange(Kind.MOVE, from, to,
+                               (1 << from) | (1 << to) | captured,
+                               nextMove);
+    }
+
+    /** Return a change that replaced the whole position, leaving
+     *  NEXTMOVE to play. */
+    static BoardChange reset(PieceColor nextMove) {
+        return new BoardChange(Kind.RESET, -1, -1, ALL_SQUARES, nextMove);
+    }
+
+    /** Return the combined effect of me followed by LATER.  The result
+     *  has LATER's kind and endpoints, and the squares changed by
+     *  either. */
+    BoardChange merge(BoardChange later) {
+        Kind kind = _kind == Kind.RESET ? Kind.RESET : later._kind;
+        return new BoardChange(kind, later._from, later._to,
+                               _dirty | later._dirty, later._nextMove);
+    }
+
+    /** Return my kind. */
+    Kind kind() {
+        return _kind;
+    }
+
+    /** Return the square moved from, or -1. */
+    int from() {
+        return _from;
+    }
+
+    /** Return the square moved to, or -1. */
+    int to() {
+        return _to;
+    }
+
+    /** Return the set of squares whose contents may have changed, as a
+     *  bit set (bit k for linearized index k). */
+    int dirty() {
+        return _dirty;
+    }
+
+    /** Return true iff square K may have changed. */
+    boolean isDirty(int k) {
+        return (_dirty & (1 << k)) != 0;
+    }
+
+    /** Return the player to move after the change. */
+    PieceColor nextMove() {
+        return _nextMove;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %d-%d dirty=%x %s", _kind, _from, _to,
+                             _dirty, _nextMove);
+    }
+
+    /** My kind. */
+    private final Kind _kind;
+    /** Origin and destination squares, or -1. */
+    private final int _from, _to;
+    /** Squares changed. */
+    private final int _dirty;
+    /** Player to move afterwards. */
+    private final PieceColor _nextMove;
+
+}
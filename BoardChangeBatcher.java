@@ -0,0 +1,62 @@
+package qirkat;
+
+import javax.swing.Timer;
+
+/** A BoardListener that coalesces the changes it hears about and
+ *  passes them on to another listener at most once per frame, on the
+ *  Swing event thread.  Changes made faster than the display can show
+ *  them (e.g., in a fast game between AIs) are merged into one.
+ *  @author Sarah Jin
+ */
+class BoardChangeBatcher implements BoardListener {
+
+    /** Default delay between deliveries (milliseconds): about one
+     *  frame at 60Hz. */
+    static final int FRAME_MSEC = 16;
+
+    /** A batcher that delivers changes to TARGET at most once every
+     *  FRAME_MSEC milliseconds. */
+    BoardChangeBatcher(BoardListener target) {
+        this(target, FRAME_MSEC);
+    }
+
+    /** A batcher that delivers changes to TARGET at most once every
+     *  FRAMEMSEC milliseconds. */
+    BoardChangeBatcher(BoardListener target, int frameMsec) {
+        _target = target;
+        _timer = new Timer(frameMsec, e -> flush());
+        _timer.setRepeats(false);
+    }
+
+    @Override
+    public void boardChanged(BoardChange change) {
+        synchronized (this) {
+            if (_pending != null) {
+                _pending = _pending.merge(change);
+                return;
+            }
+            _pending = change;
+        }
+        _timer.restart();
+    }
+
+    /** Deliver the pending change, if any, to my target. */
+    private void flush() {
+        BoardChange change;
+        synchronized (this) {
+            change = _pending;
+            _pending = null;
+        }
+        if (change != null) {
+            _target.boardChanged(change);
+        }
+    }
+
+    /** The listener to which I deliver changes. */
+    private final BoardListener _target;
+    /** Timer that fires one frame after the first undelivered change. */
+    private final Timer _timer;
+    /** The merge of all changes not yet delivered, or null. */
+    private BoardChange _pending;
+
+}
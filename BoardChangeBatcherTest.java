@@ -0,0 +1,65 @@
+package qirkat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import static qirkat.PieceColor.*;
+import static qirkat.BoardChange.Kind.*;
+
+/** Tests of the BoardChangeBatcher class.
+ *  @author Sarah Jin
+ */
+public class BoardChangeBatcherTest {
+
+    /** Delay between deliveries used here, in milliseconds. */
+    private static final int FRAME = 100;
+
+    @Test
+    public void testBatching()
+        throws InterruptedException, InvocationTargetException {
+        List<BoardChange> delivered = new ArrayList<>();
+        List<Boolean> onEventThread = new ArrayList<>();
+        BoardListener target = change -> {
+            delivered.add(change);
+            onEventThread.add(SwingUtilities.isEventDispatchThread());
+        };
+        BoardChangeBatcher batcher = new BoardChangeBatcher(target, FRAME);
+        batcher.boardChanged(new BoardChange(MOVE, 1, 2, 0b110, BLACK));
+        batcher.boardChanged(new BoardChange(MOVE, 8, 3, 0b100001000,
+                                             WHITE));
+        batcher.boardChanged(new BoardChange(MOVE, 4, 5, 0b110000, BLACK));
+        assertEquals(0, deliveries(delivered, 0));
+        assertEquals(1, deliveries(delivered, 2 * FRAME));
+        BoardChange change = delivered.get(0);
+        assertEquals(MOVE, change.kind());
+        assertEquals(4, change.from());
+        assertEquals(5, change.to());
+        assertEquals(0b100111110, change.dirty());
+        assertEquals(BLACK, change.nextMove());
+
+        batcher.boardChanged(BoardChange.reset(WHITE));
+        batcher.boardChanged(new BoardChange(UNDO, 5, 4, 0b110000, WHITE));
+        assertEquals(2, deliveries(delivered, 2 * FRAME));
+        change = delivered.get(1);
+        assertEquals(RESET, change.kind());
+        assertEquals(BoardChange.ALL_SQUARES, change.dirty());
+        assertEquals(WHITE, change.nextMove());
+        assertEquals(2, deliveries(delivered, 2 * FRAME));
+        assertFalse(onEventThread.contains(false));
+    }
+
+    /** Return the number of changes in DELIVERED after waiting MSEC
+     *  milliseconds and for the Swing event queue to drain. */
+    private static int deliveries(List<BoardChange> delivered, long msec)
+        throws InterruptedException, InvocationTargetException {
+        Thread.sleep(msec);
+        SwingUtilities.invokeAndWait(() -> { });
+        return delivered.size();
+    }
+
+}
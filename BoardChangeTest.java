@@ -0,0 +1,60 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import static qirkat.PieceColor.*;
+import static qirkat.BoardChange.Kind.*;
+
+/** Tests of the BoardChange class.
+ *  @author Sarah Jin
+ */
+public class BoardChangeTest {
+
+    @Test
+    public void testMove() {
+        int c2 = Move.index('c', '2'), c3 = Move.index('c', '3');
+        BoardChange change = BoardChange.move(Move.parseMove("c2-c3"), 0,
+                                              BLACK);
+        assertEquals(MOVE, change.kind());
+        assertEquals(c2, change.from());
+        assertEquals(c3, change.to());
+        assertEquals((1 << c2) | (1 << c3), change.dirty());
+        assertTrue(change.isDirty(c2));
+        assertFalse(change.isDirty(Move.index('c', '1')));
+        assertEquals(BLACK, change.nextMove());
+    }
+
+    @Test
+    public void testMerge() {
+        BoardChange move1 = new BoardChange(MOVE, 1, 2, 0b110, BLACK);
+        BoardChange move2 = new BoardChange(MOVE, 8, 3, 0b100001000,
+                                            WHITE);
+        BoardChange undo = new BoardChange(UNDO, 3, 8, 0b100001000, BLACK);
+        BoardChange reset = BoardChange.reset(WHITE);
+
+        BoardChange merged = move1.merge(move2);
+        assertEquals(MOVE, merged.kind());
+        assertEquals(8, merged.from());
+        assertEquals(3, merged.to());
+        assertEquals(0b100001110, merged.dirty());
+        assertEquals(WHITE, merged.nextMove());
+
+        merged = move1.merge(move2).merge(undo);
+        assertEquals(UNDO, merged.kind());
+        assertEquals(0b100001110, merged.dirty());
+        assertEquals(BLACK, merged.nextMove());
+
+        merged = move1.merge(reset);
+        assertEquals(RESET, merged.kind());
+        assertEquals(BoardChange.ALL_SQUARES, merged.dirty());
+        assertEquals(WHITE, merged.nextMove());
+
+        merged = reset.merge(move1);
+        assertEquals(RESET, merged.kind());
+        assertEquals(BoardChange.ALL_SQUARES, merged.dirty());
+        assertEquals(BLACK, merged.nextMove());
+        assertEquals(RESET, reset.merge(move1).merge(undo).kind());
+    }
+
+}
@@ -0,0 +1,13 @@
+package qirkat;
+
+/** An object that is told of changes to a Board.  Only boards that
+ *  have listeners (in practice, the game's own board) report changes;
+ *  copies made for searching never do.
+ *  @author Sarah Jin
+ */
+interface BoardListener {
+
+    /** Respond to CHANGE, which has just been made to the board. */
+    void boardChanged(BoardChange change);
+
+}
@@ -1,5 +1,7 @@
 package qirkat;
 
+import java.util.ArrayList;
+
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -92,4 +94,246 @@ public class BoardTest {
         assertEquals(PieceColor.WHITE, x);
     }
 
+    @Test
+    public void testRedo() {
+        Board b0 = new Board();
+        makeMoves(b0, GAME1);
+        Board end = new Board(b0);
+        for (int i = 0; i < 3; i += 1) {
+            b0.undo();
+        }
+        assertEquals(3, b0.redoable());
+        for (int i = 0; i < 3; i += 1) {
+            b0.redo();
+        }
+        assertEquals(end, b0);
+        assertEquals(GAME1.length, b0.ply());
+        b0.undo();
+        b0.makeMove(Move.parseMove("a3-c5-c3"));
+        assertEquals(0, b0.redoable());
+    }
+
+    @Test
+    public void testGotoPly() {
+        Board b0 = new Board();
+        ArrayList<Board> positions = new ArrayList<>();
+        positions.add(new Board(b0));
+        for (int i = 0; i < 3 * MoveHistory.CHECKPOINT_INTERVAL; i += 1) {
+            ArrayList<Move> moves = b0.findlegalmoves(b0, b0.whoseMove());
+            if (moves.isEmpty()) {
+                break;
+            }
+            b0.makeMove(moves.get(i % moves.size()));
+            positions.add(new Board(b0));
+        }
+        int last = positions.size() - 1;
+        int[] plies = { last, 0, last / 2, last - 1, 1, last, 2 };
+        for (int ply : plies) {
+            b0.gotoPly(ply);
+            assertEquals(ply, b0.ply());
+            assertEquals(positions.get(ply), b0);
+            assertEquals(positions.get(ply).whoseMove(), b0.whoseMove());
+        }
+    }
+
+    @Test
+    public void testUndoLateral() {
+        Board b0 = new Board();
+        b0.setPieces("w----  -----  -w--b  -----  b---b", PieceColor.WHITE);
+        b0.makeMove(Move.parseMove("b3-c3"));
+        b0.makeMove(Move.parseMove("e5-d5"));
+        assertFalse(b0.legalMove(Move.parseMove("c3-b3")));
+        b0.undo();
+        b0.undo();
+        b0.makeMove(Move.parseMove("b3-c3"));
+        b0.makeMove(Move.parseMove("e5-d5"));
+        assertFalse(b0.legalMove(Move.parseMove("c3-b3")));
+        b0.undo();
+        b0.undo();
+        assertTrue(b0.legalMove(Move.parseMove("b3-a3")));
+    }
+
+    @Test
+    public void testBadJumpNotRecorded() {
+        Board b0 = new Board();
+        b0.setPieces("w---- ----- ----- ----- ----b", PieceColor.WHITE);
+        String before = b0.toString();
+        b0.makeMove(Move.parseMove("a1-a3"));
+        assertEquals(before, b0.toString());
+        assertEquals(PieceColor.WHITE, b0.whoseMove());
+        b0.undo();
+        assertEquals(1, b0.numPieces(PieceColor.BLACK));
+        assertEquals(1, b0.numPieces(PieceColor.WHITE));
+    }
+
+    @Test
+    public void testPieceCounts() {
+        Board b0 = new Board();
+        assertEquals(12, b0.numPieces(PieceColor.WHITE));
+        assertEquals(12, b0.numPieces(PieceColor.BLACK));
+        makeMoves(b0, GAME1);
+        assertEquals(10, b0.numPieces(PieceColor.WHITE));
+        assertEquals(8, b0.numPieces(PieceColor.BLACK));
+        assertEquals(7, b0.numPieces(PieceColor.EMPTY));
+        b0.undo();
+        assertEquals(10, b0.numPieces(PieceColor.BLACK));
+        b0.setPieces("w----  -----  -----  -----  ----b", PieceColor.WHITE);
+        assertEquals(1, b0.numPieces(PieceColor.WHITE));
+        assertEquals(1, b0.numPieces(PieceColor.BLACK));
+        assertTrue(b0.hasLegalMove());
+        b0.setPieces("-----  -----  -----  -----  w---b", PieceColor.WHITE);
+        assertFalse(b0.hasLegalMove());
+        assertTrue(b0.gameOver());
+    }
+
+    @Test
+    public void testCanJump() {
+        Board b0 = new Board();
+        assertFalse(b0.canJump(PieceColor.WHITE));
+        b0.makeMove(Move.parseMove("c2-c3"));
+        assertTrue(b0.canJump(PieceColor.BLACK));
+        b0.undo();
+        assertFalse(b0.canJump(PieceColor.BLACK));
+        b0.setPieces("-----  --w--  --b--  -----  -----", PieceColor.WHITE);
+        assertTrue(b0.canJump(PieceColor.WHITE));
+        b0.set(Move.index('c', '4'), PieceColor.BLACK);
+        assertFalse(b0.canJump(PieceColor.WHITE));
+        assertTrue(b0.canJump(PieceColor.BLACK));
+    }
+
+    @Test
+    public void testMoveCodes() {
+        Board b0 = new Board();
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        assertEquals(0, b0.jumpMoves(moves, 0));
+        int n = b0.quietMoves(moves, 0);
+        assertEquals(4, n);
+        for (int i = 0; i < n; i += 1) {
+            assertTrue(b0.isLegal(moves[i]));
+            assertEquals(moves[i], b0.toMove(moves[i]).code());
+        }
+        b0.makeMove(Move.parseMove("c2-c3"));
+        assertFalse(b0.isLegal(Move.parseMove("b4-b3").code()));
+        n = b0.jumpMoves(moves, 0);
+        assertEquals(1, n);
+        assertEquals("c4-c2", b0.toMove(moves[0]).toString());
+        b0.setPieces("w----  -b---  -----  -b---  -----", PieceColor.WHITE);
+        n = b0.jumpMoves(moves, 0);
+        assertEquals(1, n);
+        assertEquals(Move.parseMove("a1-c3-a5").code(), moves[0]);
+        assertFalse(b0.isLegal(Move.parseMove("a1-c3").code()));
+    }
+
+    @Test
+    public void testKey() {
+        Board b0 = new Board(), b1 = new Board();
+        assertEquals(b0.key(), b1.key());
+        makeMoves(b0, new String[] { "c2-c3", "c4-c2", "c1-c3" });
+        makeMoves(b1, new String[] { "c2-c3", "c4-c2" });
+        assertNotEquals(b0.key(), b1.key());
+        b0.undo();
+        assertEquals(b0.key(), b1.key());
+        Board b2 = new Board(b0);
+        assertEquals(b0.key(), b2.key());
+        b2.setWhoseMove(PieceColor.BLACK);
+        assertNotEquals(b0.key(), b2.key());
+    }
+
+    @Test
+    public void testMirrorKey() {
+        Board b0 = new Board(), b1 = new Board();
+        assertNotEquals(b0.key(), b0.mirrorKey());
+        b1.setPieces("wwwww  wwwww  ww-bb  bbbbb  bbbbb", PieceColor.WHITE);
+        assertEquals(b0.key(), b1.mirrorKey());
+        makeMoves(b0, new String[] { "b2-c3", "d4-b2" });
+        makeMoves(b1, new String[] { "d2-c3", "b4-d2" });
+        assertNotEquals(b0.key(), b1.key());
+        assertEquals(b0.key(), b1.mirrorKey());
+        assertEquals(b0.canonicalKey(), b1.canonicalKey());
+        assertTrue(b0.isMirrored() != b1.isMirrored());
+        Board b2 = new Board();
+        b2.setPieces("-----  -----  w----  -----  ----b", PieceColor.WHITE);
+        Board b3 = new Board();
+        b3.setPieces("-----  -----  ----w  -----  b----", PieceColor.WHITE);
+        assertEquals(b2.canonicalKey(), b3.canonicalKey());
+        b2.makeMove(Move.parseMove("a3-b3"));
+        b3.makeMove(Move.parseMove("e3-d3"));
+        assertEquals(b2.canonicalKey(), b3.canonicalKey());
+    }
+
+    @Test
+    public void testRepetition() {
+        Board b0 = new Board();
+        b0.setPieces("w--w- ----- ----- ----- b--b-", PieceColor.WHITE);
+        int[] cycle = {
+            Move.code(0, 1, 0), Move.code(20, 21, 0),
+            Move.code(3, 4, 0), Move.code(23, 24, 0),
+            Move.code(1, 0, 0), Move.code(21, 20, 0),
+            Move.code(4, 3, 0), Move.code(24, 23, 0),
+        };
+        for (int round = 0; round < 3; round += 1) {
+            assertEquals(Math.max(0, round - 1), b0.repetitions());
+            assertFalse(b0.isDraw());
+            for (int code : cycle) {
+                assertTrue(b0.isLegal(code));
+                b0.play(code);
+            }
+        }
+        assertTrue(b0.repeated());
+        assertTrue(b0.isDraw());
+        Board b1 = new Board(b0);
+        assertTrue(b1.isDraw());
+        int undo = b0.play(Move.code(3, 8, 0));
+        assertFalse(b0.repeated());
+        b0.retract(Move.code(3, 8, 0), undo);
+        assertTrue(b0.isDraw());
+        b0.setPieces("w--w- ----- ----- ----- b--b-", PieceColor.WHITE);
+        b0.setNoCaptureLimit(cycle.length);
+        for (int code : cycle) {
+            assertFalse(b0.noCaptureLimitReached());
+            b0.play(code);
+        }
+        assertTrue(b0.noCaptureLimitReached());
+        assertTrue(b0.isDraw());
+    }
+
+    @Test
+    public void testNoCaptureLimitView() {
+        Board b0 = new Board();
+        Board view = b0.constantView();
+        int[] changes = { 0 };
+        b0.addListener(change -> changes[0] += 1);
+        b0.setNoCaptureLimit(4);
+        assertEquals(4, view.noCaptureLimit());
+        assertEquals(4, new Board(view).noCaptureLimit());
+        b0.setNoCaptureLimit(0);
+        assertEquals(0, view.noCaptureLimit());
+        assertEquals(0, changes[0]);
+        b0.setNoCaptureLimit(1);
+        b0.makeMove(Move.parseMove("c2-c3"));
+        assertEquals(1, changes[0]);
+        assertTrue(view.noCaptureLimitReached());
+        b0.setNoCaptureLimit(2);
+        assertFalse(view.noCaptureLimitReached());
+    }
+
+    @Test
+    public void testNullMove() {
+        Board b0 = new Board();
+        long key = b0.key();
+        int code = Move.code(13, 12, 0);
+        assertTrue(b0.isLegal(code));
+        int undo = b0.play(code);
+        long key1 = b0.key();
+        b0.playNull();
+        assertEquals(PieceColor.WHITE, b0.whoseMove());
+        assertNotEquals(key1, b0.key());
+        b0.retractNull();
+        assertEquals(PieceColor.BLACK, b0.whoseMove());
+        assertEquals(key1, b0.key());
+        b0.retract(code, undo);
+        assertEquals(key, b0.key());
+        assertEquals(0, b0.repetitions());
+    }
+
 }
@@ -5,10 +5,10 @@ import ucb.gui2.Pad;
 import java.awt.Color;
 import java.awt.BasicStroke;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.Observable;
-import java.util.Observer;
 
 import static qirkat.PieceColor.BLACK;
 import static qirkat.PieceColor.WHITE;
@@ -18,7 +18,7 @@ import static qirkat.PieceColor.WHITE;
  *
  * @author Sarah Jin
  */
-class BoardWidget extends Pad implements Observer {
+class BoardWidget extends Pad implements BoardListener {
     /** ArrayList to keep track of mouse movements. */
     private ArrayList<String> prevmousemove = new ArrayList<>();
     /** The color of my board. */
@@ -49,6 +49,18 @@ class BoardWidget extends Pad implements Observer {
      * Color of painted lines.
      */
     private static final Color LINE_COLOR = Color.BLACK;
+    /**
+     * Color of the lines joining the points of the board.
+     */
+    private static final Color GRID_COLOR = new Color(248, 97, 151);
+    /**
+     * The diagonal lines of the board, each given as the column and row
+     * (counting from the top left) of its two ends.
+     */
+    private static final int[][] DIAGONALS = {
+        { 0, 0, 4, 4 }, { 0, 4, 4, 0 }, { 0, 2, 2, 0 },
+        { 2, 4, 4, 2 }, { 2, 4, 0, 2 }, { 2, 0, 4, 2 },
+    };
     /**
      * Color of blank squares.
      */
@@ -75,7 +87,6 @@ class BoardWidget extends Pad implements Observer {
     BoardWidget(Board model) {
         _model = model;
         setMouseHandler("click", this::read);
-        _model.addObserver(this);
         _dim = SQDIM * SIDE;
         setPreferredSize(_dim, _dim);
     }
@@ -86,64 +97,100 @@ class BoardWidget extends Pad implements Observer {
      */
     void indicateMove(Move mov) {
         _selectedMove = mov;
+        _damage = null;
         repaint();
     }
-    /** Takes in a graphics2d G. */
+    /** Paint the board on G.  All drawing is done incrementally into
+     *  _image as the model changes, so this just copies it: only the
+     *  part of it that has changed since the last paint, if that is
+     *  known.  (Pad offers no way to ask for a repaint of part of
+     *  the widget, so the clip is narrowed here instead.) */
     @Override
     public synchronized void paintComponent(Graphics2D g) {
-        g.setColor(BOARDCOLOR);
-        g.fillRect(0, 0, _dim, _dim);
-        int n = SIDE;
-        int D = SQDIM;
-        g.setColor(new Color(Integer.parseInt("248"),
-                Integer.parseInt("97"), Integer.parseInt("151")));
-        g.drawLine(Integer.parseInt("225"), Integer.parseInt("225"),
-                Integer.parseInt("25"), Integer.parseInt("25"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("225"),
-                Integer.parseInt("225"), Integer.parseInt("25"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("125"),
-                Integer.parseInt("125"), Integer.parseInt("25"));
-        g.drawLine(Integer.parseInt("125"), Integer.parseInt("225"),
-                Integer.parseInt("225"), Integer.parseInt("125"));
-        g.drawLine(Integer.parseInt("125"), Integer.parseInt("225"),
-                Integer.parseInt("25"), Integer.parseInt("125"));
-        g.drawLine(Integer.parseInt("125"), Integer.parseInt("25"),
-                Integer.parseInt("225"), Integer.parseInt("125"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("25"),
-                Integer.parseInt("225"), Integer.parseInt("25"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("75"),
-                Integer.parseInt("225"), Integer.parseInt("75"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("125"),
-                Integer.parseInt("225"), Integer.parseInt("125"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("175"),
-                Integer.parseInt("225"), Integer.parseInt("175"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("225"),
-                Integer.parseInt("225"), Integer.parseInt("225"));
-        g.drawLine(Integer.parseInt("25"), Integer.parseInt("25"),
-                Integer.parseInt("25"), Integer.parseInt("225"));
-        g.drawLine(Integer.parseInt("75"), Integer.parseInt("25"),
-                Integer.parseInt("75"), Integer.parseInt("225"));
-        g.drawLine(Integer.parseInt("125"), Integer.parseInt("25"),
-                Integer.parseInt("125"), Integer.parseInt("225"));
-        g.drawLine(Integer.parseInt("175"), Integer.parseInt("25"),
-                Integer.parseInt("175"), Integer.parseInt("225"));
-        g.drawLine(Integer.parseInt("225"), Integer.parseInt("25"),
-                Integer.parseInt("225"), Integer.parseInt("225"));
-        for (char c = 'a'; c < 'a' + n; c += 1) {
-            for (char r = '1'; r < '1' + n; r += 1) {
-                int x0 = (c - 'a') * SQDIM;
-                int y0 = (n - (r - '1')) * SQDIM;
-                if (_model.get(c, r) == WHITE) {
-                    drawPiece(g, x0, y0, WHITE);
-                } else if (_model.get(c, r) == BLACK) {
-                    drawPiece(g, x0, y0, BLACK);
-                } else {
-                    g.setColor(BLANK_COLOR);
-                }
+        if (_image == null) {
+            _image = new BufferedImage(_dim, _dim,
+                                       BufferedImage.TYPE_INT_RGB);
+            redrawSquares(BoardChange.ALL_SQUARES);
+        } else if (_damage != null) {
+            g.clip(_damage);
+        }
+        _damage = null;
+        g.drawImage(_image, 0, 0, null);
+    }
+
+    /** Return the area, in pixels, of the square with linearized index
+     *  K. */
+    static Rectangle squareBounds(int k) {
+        return new Rectangle((Move.col(k) - 'a') * SQDIM,
+                             (SIDE - 1 - (Move.row(k) - '1')) * SQDIM,
+                             SQDIM, SQDIM);
+    }
+
+    /** Return the smallest rectangle, in pixels, covering the squares
+     *  in the set DIRTY (bit k for linearized index k), or null if
+     *  DIRTY is empty. */
+    static Rectangle dirtyBounds(int dirty) {
+        Rectangle result = null;
+        for (int k = 0; k <= Move.MAX_INDEX; k += 1) {
+            if ((dirty & (1 << k)) != 0) {
+                Rectangle square = squareBounds(k);
+                result = result == null ? square : result.union(square);
+            }
+        }
+        return result;
+    }
+
+    /** Return the static part of the board (background and lines),
+     *  drawing it the first time. */
+    private BufferedImage background() {
+        if (_background == null) {
+            _background = new BufferedImage(_dim, _dim,
+                                             BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = _background.createGraphics();
+            g.setColor(BOARDCOLOR);
+            g.fillRect(0, 0, _dim, _dim);
+            g.setColor(GRID_COLOR);
+            int lo = center(0), hi = center(SIDE - 1);
+            for (int i = 0; i < SIDE; i += 1) {
+                g.drawLine(lo, center(i), hi, center(i));
+                g.drawLine(center(i), lo, center(i), hi);
+            }
+            for (int[] d : DIAGONALS) {
+                g.drawLine(center(d[0]), center(d[1]),
+                           center(d[2]), center(d[3]));
+            }
+            g.dispose();
+        }
+        return _background;
+    }
+
+    /** Redraw the squares in the set DIRTY (bit k for linearized index
+     *  k) in _image from the model. */
+    private void redrawSquares(int dirty) {
+        Graphics2D g = _image.createGraphics();
+        BufferedImage background = background();
+        for (int k = 0; k <= Move.MAX_INDEX; k += 1) {
+            if ((dirty & (1 << k)) == 0) {
+                continue;
+            }
+            Rectangle r = squareBounds(k);
+            int x0 = r.x, top = r.y;
+            g.drawImage(background, x0, top, x0 + SQDIM, top + SQDIM,
+                        x0, top, x0 + SQDIM, top + SQDIM, null);
+            PieceColor piece = _model.get(k);
+            if (piece == WHITE || piece == BLACK) {
+                drawPiece(g, x0, top + SQDIM, piece);
             }
         }
+        g.dispose();
+    }
 
+    /** Return the pixel coordinate of the center of the I'th row or
+     *  column of points, counting from the top or left. */
+    private static int center(int i) {
+        return i * SQDIM + SQDIM / 2;
     }
+
     /** A function to draw the pieces on the board. G. CX. CY. PLAYER. */
     void drawPiece(Graphics2D g, int cx, int cy, PieceColor player) {
 
@@ -183,8 +230,9 @@ class BoardWidget extends Pad implements Observer {
             if (mouseCol >= 'a' && mouseCol <= 'e'
                     && mouseRow >= '1' && mouseRow <= '5'
                     && prevmousemove.size() >= 2) {
-                GUI.getOut().printf(prevmousemove.get
-                        (prevmousemove.size() - 2) + "-" + zzrot + "%n");
+                GUI.send(new Command(Command.Type.PIECEMOVE,
+                        prevmousemove.get(prevmousemove.size() - 2)
+                        + "-" + zzrot));
                 if (mouseCol >= 'a' && mouseCol <= 'e'
                         && mouseRow >= '1' && mouseRow <= '5') {
                     setChanged();
@@ -194,8 +242,17 @@ class BoardWidget extends Pad implements Observer {
         }
     }
 
+    /** Redisplay after CHANGE to the model, redrawing and repainting
+     *  only the squares it affected.  The GUI forwards changes here,
+     *  already coalesced, on the event thread. */
     @Override
-    public synchronized void update(Observable model, Object arg) {
+    public synchronized void boardChanged(BoardChange change) {
+        Rectangle area = dirtyBounds(change.dirty());
+        if (_image == null || area == null) {
+            return;
+        }
+        redrawSquares(change.dirty());
+        _damage = _damage == null ? area : _damage.union(area);
         repaint();
     }
 
@@ -205,6 +262,24 @@ class BoardWidget extends Pad implements Observer {
      */
     private int _dim;
 
+    /**
+     * The static part of the board: background and lines.  Created when
+     * first needed.
+     */
+    private BufferedImage _background;
+
+    /**
+     * The board as currently displayed, kept up to date square by square
+     * as the model changes.  Created on first paint.
+     */
+    private BufferedImage _image;
+
+    /**
+     * The part of _image changed since it was last painted, or null if
+     * all of it must be painted.
+     */
+    private Rectangle _damage;
+
     /**
      * A partial Move indicating selected squares.
      */
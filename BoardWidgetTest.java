@@ -0,0 +1,36 @@
+package qirkat;
+
+import java.awt.Rectangle;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the BoardWidget class.
+ *  @author Sarah Jin
+ */
+public class BoardWidgetTest {
+
+    @Test
+    public void testDirtyBounds() {
+        int sq = BoardWidget.SQDIM;
+        assertNull(BoardWidget.dirtyBounds(0));
+        assertEquals(new Rectangle(0, 4 * sq, sq, sq),
+                     BoardWidget.dirtyBounds(bit('a', '1')));
+        assertEquals(new Rectangle(4 * sq, 0, sq, sq),
+                     BoardWidget.dirtyBounds(bit('e', '5')));
+        assertEquals(new Rectangle(sq, sq, sq, sq),
+                     BoardWidget.dirtyBounds(bit('b', '4')));
+        assertEquals(new Rectangle(0, 3 * sq, 2 * sq, 2 * sq),
+                     BoardWidget.dirtyBounds(bit('a', '1') | bit('b', '2')));
+        assertEquals(new Rectangle(sq, 0, 3 * sq, 4 * sq),
+                     BoardWidget.dirtyBounds(bit('b', '2') | bit('d', '5')));
+        assertEquals(new Rectangle(0, 0, 5 * sq, 5 * sq),
+                     BoardWidget.dirtyBounds(BoardChange.ALL_SQUARES));
+    }
+
+    /** Return the dirty-square bit for square C R. */
+    private static int bit(char c, char r) {
+        return 1 << Move.index(c, r);
+    }
+
+}
@@ -17,6 +17,7 @@ class Command {
     static enum Type {
         /* Start-up state only. */
         AUTO("(?i)auto\\s+(white|black)"),
+        AUTOENGINE("(?i)auto\\s+(white|black)\\s+(ab|mcts)"),
         MANUAL("(?i)manual\\s+(white|black)"),
         SEED("seed\\s+(\\d+)"),
         START,
@@ -25,12 +26,20 @@ class Command {
         PIECEMOVE("([a-e][1-5](?:-[a-e][1-5])+)"),
         /* Valid at any time. */
         LOAD("load\\s+(\\S+)"),
-        QUIT, CLEAR, DUMP, HELP,
+        TIME("(?i)time\\s+(\\d+)"),
+        LIMIT("(?i)limit\\s+(\\d+)"),
+        OPTION("(?i)option\\s+(null|lmr|futility)\\s+(on|off)"),
+        TABLE("(?i)table\\s+(save|load)\\s+(\\S+)"),
+        ANALYZE("(?i)analyze(?:\\s+(\\d+))?"),
+        SOLVE("(?i)solve(?:\\s+(\\d+))?"),
+        QUIT, CLEAR, DUMP, HELP, STOP,
         /* Special "commands" internally generated. */
         /** Syntax error in command. */
         ERROR(".*"),
         /** End of input stream. */
-        EOF;
+        EOF,
+        /** A move found by an AI, posted by the engine thread. */
+        ENGINEMOVE;
 
         /** PATTERN is a regular expression string giving the syntax of
          *  a command of the given type.  It matches the entire command,
@@ -0,0 +1,57 @@
+package qirkat;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/** A bounded queue of parsed Commands on their way to a Game.  The GUI
+ *  posts the commands its buttons and clicks compose here directly, the
+ *  Game's input reader posts the commands it parses while an AI thinks,
+ *  and the engine posts the moves it finds (as ENGINEMOVE commands), so
+ *  that the Game can handle all three in the order they happen.
+ *  @author Sarah Jin
+ */
+class CommandQueue {
+
+    /** Number of commands the queue holds. */
+    static final int CAPACITY = 64;
+
+    /** Add CMND, returning false (and dropping it) if the queue is full.
+     *  Never blocks, so is safe to call from the event thread. */
+    boolean offer(Command cmnd) {
+        return _queue.offer(cmnd);
+    }
+
+    /** Add CMND, waiting for room if necessary. */
+    void put(Command cmnd) {
+        while (true) {
+            try {
+                _queue.put(cmnd);
+                return;
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /** Remove and return the oldest command, or null if there is
+     *  none. */
+    Command poll() {
+        return _queue.poll();
+    }
+
+    /** Remove and return the oldest command, waiting for one if
+     *  necessary.  Returns an EOF command if interrupted. */
+    Command take() {
+        try {
+            return _queue.take();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+            return new Command(Command.Type.EOF);
+        }
+    }
+
+    /** The commands. */
+    private final ArrayBlockingQueue<Command> _queue =
+        new ArrayBlockingQueue<>(CAPACITY);
+
+}
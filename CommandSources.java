@@ -37,6 +37,11 @@ class CommandSources implements CommandSource {
         _inputs.add(source);
     }
 
+    /** Return true iff I have no more sources of input. */
+    boolean isEmpty() {
+        return _inputs.isEmpty();
+    }
+
     /** Stack of input sources, most recent on top. */
     private Stack<CommandSource> _inputs = new Stack<>();
 
@@ -36,6 +36,52 @@ public class CommandTest {
         checkError("auto red foo");
     }
 
+    @Test public void testAUTOENGINE() {
+        check("auto white mcts", AUTOENGINE, "white", "mcts");
+        check("auto Black ab", AUTOENGINE, "Black", "ab");
+        checkError("auto white foo");
+        checkError("auto mcts");
+    }
+
+    @Test public void testTIME() {
+        check("time 5000", TIME, "5000");
+        checkError("time");
+        checkError("time soon");
+    }
+
+    @Test public void testANALYZE() {
+        check("analyze", ANALYZE, (String) null);
+        check("analyze 4", ANALYZE, "4");
+        check("stop", STOP);
+        checkError("analyze all");
+    }
+
+    @Test public void testLIMIT() {
+        check("limit 40", LIMIT, "40");
+        check("LIMIT 0", LIMIT, "0");
+        checkError("limit");
+    }
+
+    @Test public void testOPTION() {
+        check("option null off", OPTION, "null", "off");
+        check("OPTION Futility On", OPTION, "Futility", "On");
+        checkError("option lmr");
+        checkError("option foo on");
+    }
+
+    @Test public void testTABLE() {
+        check("table save warm.tt", TABLE, "save", "warm.tt");
+        check("TABLE Load /tmp/x", TABLE, "Load", "/tmp/x");
+        checkError("table save");
+        checkError("table dump x");
+    }
+
+    @Test public void testSOLVE() {
+        check("solve", SOLVE, (String) null);
+        check("solve 50000", SOLVE, "50000");
+        checkError("solve 5e4");
+    }
+
     @Test public void testSEED() {
         check("seed 142", SEED, "142");
         checkError("seed");
@@ -0,0 +1,191 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static qirkat.Move.SIDE;
+import static qirkat.PieceColor.*;
+
+/** A static evaluation function: a weighted sum of features of a
+ *  position, each the difference between white's and black's value of
+ *  some simple count, so that positive scores favor white.  The weights
+ *  are fitted by Tuner and normally read from the resource
+ *  qirkat/weights.txt, which has one "NAME WEIGHT" line per feature.
+ *  @author Sarah Jin
+ */
+class Evaluator {
+
+    /** Feature numbers: pieces; rows advanced; pieces on the nine inner
+     *  squares; pieces on the squares with diagonals; pieces still on
+     *  their own home row; and whether the player can capture. */
+    static final int PIECES = 0, ADVANCE = 1, CENTER = 2, STRONG = 3,
+        HOME = 4, THREAT = 5;
+    /** Number of features. */
+    static final int NUM_FEATURES = 6;
+    /** Feature names, as they appear in weight files. */
+    static final String[] NAMES = {
+        "pieces", "advance", "center", "strong", "home", "threat"
+    };
+    /** Weights used when no weight file is found. */
+    static final int[] DEFAULT_WEIGHTS = { 100, 4, 6, 3, 2, 25 };
+    /** Name of the weight-file resource. */
+    static final String RESOURCE = "qirkat/weights.txt";
+
+    /** The evaluator all AIs use, with weights from RESOURCE if it
+     *  exists. */
+    static final Evaluator STANDARD = standard();
+
+    /** An evaluator with weights WEIGHTS, one per feature. */
+    Evaluator(int[] weights) {
+        if (weights.length != NUM_FEATURES) {
+            throw new IllegalArgumentException("wrong number of weights");
+        }
+        _weights = weights.clone();
+    }
+
+    /** Return a copy of my weights. */
+    int[] weights() {
+        return _weights.clone();
+    }
+
+    /** Return the value of BOARD, positive if it favors white. */
+    int score(Board board) {
+        int score = 0;
+        for (int k = 0; k <= Move.MAX_INDEX; k += 1) {
+            PieceColor p = board.get(k);
+            if (p != EMPTY) {
+                int s = squareScore(k, p);
+                score += p == WHITE ? s : -s;
+            }
+        }
+        if (board.canJump(WHITE)) {
+            score += _weights[THREAT];
+        }
+        if (board.canJump(BLACK)) {
+            score -= _weights[THREAT];
+        }
+        return score;
+    }
+
+    /** Return the contribution of a piece of color P on square K to the
+     *  score of its own side. */
+    private int squareScore(int k, PieceColor p) {
+        int[] w = _weights;
+        int r = k / SIDE, c = k % SIDE;
+        int advance = p == WHITE ? r : SIDE - 1 - r;
+        int s = w[PIECES] + w[ADVANCE] * advance;
+        if (r > 0 && r < SIDE - 1 && c > 0 && c < SIDE - 1) {
+            s += w[CENTER];
+        }
+        if (k % 2 == 0) {
+            s += w[STRONG];
+        }
+        if (advance == 0) {
+            s += w[HOME];
+        }
+        return s;
+    }
+
+    /** Store the features of BOARD into FEATURES[START ..
+     *  START+NUM_FEATURES-1], so that score(BOARD) is their dot product
+     *  with my weights. */
+    static void features(Board board, short[] features, int start) {
+        Arrays.fill(features, start, start + NUM_FEATURES, (short) 0);
+        for (int k = 0; k <= Move.MAX_INDEX; k += 1) {
+            PieceColor p = board.get(k);
+            if (p == EMPTY) {
+                continue;
+            }
+            int sign = p == WHITE ? 1 : -1;
+            int r = k / SIDE, c = k % SIDE;
+            int advance = p == WHITE ? r : SIDE - 1 - r;
+            features[start + PIECES] += sign;
+            features[start + ADVANCE] += sign * advance;
+            if (r > 0 && r < SIDE - 1 && c > 0 && c < SIDE - 1) {
+                features[start + CENTER] += sign;
+            }
+            if (k % 2 == 0) {
+                features[start + STRONG] += sign;
+            }
+            if (advance == 0) {
+                features[start + HOME] += sign;
+            }
+        }
+        features[start + THREAT] = (short) ((board.canJump(WHITE) ? 1 : 0)
+                                            - (board.canJump(BLACK) ? 1 : 0));
+    }
+
+    /** Return an evaluator whose weights are read from IN, in the format
+     *  written by write.  Features not mentioned keep their default
+     *  weights. */
+    static Evaluator read(BufferedReader in) throws IOException {
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        for (String line = in.readLine(); line != null;
+             line = in.readLine()) {
+            if (line.indexOf('#') != -1) {
+                line = line.substring(0, line.indexOf('#'));
+            }
+            String[] fields = line.trim().split("\\s+");
+            if (fields.length != 2) {
+                continue;
+            }
+            int f = Arrays.asList(NAMES).indexOf(fields[0]);
+            if (f < 0) {
+                throw new IOException("unknown feature: " + fields[0]);
+            }
+            try {
+                weights[f] = Integer.parseInt(fields[1]);
+            } catch (NumberFormatException excp) {
+                throw new IOException("bad weight: " + fields[1]);
+            }
+        }
+        return new Evaluator(weights);
+    }
+
+    /** Write my weights to OUT, one "NAME WEIGHT" line each. */
+    void write(PrintWriter out) {
+        for (int f = 0; f < NUM_FEATURES; f += 1) {
+            out.printf("%s %d%n", NAMES[f], _weights[f]);
+        }
+    }
+
+    /** Return a checksum of my weights, which identifies me among
+     *  evaluators that score positions differently. */
+    long fingerprint() {
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        write(out);
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(text.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /** Return the evaluator with weights from RESOURCE, or with the
+     *  default weights if it is missing or unreadable. */
+    private static Evaluator standard() {
+        InputStream in =
+            Evaluator.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (in != null) {
+            try (BufferedReader r =
+                 new BufferedReader(new InputStreamReader(in))) {
+                return read(r);
+            } catch (IOException excp) {
+                System.err.printf("Bad weight file %s: %s%n", RESOURCE,
+                                  excp.getMessage());
+            }
+        }
+        return new Evaluator(DEFAULT_WEIGHTS);
+    }
+
+    /** My weights, indexed by feature number. */
+    private final int[] _weights;
+
+}
@@ -0,0 +1,27 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the Evaluator class.
+ *  @author Sarah Jin
+ */
+public class EvaluatorTest {
+
+    @Test
+    public void testEvaluatorFeatures() {
+        Board b0 = new Board();
+        b0.setPieces("wwwww wwwww bb-ww bbbbb bbbb-", PieceColor.BLACK);
+        Evaluator eval = new Evaluator(new int[] { 7, -3, 5, 2, -4, 11 });
+        short[] features = new short[Evaluator.NUM_FEATURES];
+        Evaluator.features(b0, features, 0);
+        int[] weights = eval.weights();
+        int dot = 0;
+        for (int f = 0; f < Evaluator.NUM_FEATURES; f += 1) {
+            dot += weights[f] * features[f];
+        }
+        assertEquals(eval.score(b0), dot);
+        assertEquals(1, features[Evaluator.PIECES]);
+    }
+
+}
@@ -8,35 +8,37 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.IOException;
 import java.io.FileNotFoundException;
-import java.io.PrintWriter;
-import java.io.Writer;
 import java.io.File;
 import java.io.InputStream;
 import java.util.Scanner;
 
+import static qirkat.Command.Type.*;
+
 /** The GUI for the Qirkat game.
  *  @author Sarah Jin
  */
-class GUI extends TopLevel implements Observer, Reporter {
+class GUI extends TopLevel implements Observer, Reporter, BoardListener {
 
     /* The implementation strategy applied here is to make it as
      * unnecessary as possible for the rest of the program to know that it
      * is interacting with a GUI as opposed to a terminal.
      *
-     * To this end, we first have made Board observable, so that the
-     * GUI gets notified of changes to a Game's board and can interrogate
-     * it as needed, while the Game and Board themselves need not be aware
-     * that it is being watched.
+     * To this end, we first have made Board report its changes to
+     * BoardListeners, so that the GUI gets notified of changes to a Game's
+     * board and can interrogate it as needed, while the Game and Board
+     * themselves need not be aware that it is being watched.  Changes
+     * arrive through a BoardChangeBatcher, so that however fast moves are
+     * made, we update the display at most once per frame.
      *
      * Second, instead of creating a new API by which the GUI communicates
-     * with a Game, we instead simply arrange to make the GUI's input look
-     * like that from a terminal, so that we can reuse all the machinery
-     * in the rest of the program to interpret and execute commands.  The
-     * GUI simply composes commands (such as "start" or "clear") and
-     * writes them to a Writer that (using the Java library's PipedReader
-     * and PipedWriter classes) provides input to the Game using exactly the
-     * same API as would be used to read from a terminal. Thus, a simple
-     * Manual player can handle all commands and moves from the GUI.
+     * with a Game, the GUI composes the same Commands (such as "start" or
+     * "clear") that the Game would parse from a terminal, and posts them,
+     * already parsed, to a bounded CommandQueue from which the Game takes
+     * its input.  Posting never blocks, so the GUI stays responsive
+     * however long the Game takes to get to a command; the Game runs AI
+     * searches on a separate engine thread, and so handles commands such
+     * as "clear" even while an AI is thinking.  A simple Manual player
+     * handles all commands and moves from the GUI.
      *
      * See also Main.java for how this might get set up.
      */
@@ -45,9 +47,9 @@ class GUI extends TopLevel implements Observer, Reporter {
     private static final int MIN_SIZE = 300;
 
     /** A new display observing MODEL, with TITLE as its window title.
-     *  It uses OUTCOMMANDS to send commands to a game instance, using the
-     *  same commands as the text format for Qirkat. */
-    GUI(String title, Board model, Writer outCommands) {
+     *  It posts the commands it composes to COMMANDS, from which a game
+     *  instance takes them. */
+    GUI(String title, Board model, CommandQueue commands) {
         super(title, true);
         frame.setUndecorated(false);
         addMenuButton("Game->New", this::newGame);
@@ -68,7 +70,7 @@ class GUI extends TopLevel implements Observer, Reporter {
         _widget = new BoardWidget(model);
         addLabel(_model.whoseMove().toString() + " to move", "reporter",
                 new LayoutSpec("y", 5, "anchor", "west"));
-        _out = new PrintWriter(outCommands, true);
+        _out = commands;
         add(_widget,
                 new LayoutSpec("height", "1",
                         "width", "REMAINDER",
@@ -76,21 +78,26 @@ class GUI extends TopLevel implements Observer, Reporter {
                         "ibottom", 5));
         setMinimumSize(MIN_SIZE, MIN_SIZE);
         _widget.addObserver(this);
-        _model.addObserver(this);
+        _model.addListener(new BoardChangeBatcher(this));
     }
     /** create. */
     private synchronized void newGame(String unused) {
-        _out.printf("clear%n");
+        send(new Command(CLEAR));
         setChanged();
         notifyObservers();
     }
     /** start. */
     private synchronized void startGame(String unused) {
-        _out.printf("start%n");
+        send(new Command(START));
         reportwinner();
         setChanged();
         notifyObservers();
     }
+    /** Report a drawn game. */
+    public void reportDraw() {
+        showMessage("Draw.", "Outcome", "foo");
+    }
+
     /** win. */
     public void reportwinner() {
         if (Game.getReportWinner() != null) {
@@ -111,25 +118,25 @@ class GUI extends TopLevel implements Observer, Reporter {
 
     /** Set White to AI. */
     private synchronized void setWhiteAI(String unused) {
-        _out.printf("auto white%n");
+        send(new Command(AUTO, "white"));
         setChanged();
         notifyObservers();
     }
     /** Set White to Manual. */
     private synchronized void setWhiteManual(String unused) {
-        _out.printf("manual white%n");
+        send(new Command(MANUAL, "white"));
         setChanged();
         notifyObservers();
     }
     /** Set Black to AI. */
     private synchronized void setBlackAI(String unused) {
-        _out.printf("auto black%n");
+        send(new Command(AUTO, "black"));
         setChanged();
         notifyObservers();
     }
     /** Set Black to Manual. */
     private synchronized void setBlackManual(String unused) {
-        _out.printf("manual black%n");
+        send(new Command(MANUAL, "black"));
         setChanged();
         notifyObservers();
     }
@@ -140,7 +147,7 @@ class GUI extends TopLevel implements Observer, Reporter {
             text = new Scanner(new File("qirkat/help.txt")).
                     useDelimiter("\\A").next();
         } catch (FileNotFoundException e) {
-            _out.printf("help%n");
+            send(new Command(HELP));
         }
         showMessage(text, "Help", "foo");
         setChanged();
@@ -149,13 +156,13 @@ class GUI extends TopLevel implements Observer, Reporter {
 
     /** Execute the "Quit" button function. */
     private synchronized void quit(String unused) {
-        _out.printf("quit%n");
+        send(new Command(QUIT));
     }
 
     /** UNUSED. */
     private synchronized void restartGame(String unused) {
-        _out.printf("clear%n");
-        _out.printf("start%n");
+        send(new Command(CLEAR));
+        send(new Command(START));
         setChanged();
         notifyObservers();
     }
@@ -189,17 +196,27 @@ class GUI extends TopLevel implements Observer, Reporter {
     public void moveMsg(String format, Object... args) {
     }
 
+    @Override
+    public void infoMsg(String format, Object... args) {
+        System.out.println(String.format(format, args));
+    }
+
     @Override
     public void update(Observable obs, Object arg) {
-        if (obs == _model) {
-            setChanged();
-            notifyObservers("click");
-        } else if (obs == _widget) {
+        if (obs == _widget) {
             setChanged();
             notifyObservers("click");
         }
     }
 
+    /** Show CHANGE, a (possibly coalesced) change to my model.  Called
+     *  on the event thread. */
+    @Override
+    public void boardChanged(BoardChange change) {
+        setLabel("reporter", change.nextMove() + " to move");
+        _widget.boardChanged(change);
+    }
+
     /** Respond to a click on SQ. */
     private void movePiece(String sq) {
         setChanged();
@@ -216,12 +233,13 @@ class GUI extends TopLevel implements Observer, Reporter {
     private BoardWidget _widget;
     /** The model of the game. */
     private Board _model;
-    /** Output sink for sending commands to a game. */
-    private static PrintWriter _out;
+    /** Queue to which to post commands for a game. */
+    private static CommandQueue _out;
 
-    /** return OUT. */
-    public static PrintWriter getOut() {
-        return _out;
+    /** Post CMND to the game, dropping it if the game is too far
+     *  behind to accept it. */
+    static void send(Command cmnd) {
+        _out.offer(cmnd);
     }
     /** Move selected by clicking. */
     private Move _selectedMove;
@@ -4,9 +4,19 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Formatter;
 import java.util.HashMap;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import static qirkat.Command.Type.*;
 import static qirkat.Game.State.PLAYING;
@@ -21,6 +31,11 @@ import static qirkat.PieceColor.*;
  */
 class Game {
 
+    /**
+     * Default time limit for an AI move, in milliseconds.
+     */
+    static final long DEFAULT_MOVE_TIME = 10_000;
+
     /**
      * States of play.
      */
@@ -33,7 +48,17 @@ class Game {
      * BASESOURCE and using REPORTER for error and informational messages.
      */
     Game(Board board, CommandSource baseSource, Reporter reporter) {
+        this(board, new CommandQueue(), reporter);
         _inputs.addSource(baseSource);
+    }
+
+    /**
+     * A new Game, using BOARD to play on, taking commands posted to
+     * COMMANDS (as by a GUI) and using REPORTER for error and
+     * informational messages.
+     */
+    Game(Board board, CommandQueue commands, Reporter reporter) {
+        _queue = commands;
         _board = board;
         _constBoard = _board.constantView();
         _reporter = reporter;
@@ -62,35 +87,34 @@ class Game {
 
             _state = PLAYING;
 
-            if (_board.findlegalmoves(_board, _board.whoseMove()).isEmpty()) {
+            if (!hasMoves()) {
                 reportWinner();
                 _state = SETUP;
             }
-            if (_board.countNumPiece(_board, WHITE) == 0
-                    || _board.countNumPiece(_board, BLACK) == 0) {
+            if (!piecesLeft()) {
                 reportWinner();
                 _state = SETUP;
             }
 
-            while (_state == PLAYING && !_board.gameOver()) {
+            while (_state == PLAYING && !gameOver()) {
                 try {
                     Move move;
                     move = null;
                     PieceColor x = _board.whoseMove();
-                    if (x == WHITE && _board.countNumPiece(_board, WHITE) != 0
-                            && _board.countNumPiece(_board, BLACK) != 0) {
-                        move = iSWHITE.myMove();
-                    } else if (_board.countNumPiece(_board, WHITE) != 0
-                            && _board.countNumPiece(_board, BLACK) != 0) {
-                        move = iSBLACK.myMove();
+                    if (piecesLeft()) {
+                        Player mover = x == WHITE ? iSWHITE : iSBLACK;
+                        boolean manual =
+                            x == WHITE ? whiteIsManual : blackIsManual;
+                        move = manual ? mover.myMove() : think(mover);
                     }
-                    if (_state == PLAYING
-                            && _board.countNumPiece(_board, WHITE) != 0
-                            && _board.countNumPiece(_board, BLACK) != 0) {
+                    if (_state == PLAYING && piecesLeft() && move != null) {
                         _board.makeMove(move);
+                        if (_board.isDraw()) {
+                            reportDraw();
+                            _state = SETUP;
+                        }
                     }
-                    if (_board.countNumPiece(_board, WHITE) == 0
-                            || _board.countNumPiece(_board, BLACK) == 0) {
+                    if (!piecesLeft()) {
                         reportWinner();
                         _state = SETUP;
                         _board.setgameover(true);
@@ -101,7 +125,7 @@ class Game {
                 }
             }
 
-            if (_state == PLAYING && _board.gameOver()) {
+            if (_state == PLAYING && gameOver()) {
                 reportWinner();
             }
             _state = SETUP;
@@ -109,6 +133,171 @@ class Game {
 
     }
 
+    /**
+     * Return true iff the player to move has a legal move, timing the
+     * move generation.
+     */
+    private boolean hasMoves() {
+        long start = Main.clock();
+        boolean result = _board.hasLegalMove();
+        Main.recordTime(Main.MOVEGEN_TIMES, start);
+        return result;
+    }
+
+    /**
+     * Return true iff both players have pieces on my board.
+     */
+    private boolean piecesLeft() {
+        return _board.numPieces(WHITE) != 0 && _board.numPieces(BLACK) != 0;
+    }
+
+    /**
+     * Return true iff the game on my board is over, timing the move
+     * generation this requires.
+     */
+    private boolean gameOver() {
+        long start = Main.clock();
+        boolean result = _board.gameOver();
+        Main.recordTime(Main.MOVEGEN_TIMES, start);
+        return result;
+    }
+
+    /**
+     * Execute command CMND, timing it.
+     */
+    private void execute(Command cmnd) {
+        long start = Main.clock();
+        if (!PASSIVE.contains(cmnd.commandType())) {
+            stopAnalysis();
+        }
+        try {
+            _commands.get(cmnd.commandType()).accept(cmnd.operands());
+        } finally {
+            Main.recordTime(Main.COMMAND_TIMES, start);
+        }
+    }
+
+    /**
+     * Return the move of PLAYER, an AI, which thinks about it on the
+     * engine thread while I go on handling commands.  Commands that only
+     * report or adjust settings run at once.  Moves, 'table',
+     * 'analyze', and 'solve' commands (the last two would otherwise
+     * queue up on the engine thread behind PLAYER's search), and the
+     * end of input are held until after PLAYER's move.  A command that
+     * ends the game (such as 'clear' or 'quit') cancels the search, and
+     * runs, with those held and those after it, once the engine has
+     * stopped; the move found is then returned, but is moot.
+     */
+    private Move think(Player player) {
+        stopAnalysis();
+        synchronized (_queue) {
+            _thinking = true;
+            if (!_readingAhead && !_inputs.isEmpty()) {
+                _readingAhead = true;
+                _reader.execute(this::readAhead);
+            }
+        }
+        _engine.execute(() -> {
+            Move move = null;
+            try {
+                move = player.myMove();
+            } finally {
+                _queue.put(move == null ? new Command(ENGINEMOVE)
+                           : new Command(ENGINEMOVE, move.toString()));
+            }
+        });
+        ArrayList<Command> deferred = new ArrayList<>();
+        Move move;
+        while (true) {
+            Command cmnd = nextCommand("");
+            Command.Type type = cmnd.commandType();
+            if (type == ENGINEMOVE) {
+                _thinking = false;
+                String[] operands = cmnd.operands();
+                move = operands.length == 0 ? null
+                    : Move.parseMove(operands[0]);
+                break;
+            } else if (!deferred.isEmpty() || CANCELLING.contains(type)) {
+                _control.cancel();
+                deferred.addAll(_held);
+                _held.clear();
+                deferred.add(cmnd);
+            } else if (type == PIECEMOVE || type == EOF || type == TABLE
+                       || type == ANALYZE || type == SOLVE) {
+                _held.add(cmnd);
+            } else {
+                executeReporting(cmnd);
+            }
+        }
+        for (Command cmnd : deferred) {
+            executeReporting(cmnd);
+        }
+        return move;
+    }
+
+    /**
+     * Prepare for a player to think about its move, and return the
+     * SearchControl it should obey, whose time limit is that set by the
+     * 'time' command.
+     */
+    SearchControl startThinking() {
+        _control.start(_moveTime);
+        return _control;
+    }
+
+    /**
+     * Body of the input thread: parse lines of input into commands on
+     * my queue while an AI is thinking, stopping at the end of input.
+     */
+    private void readAhead() {
+        while (true) {
+            String line = _inputs.getLine("");
+            _queue.put(Command.parseCommand(line));
+            synchronized (_queue) {
+                if (line == null || !_thinking) {
+                    _readingAhead = false;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the next command: one held while an AI was thinking, if
+     * any, else one waiting in my queue, else one read from my input
+     * sources, prompting with PROMPT if appropriate, else the next one
+     * posted to my queue.
+     */
+    private Command nextCommand(String prompt) {
+        if (!_thinking && !_held.isEmpty()) {
+            return _held.poll();
+        }
+        Command cmnd;
+        boolean reading;
+        synchronized (_queue) {
+            cmnd = _queue.poll();
+            reading = _readingAhead;
+        }
+        if (cmnd != null) {
+            return cmnd;
+        } else if (!reading && !_inputs.isEmpty()) {
+            return Command.parseCommand(_inputs.getLine(prompt));
+        } else {
+            return _queue.take();
+        }
+    }
+
+    /**
+     * Execute CMND, reporting any error.
+     */
+    private void executeReporting(Command cmnd) {
+        try {
+            execute(cmnd);
+        } catch (GameException excp) {
+            _reporter.errMsg(excp.getMessage());
+        }
+    }
+
     /**
      * Return the _STATE of the current program.
      */
@@ -132,8 +321,8 @@ class Game {
      */
     void doCommand() {
         try {
-            Command c = Command.parseCommand(_inputs.getLine("qirkat: "));
-            _commands.get(c.commandType()).accept(c.operands());
+            Command c = nextCommand("qirkat: ");
+            execute(c);
         } catch (GameException excp) {
             _reporter.errMsg(excp.getMessage());
         }
@@ -144,18 +333,26 @@ class Game {
      * the game leaves playing state due to one of the commands. Return
      * the terminating move command, or null if the game first drops out
      * of playing mode. If appropriate to the current input source, use
-     * PROMPT to prompt for input.
+     * PROMPT to prompt for input.  While waiting for each command, the
+     * player not to move may ponder.
      */
     Command getMoveCmnd(String prompt) {
         while (_state == PLAYING) {
+            Player opponent =
+                _board.whoseMove() == WHITE ? iSBLACK : iSWHITE;
+            Command cmnd;
+            opponent.ponder(_constBoard);
+            try {
+                cmnd = nextCommand(prompt);
+            } finally {
+                opponent.stopPondering();
+            }
             try {
-                Command cmnd = Command.parseCommand(_inputs.getLine(prompt));
                 switch (cmnd.commandType()) {
                 case PIECEMOVE:
                     return cmnd;
                 default:
-                    _commands.get(cmnd.commandType()).
-                                accept(cmnd.operands());
+                    execute(cmnd);
                 }
             } catch (GameException excp) {
                 _reporter.errMsg(excp.getMessage());
@@ -190,14 +387,20 @@ class Game {
     /* Command Processors */
 
     /**
-     * Perform the command 'auto OPERANDS[0]'.
+     * Perform the command 'auto OPERANDS[0]', or 'auto OPERANDS[0]
+     * OPERANDS[1]', where OPERANDS[1] names the engine: ab (alpha-beta,
+     * the default) or mcts (Monte Carlo tree search).
      */
     void doAuto(String[] operands) {
         _state = SETUP;
+        boolean mcts = operands.length > 1
+            && operands[1].equalsIgnoreCase("mcts");
         if (operands[0].equalsIgnoreCase("white")) {
-            iSWHITE = new AI(this, WHITE);
+            iSWHITE = mcts ? new MCTSPlayer(this, WHITE) : new AI(this, WHITE);
+            whiteIsManual = false;
         } else if (operands[0].equalsIgnoreCase("black")) {
-            iSBLACK = new AI(this, BLACK);
+            iSBLACK = mcts ? new MCTSPlayer(this, BLACK) : new AI(this, BLACK);
+            blackIsManual = false;
         } else {
             throw error("invalid player selection.");
         }
@@ -250,8 +453,10 @@ class Game {
         _state = SETUP;
         if (operands[0].equalsIgnoreCase("WHITE")) {
             iSWHITE = new Manual(this, WHITE);
+            whiteIsManual = true;
         } else if (operands[0].equalsIgnoreCase("BLACK")) {
             iSBLACK = new Manual(this, BLACK);
+            blackIsManual = true;
         } else {
             throw error("Not a valid player selection.");
         }
@@ -261,7 +466,16 @@ class Game {
      * Exit the program.
      */
     void doQuit(String[] unused) {
+        if (_tableFile != null) {
+            try {
+                _table.save(_tableFile, _analyzer.fingerprint());
+            } catch (IOException excp) {
+                _reporter.errMsg("Cannot save table %s: %s", _tableFile,
+                                 excp.getMessage());
+            }
+        }
         Main.reportTotalTimes();
+        Main.reportTotalStats();
         System.exit(0);
     }
 
@@ -292,32 +506,9 @@ class Game {
      */
     void doSet(String[] operands) {
         _state = SETUP;
-        String who = operands[0];
-        if (who.equalsIgnoreCase("white")) {
-            _board.setWhoseMove(WHITE);
-        } else if (who.equalsIgnoreCase("black")) {
-            _board.setWhoseMove(BLACK);
-        }
-        char[] a = operands[1].toCharArray();
-        int index = 0;
-        int index1 = 0;
-        while (index != a.length) {
-            if (a[index] == 'w') {
-                _board.set(index1, WHITE);
-                index++;
-                index1++;
-            } else if (a[index] == 'b') {
-                _board.set(index1, BLACK);
-                index++;
-                index1++;
-            } else if (a[index] == '-') {
-                _board.set(index1, EMPTY);
-                index++;
-                index1++;
-            } else {
-                index++;
-            }
-        }
+        PieceColor who =
+            operands[0].equalsIgnoreCase("white") ? WHITE : BLACK;
+        _board.setPieces(operands[1], who);
     }
 
     /**
@@ -344,6 +535,118 @@ class Game {
     }
 
 
+    /**
+     * Execute 'time OPERANDS[0]' command, which limits the time an AI
+     * may spend on a move to OPERANDS[0] milliseconds (0 for no
+     * limit).  Silently substitutes another value if too large.
+     */
+    void doTime(String[] operands) {
+        try {
+            _moveTime = Long.parseLong(operands[0]);
+        } catch (NumberFormatException e) {
+            _moveTime = 0;
+        }
+    }
+
+    /**
+     * Execute 'analyze' or 'analyze OPERANDS[0]': analyze the current
+     * position on the engine thread, reporting the best OPERANDS[0]
+     * moves (default DEFAULT_PVS) after each depth, until stopped by
+     * 'stop' or by any command that changes the game.
+     */
+    void doAnalyze(String[] operands) {
+        int k = DEFAULT_PVS;
+        if (operands[0] != null) {
+            try {
+                k = Integer.parseInt(operands[0]);
+            } catch (NumberFormatException e) {
+                k = Integer.MAX_VALUE;
+            }
+        }
+        int pvs = k;
+        Board board = new Board(_board);
+        _analysisControl.start(0);
+        _analysis = _engine.submit(() ->
+            _analyzer.analyze(board, pvs, _analysisControl, _reporter));
+    }
+
+    /**
+     * Execute 'solve' or 'solve OPERANDS[0]': try, on the engine thread,
+     * to prove that the player to move can force a win, searching at
+     * most OPERANDS[0] nodes (default DEFAULT_SOLVE_NODES), and report
+     * the result.  Like an analysis, stops at 'stop' or at any command
+     * that changes the game.
+     */
+    void doSolve(String[] operands) {
+        long nodes = DEFAULT_SOLVE_NODES;
+        if (operands[0] != null) {
+            try {
+                nodes = Long.parseLong(operands[0]);
+            } catch (NumberFormatException e) {
+                nodes = Long.MAX_VALUE;
+            }
+        }
+        long budget = nodes;
+        Board board = new Board(_board);
+        if (_solver == null) {
+            _solver = new Solver(SOLVER_TABLE_BITS);
+        }
+        _analysisControl.start(0);
+        _analysis = _engine.submit(() -> solve(board, budget));
+    }
+
+    /**
+     * Solve BOARD, searching at most NODES nodes, and report the result.
+     */
+    private void solve(Board board, long nodes) {
+        long start = System.nanoTime();
+        int result = _solver.solve(board, nodes, _analysisControl);
+        long msec = (System.nanoTime() - start) / NANOS_PER_MSEC;
+        String summary = String.format("nodes %d time %d hashfull %d",
+                                       _solver.nodes(), msec,
+                                       _solver.table().hashfull());
+        if (result == Solver.PROVEN) {
+            StringBuilder line = new StringBuilder();
+            Board b = new Board(board);
+            for (int code : _solver.line()) {
+                line.append(' ').append(b.toMove(code));
+                b.play(code);
+            }
+            _reporter.infoMsg("solve %s wins %s pv%s", board.whoseMove(),
+                              summary, line);
+        } else if (result == Solver.DISPROVEN) {
+            _reporter.infoMsg("solve %s cannot force a win %s",
+                              board.whoseMove(), summary);
+        } else {
+            _reporter.infoMsg("solve unknown %s", summary);
+        }
+    }
+
+    /**
+     * Execute the 'stop' command, which ends any analysis.
+     */
+    void doStop(String[] unused) {
+        stopAnalysis();
+    }
+
+    /**
+     * Stop any analysis in progress, returning once it has stopped.
+     */
+    private void stopAnalysis() {
+        if (_analysis == null) {
+            return;
+        }
+        _analysisControl.cancel();
+        try {
+            _analysis.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException excp) {
+            _reporter.errMsg("Analysis failed: %s", excp.getCause());
+        }
+        _analysis = null;
+    }
+
     /**
      * Execute the artificial 'error' command.
      */
@@ -367,6 +670,99 @@ class Game {
 
     }
 
+    /**
+     * Report that the current game is drawn.
+     */
+    void reportDraw() {
+        System.out.println(_board.toString());
+        if (Main.getuseGUI()) {
+            Main.getDisplay().reportDraw();
+        }
+        _reporter.outcomeMsg("Draw.");
+    }
+
+    /**
+     * Execute 'limit OPERANDS[0]': declare games drawn after
+     * OPERANDS[0] moves in a row without a capture (0 for no limit).
+     */
+    void doLimit(String[] operands) {
+        try {
+            _board.setNoCaptureLimit(Integer.parseInt(operands[0]));
+        } catch (NumberFormatException e) {
+            throw error("limit too large: %s", operands[0]);
+        }
+    }
+
+    /**
+     * Execute 'option OPERANDS[0] OPERANDS[1]': turn the selective-search
+     * technique named OPERANDS[0] on or off, as OPERANDS[1] says, for
+     * all AIs, present and future.
+     */
+    void doOption(String[] operands) {
+        AI.Selectivity technique = AI.Selectivity.parse(operands[0]);
+        if (technique == null) {
+            throw error("unknown option: %s", operands[0]);
+        }
+        Set<AI.Selectivity> techniques = AI.defaultSelectivity();
+        if (operands[1].equalsIgnoreCase("on")) {
+            techniques.add(technique);
+        } else {
+            techniques.remove(technique);
+        }
+        AI.setDefaultSelectivity(techniques);
+        _analyzer.setSelectivity(techniques);
+        for (Player player : new Player[] { iSWHITE, iSBLACK }) {
+            if (player instanceof AI) {
+                ((AI) player).setSelectivity(techniques);
+            }
+        }
+    }
+
+    /**
+     * Execute 'table save OPERANDS[1]' or 'table load OPERANDS[1]':
+     * write the transposition table my AIs share to the file
+     * OPERANDS[1], or replace it with the one in that file, which must
+     * have been saved for the same evaluation function.
+     */
+    void doTable(String[] operands) {
+        String name = operands[1];
+        try {
+            if (operands[0].equalsIgnoreCase("save")) {
+                _table.save(name, _analyzer.fingerprint());
+            } else {
+                _table.load(name, _analyzer.fingerprint());
+            }
+        } catch (IOException excp) {
+            throw error("Cannot %s table %s: %s",
+                        operands[0].toLowerCase(), name,
+                        excp.getMessage());
+        }
+    }
+
+    /**
+     * Keep my AIs' transposition table in the file named NAME: load it
+     * now, if the file exists, and save it on quitting.  A file that
+     * cannot be used is reported, and replaced on quitting.
+     */
+    void setTableFile(String name) {
+        _tableFile = name;
+        if (Files.exists(Paths.get(name))) {
+            try {
+                _table.load(name, _analyzer.fingerprint());
+            } catch (IOException excp) {
+                _reporter.errMsg("Ignoring table %s: %s", name,
+                                 excp.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Return the transposition table shared by my AIs.
+     */
+    TranspositionTable table() {
+        return _table;
+    }
+
     /**
      * Mapping of command types to methods that process them.
      */
@@ -375,6 +771,7 @@ class Game {
 
     {
         _commands.put(AUTO, this::doAuto);
+        _commands.put(AUTOENGINE, this::doAuto);
         _commands.put(CLEAR, this::doClear);
         _commands.put(DUMP, this::doDump);
         _commands.put(HELP, this::doHelp);
@@ -384,6 +781,13 @@ class Game {
         _commands.put(SETBOARD, this::doSet);
         _commands.put(START, this::doStart);
         _commands.put(LOAD, this::doLoad);
+        _commands.put(TIME, this::doTime);
+        _commands.put(LIMIT, this::doLimit);
+        _commands.put(OPTION, this::doOption);
+        _commands.put(TABLE, this::doTable);
+        _commands.put(ANALYZE, this::doAnalyze);
+        _commands.put(SOLVE, this::doSolve);
+        _commands.put(STOP, this::doStop);
         _commands.put(QUIT, this::doQuit);
         _commands.put(ERROR, this::doError);
         _commands.put(EOF, this::doQuit);
@@ -394,6 +798,135 @@ class Game {
      */
     private final CommandSources _inputs = new CommandSources();
 
+    /**
+     * Commands that end the game, and so cancel an AI's thinking.
+     */
+    private static final EnumSet<Command.Type> CANCELLING =
+        EnumSet.of(CLEAR, QUIT, AUTO, AUTOENGINE, MANUAL, SETBOARD);
+
+    /**
+     * Commands that may run without stopping an analysis.
+     */
+    private static final EnumSet<Command.Type> PASSIVE =
+        EnumSet.of(DUMP, HELP, TIME, SEED, LOAD, ERROR);
+
+    /**
+     * Number of moves an analysis reports by default.
+     */
+    static final int DEFAULT_PVS = 3;
+
+    /**
+     * Number of nodes 'solve' searches by default.
+     */
+    static final long DEFAULT_SOLVE_NODES = 10_000_000;
+
+    /**
+     * Log (base 2) of the number of entries in the solver's table.
+     */
+    private static final int SOLVER_TABLE_BITS = 20;
+
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MSEC = 1_000_000;
+
+    /**
+     * The solver used by 'solve', created when first needed.
+     */
+    private Solver _solver;
+
+    /**
+     * Log (base 2) of the number of entries in my AIs' transposition
+     * table.
+     */
+    private static final int TABLE_BITS = 20;
+
+    /**
+     * The transposition table shared by my players, which must be
+     * created before any of them.  Their searches never overlap: a
+     * player ponders only while waiting for a human's move, and stops
+     * before anything else happens.
+     */
+    private final TranspositionTable _table =
+        new TranspositionTable(TABLE_BITS);
+
+    /**
+     * File in which _table is kept between sessions, or null.
+     */
+    private String _tableFile;
+
+    /**
+     * The engine that performs analyses.  It has its own transposition
+     * table, since an analysis may run while a player ponders.
+     */
+    private final AI _analyzer =
+        new AI(this, WHITE, Evaluator.STANDARD, Network.standard(),
+               new TranspositionTable(TABLE_BITS));
+
+    /**
+     * Controls the current analysis.
+     */
+    private final SearchControl _analysisControl = new SearchControl();
+
+    /**
+     * The analysis in progress, or null.
+     */
+    private Future<?> _analysis;
+
+    /**
+     * Commands that arrived while an AI was thinking, to be processed
+     * after its move.
+     */
+    private final ArrayDeque<Command> _held = new ArrayDeque<>();
+
+    /**
+     * Commands waiting to be processed.  Also the lock for _thinking and
+     * _readingAhead.
+     */
+    private final CommandQueue _queue;
+
+    /**
+     * Runs readAhead.
+     */
+    private final ExecutorService _reader = daemonExecutor("input");
+
+    /**
+     * Runs AI players' searches.
+     */
+    private final ExecutorService _engine = daemonExecutor("engine");
+
+    /**
+     * Return an executor whose single thread, named NAME, does not keep
+     * the program alive.
+     */
+    private static ExecutorService daemonExecutor(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * True while an AI is thinking about its move.
+     */
+    private volatile boolean _thinking;
+
+    /**
+     * True while readAhead is running.
+     */
+    private volatile boolean _readingAhead;
+
+    /**
+     * Controls the current player's thinking.
+     */
+    private final SearchControl _control = new SearchControl();
+
+    /**
+     * Time limit for AI moves, in milliseconds, or 0 for none.
+     */
+    private long _moveTime = DEFAULT_MOVE_TIME;
+
     /**
      * My board and its read-only view.
      */
@@ -0,0 +1,176 @@
+package qirkat;
+
+import java.io.PrintWriter;
+
+/** A histogram of latencies in nanoseconds, in the style of
+ *  HdrHistogram.  Values are counted in buckets whose width grows with
+ *  the size of the value: each range [2**K, 2**(K+1)) is split into
+ *  SUB_BUCKETS equal parts, so that every recorded value is known to
+ *  within 1 part in SUB_BUCKETS, whatever its magnitude, in a fixed
+ *  amount of space.  Recording is O(1) and allocates nothing.
+ *  @author Sarah Jin
+ */
+class LatencyHistogram {
+
+    /** Log2 of the number of sub-buckets per power of two. */
+    private static final int SUB_BUCKET_BITS = 7;
+    /** Number of sub-buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Number of bits in a long. */
+    private static final int LONG_BITS = 64;
+    /** Total number of buckets. */
+    private static final int NUM_BUCKETS =
+        SUB_BUCKETS + (LONG_BITS - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    /** Nanoseconds per microsecond. */
+    private static final double NANOS_PER_USEC = 1e3;
+    /** Percentiles reported by summary. */
+    static final double[] SUMMARY_PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+    /** Percentiles listed by export. */
+    private static final double[] EXPORT_PERCENTILES = {
+        0.0, 10.0, 25.0, 50.0, 75.0, 90.0, 95.0, 99.0, 99.5, 99.9,
+        99.99, 100.0
+    };
+
+    /** An empty histogram named NAME. */
+    LatencyHistogram(String name) {
+        _name = name;
+    }
+
+    /** Return my name. */
+    String name() {
+        return _name;
+    }
+
+    /** Record one occurrence of a latency of NANOS nanoseconds.
+     *  Negative values are recorded as 0. */
+    synchronized void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        _counts[bucket(nanos)] += 1;
+        _total += 1;
+        _sum += nanos;
+        _max = Math.max(_max, nanos);
+    }
+
+    /** Return the number of values recorded. */
+    synchronized long count() {
+        return _total;
+    }
+
+    /** Return the largest value recorded, or 0 if none. */
+    synchronized long max() {
+        return _max;
+    }
+
+    /** Return the mean of the values recorded, or 0 if none. */
+    synchronized double mean() {
+        return _total == 0 ? 0.0 : (double) _sum / _total;
+    }
+
+    /** Return (an upper bound, accurate to within one bucket, on) the
+     *  smallest value V such that PERCENTILE percent of the recorded
+     *  values are <= V.  Returns 0 if nothing is recorded. */
+    synchronized long percentile(double percentile) {
+        if (_total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * _total);
+        rank = Math.max(1, Math.min(_total, rank));
+        long seen = 0;
+        for (int b = 0; b < NUM_BUCKETS; b += 1) {
+            seen += _counts[b];
+            if (seen >= rank) {
+                return Math.min(_max, highestInBucket(b));
+            }
+        }
+        return _max;
+    }
+
+    /** Return a one-line summary of my contents, with times in
+     *  microseconds. */
+    String summary() {
+        StringBuilder result = new StringBuilder();
+        result.append(String.format("%s: n=%d mean=%.1f", _name, count(),
+                                    mean() / NANOS_PER_USEC));
+        for (double p : SUMMARY_PERCENTILES) {
+            result.append(String.format(" p%s=%.1f", percentileName(p),
+                                        percentile(p) / NANOS_PER_USEC));
+        }
+        result.append(String.format(" max=%.1f usec",
+                                    max() / NANOS_PER_USEC));
+        return result.toString();
+    }
+
+    /** Write my percentile distribution to OUT as a table of percentile,
+     *  value (in microseconds) and the number of values at or below it,
+     *  followed by all non-empty buckets, for plotting. */
+    synchronized void export(PrintWriter out) {
+        out.printf("# %s%n", _name);
+        out.printf("# count=%d mean_usec=%.3f max_usec=%.3f%n", _total,
+                   mean() / NANOS_PER_USEC, _max / NANOS_PER_USEC);
+        out.printf("# percentile value_usec%n");
+        for (double p : EXPORT_PERCENTILES) {
+            out.printf("%s %.3f%n", percentileName(p),
+                       percentile(p) / NANOS_PER_USEC);
+        }
+        out.printf("# bucket_low_usec bucket_high_usec count%n");
+        for (int b = 0; b < NUM_BUCKETS; b += 1) {
+            if (_counts[b] != 0) {
+                out.printf("%.3f %.3f %d%n",
+                           lowestInBucket(b) / NANOS_PER_USEC,
+                           highestInBucket(b) / NANOS_PER_USEC,
+                           _counts[b]);
+            }
+        }
+        out.println();
+    }
+
+    /** Return P formatted without superfluous trailing zeroes. */
+    private static String percentileName(double p) {
+        if (p == Math.rint(p)) {
+            return Long.toString((long) p);
+        }
+        return Double.toString(p);
+    }
+
+    /** Return the index of the bucket containing VALUE >= 0. */
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = LONG_BITS - 1 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS
+            + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /** Return the smallest value counted in bucket B. */
+    static long lowestInBucket(int b) {
+        if (b < SUB_BUCKETS) {
+            return b;
+        }
+        int shift = b / SUB_BUCKETS - 1;
+        long sub = b % SUB_BUCKETS + SUB_BUCKETS;
+        return sub << shift;
+    }
+
+    /** Return the largest value counted in bucket B. */
+    static long highestInBucket(int b) {
+        if (b < SUB_BUCKETS) {
+            return b;
+        }
+        int shift = b / SUB_BUCKETS - 1;
+        return lowestInBucket(b) + (1L << shift) - 1;
+    }
+
+    /** My name, used in reports. */
+    private final String _name;
+    /** _counts[b] is the number of values recorded in bucket b. */
+    private final long[] _counts = new long[NUM_BUCKETS];
+    /** Number of values recorded. */
+    private long _total;
+    /** Sum of the values recorded. */
+    private long _sum;
+    /** Largest value recorded. */
+    private long _max;
+
+}
@@ -0,0 +1,80 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the LatencyHistogram class.
+ *  @author Sarah Jin
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBuckets() {
+        for (int v = 0; v < 128; v += 1) {
+            assertEquals(v, LatencyHistogram.bucket(v));
+            assertEquals(v, LatencyHistogram.lowestInBucket(v));
+            assertEquals(v, LatencyHistogram.highestInBucket(v));
+        }
+        assertEquals(128, LatencyHistogram.bucket(128));
+        assertEquals(255, LatencyHistogram.bucket(255));
+        assertEquals(256, LatencyHistogram.bucket(256));
+        assertEquals(256, LatencyHistogram.bucket(257));
+        assertEquals(257, LatencyHistogram.bucket(258));
+        assertEquals(256, LatencyHistogram.lowestInBucket(256));
+        assertEquals(257, LatencyHistogram.highestInBucket(256));
+        int b = LatencyHistogram.bucket(1000);
+        assertEquals(1000, LatencyHistogram.lowestInBucket(b));
+        assertEquals(1003, LatencyHistogram.highestInBucket(b));
+        for (b = 0; b < LatencyHistogram.bucket(1L << 40); b += 1) {
+            long low = LatencyHistogram.lowestInBucket(b),
+                high = LatencyHistogram.highestInBucket(b);
+            assertEquals(b, LatencyHistogram.bucket(low));
+            assertEquals(b, LatencyHistogram.bucket(high));
+            assertEquals(b + 1, LatencyHistogram.bucket(high + 1));
+            assertTrue((high - low) * 128 <= low);
+        }
+        b = LatencyHistogram.bucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestInBucket(b));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram h = new LatencyHistogram("test");
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(50.0));
+        assertEquals(0.0, h.mean(), 0.0);
+        for (int v = 100; v >= 1; v -= 1) {
+            h.record(v);
+        }
+        assertEquals(100, h.count());
+        assertEquals(100, h.max());
+        assertEquals(50.5, h.mean(), 1e-9);
+        assertEquals(1, h.percentile(0.0));
+        assertEquals(1, h.percentile(1.0));
+        assertEquals(2, h.percentile(1.5));
+        assertEquals(50, h.percentile(50.0));
+        assertEquals(90, h.percentile(90.0));
+        assertEquals(100, h.percentile(99.9));
+        assertEquals(100, h.percentile(100.0));
+        h.record(-5);
+        assertEquals(101, h.count());
+        assertEquals(0, h.percentile(0.0));
+    }
+
+    @Test
+    public void testWideBuckets() {
+        LatencyHistogram h = new LatencyHistogram("test");
+        for (int i = 0; i < 9; i += 1) {
+            h.record(1000 + i % 4);
+        }
+        h.record(1_000_000);
+        assertEquals(10, h.count());
+        assertEquals(1003, h.percentile(50.0));
+        assertEquals(1003, h.percentile(90.0));
+        assertEquals(1_000_000, h.percentile(91.0));
+        assertEquals(1_000_000, h.percentile(100.0));
+        assertEquals((9 * 1000 + 12 + 1_000_000) / 10.0,
+                     h.mean(), 1e-9);
+    }
+
+}
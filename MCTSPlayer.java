@@ -0,0 +1,356 @@
+package qirkat;
+
+import java.util.Random;
+
+import static qirkat.PieceColor.*;
+
+/**
+ * A Player that chooses moves by Monte Carlo tree search (UCT): it
+ * repeatedly descends its search tree, choosing at each node the child
+ * that best balances its observed win rate against how little it has
+ * been tried, expands the leaf it reaches, finishes the game from there
+ * with random moves (a playout), and credits the result to every node
+ * on the path.  It plays the move tried most often.
+ * <p>
+ * Playouts are run on a private board by making and taking back move
+ * codes, and the tree lives in an MCTSTree arena, so searching creates
+ * no objects.  Several threads search the same tree at once; each
+ * counts its visit to a node before it knows the result, as a virtual
+ * loss that turns the other threads elsewhere.  The part of the tree
+ * below the current position is kept from one move to the next.
+ *
+ * @author Sarah Jin
+ */
+class MCTSPlayer extends Player {
+
+    /** Total number of playouts per move. */
+    static final int PLAYOUTS = 20000;
+    /** Number of nodes in the tree arena. */
+    private static final int CAPACITY = 1 << 20;
+    /** Fraction of the arena in use above which the tree is discarded
+     *  rather than reused. */
+    private static final double MAX_REUSE_LOAD = 0.5;
+    /** Exploration constant of the UCT formula. */
+    private static final double EXPLORATION = 1.4;
+    /** Longest playout, in plies, after which the side with more pieces
+     *  is deemed to have won. */
+    private static final int MAX_PLAYOUT = 200;
+    /** Rewards for a loss, draw, and win, in half-points. */
+    private static final int LOSS = 0, DRAW = 1, WIN = 2;
+
+    /**
+     * A new MCTSPlayer for GAME that will play MYCOLOR, searching with
+     * the available processors.
+     */
+    MCTSPlayer(Game game, PieceColor myColor) {
+        this(game, myColor, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * A new MCTSPlayer for GAME that will play MYCOLOR, searching with
+     * THREADS threads.
+     */
+    MCTSPlayer(Game game, PieceColor myColor, int threads) {
+        super(game, myColor);
+        _threads = Math.max(1, threads);
+        _tree = new MCTSTree(CAPACITY);
+        _seed = game == null ? 0 : game.nextRandom(Integer.MAX_VALUE);
+    }
+
+    @Override
+    Move myMove() {
+        if (myColor() == WHITE) {
+            board().setisAIWhite(true);
+        } else {
+            board().setisAIBlack(true);
+        }
+        Main.startTiming();
+        System.out.println(board().toString());
+        Move move = findMove(board(), PLAYOUTS, game().startThinking());
+        Main.endTiming();
+        String x = move.toString();
+        Main.reportSearch(myColor(), x, _stats);
+
+        System.out.printf("%s moves %s.\n", myColor(), x);
+        if (x.length() > 5) {
+            move = Move.parseMove(x);
+        }
+        return move;
+    }
+
+    /** Return the statistics gathered by my last search. */
+    SearchStats stats() {
+        return _stats;
+    }
+
+    /** Return my search tree. */
+    MCTSTree tree() {
+        return _tree;
+    }
+
+    /**
+     * Return a move for the player to move on BOARD, found with PLAYOUTS
+     * playouts, or null if there is none.  BOARD is not modified.
+     */
+    Move findMove(Board board, int playouts) {
+        return findMove(board, playouts, new SearchControl());
+    }
+
+    /**
+     * Return a move for the player to move on BOARD, found with PLAYOUTS
+     * playouts or as many as are done before CONTROL says to stop, or
+     * null if there is none.  BOARD is not modified.
+     */
+    Move findMove(Board board, int playouts, SearchControl control) {
+        _stats.start(0);
+        reuseTree(board);
+        _rootBoard = new Board(board);
+        Thread[] workers = new Thread[_threads];
+        int share = (playouts + _threads - 1) / _threads;
+        for (int i = 0; i < _threads; i += 1) {
+            Worker worker = new Worker(board, share, _seed + i, control);
+            _seed += _threads;
+            workers[i] = new Thread(worker);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        _stats.stop();
+        int best = bestChild(_tree.root());
+        if (best >= 0) {
+            return board.toMove(_tree.move(best));
+        }
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        int n = board.legalMoves(moves);
+        return n == 0 ? null : board.toMove(moves[0]);
+    }
+
+    /**
+     * Make the root of my tree the node for BOARD, if it lies at most
+     * two plies below the current root (my last move and the reply to
+     * it), and the arena has room; otherwise start a fresh tree.
+     */
+    private void reuseTree(Board board) {
+        int node = -1;
+        if (_rootBoard != null && _tree.load() < MAX_REUSE_LOAD) {
+            node = findDescendant(_tree.root(), _rootBoard, board.key(), 2);
+        }
+        if (node < 0) {
+            _tree.clear();
+        } else {
+            _tree.setRoot(node);
+        }
+    }
+
+    /**
+     * Return a node at most DEPTH plies below NODE, whose position is
+     * BOARD, whose position has key KEY, or -1 if there is none.
+     * BOARD is left unchanged.
+     */
+    private int findDescendant(int node, Board board, long key,
+                               int depth) {
+        if (board.key() == key) {
+            return node;
+        }
+        int start = _tree.childStart(node);
+        if (depth == 0 || start < 0) {
+            return -1;
+        }
+        for (int c = start; c < start + _tree.childCount(node); c += 1) {
+            int undo = board.play(_tree.move(c));
+            int found = findDescendant(c, board, key, depth - 1);
+            board.retract(_tree.move(c), undo);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        return -1;
+    }
+
+    /** Return the most visited child of NODE, or -1 if it has none. */
+    private int bestChild(int node) {
+        int start = _tree.childStart(node);
+        int best = -1;
+        if (start >= 0) {
+            for (int c = start; c < start + _tree.childCount(node);
+                 c += 1) {
+                if (best < 0 || _tree.visits(c) > _tree.visits(best)) {
+                    best = c;
+                }
+            }
+        }
+        return best;
+    }
+
+    /** One searching thread, with its own board and buffers. */
+    private class Worker implements Runnable {
+
+        /** A worker that will run PLAYOUTS playouts from ROOT, using
+         *  random numbers seeded with SEED, stopping early if CONTROL
+         *  says to. */
+        Worker(Board root, int playouts, long seed, SearchControl control) {
+            _board = new Board(root);
+            _control = control;
+            _playouts = playouts;
+            _random = new Random(seed);
+        }
+
+        @Override
+        public void run() {
+            SearchStats stats = new SearchStats();
+            stats.start(0);
+            for (int i = 0; i < _playouts && !_control.shouldStop();
+                 i += 1) {
+                iterate(stats);
+            }
+            synchronized (_stats) {
+                _stats.add(stats);
+            }
+        }
+
+        /** Perform one descent, expansion, playout, and update, counting
+         *  the work in STATS. */
+        private void iterate(SearchStats stats) {
+            int node = _tree.root();
+            int depth = 0;
+            _tree.visit(node);
+            _path[0] = node;
+            while (true) {
+                int start = _tree.childStart(node);
+                if (start == MCTSTree.UNEXPANDED && _tree.claim(node)) {
+                    int n = _board.legalMoves(_buffer);
+                    if (!_tree.expand(node, _buffer, n)) {
+                        break;
+                    }
+                    start = _tree.childStart(node);
+                } else if (start < 0) {
+                    break;
+                }
+                if (_tree.childCount(node) == 0) {
+                    break;
+                }
+                node = select(node, start);
+                _tree.visit(node);
+                _undo[depth] = _board.play(_tree.move(node));
+                depth += 1;
+                _path[depth] = node;
+                stats.node(depth);
+                if (_tree.visits(node) == 1 || depth == MAX_PATH - 1) {
+                    break;
+                }
+            }
+            PieceColor winner = playout();
+            stats.leaf();
+            for (int d = depth; d >= 0; d -= 1) {
+                int n = _path[d];
+                if (d > 0) {
+                    _board.retract(_tree.move(n), _undo[d - 1]);
+                }
+                PieceColor mover = _board.whoseMove();
+                _tree.addReward(n, winner == null ? DRAW
+                                : winner == mover ? WIN : LOSS);
+            }
+        }
+
+        /** Return the child of NODE, whose children start at START, with
+         *  the best UCT score: one chosen uniformly at random among the
+         *  unvisited children, if there are any. */
+        private int select(int node, int start) {
+            double logVisits = Math.log(Math.max(1, _tree.visits(node)));
+            int best = start;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            int unvisited = 0;
+            for (int c = start; c < start + _tree.childCount(node);
+                 c += 1) {
+                int visits = _tree.visits(c);
+                if (visits == 0) {
+                    unvisited += 1;
+                    if (_random.nextInt(unvisited) == 0) {
+                        best = c;
+                    }
+                } else if (unvisited == 0) {
+                    double score = _tree.reward(c) / (2.0 * visits)
+                        + EXPLORATION * Math.sqrt(logVisits / visits);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = c;
+                    }
+                }
+            }
+            return best;
+        }
+
+        /** Play random moves on my board until the game ends (possibly
+         *  in a draw by repetition or the no-capture limit) or
+         *  MAX_PLAYOUT plies pass, take them back, and return the winner
+         *  (null for a draw). */
+        private PieceColor playout() {
+            PieceColor winner = null;
+            int ply;
+            for (ply = 0; ply < MAX_PLAYOUT; ply += 1) {
+                if (_board.isDraw()) {
+                    break;
+                }
+                int n = _board.legalMoves(_buffer);
+                if (n == 0) {
+                    winner = _board.whoseMove().opposite();
+                    break;
+                }
+                int move = _buffer[_random.nextInt(n)];
+                _playoutMoves[ply] = move;
+                _playoutUndo[ply] = _board.play(move);
+            }
+            if (ply == MAX_PLAYOUT) {
+                int white = _board.numPieces(WHITE);
+                int black = _board.numPieces(BLACK);
+                winner = white > black ? WHITE : black > white ? BLACK : null;
+            }
+            for (ply -= 1; ply >= 0; ply -= 1) {
+                _board.retract(_playoutMoves[ply], _playoutUndo[ply]);
+            }
+            return winner;
+        }
+
+        /** My copy of the position being searched, kept at the root
+         *  between iterations. */
+        private final Board _board;
+        /** Tells me when to stop. */
+        private final SearchControl _control;
+        /** Number of playouts to run. */
+        private final int _playouts;
+        /** Source of random choices. */
+        private final Random _random;
+        /** Buffer for generated moves. */
+        private final int[] _buffer = new int[MovePicker.MAX_MOVES];
+        /** Nodes on the current path, from the root. */
+        private final int[] _path = new int[MAX_PATH];
+        /** Values returned by play for the moves on the current path. */
+        private final int[] _undo = new int[MAX_PATH];
+        /** Moves made in the current playout. */
+        private final int[] _playoutMoves = new int[MAX_PLAYOUT];
+        /** Values returned by play for the playout moves. */
+        private final int[] _playoutUndo = new int[MAX_PLAYOUT];
+
+    }
+
+    /** Longest path from the root followed in the tree. */
+    private static final int MAX_PATH = 256;
+
+    /** Number of searching threads. */
+    private final int _threads;
+    /** The search tree, kept between moves. */
+    private final MCTSTree _tree;
+    /** The position at the root of _tree, or null before the first
+     *  search. */
+    private Board _rootBoard;
+    /** Seed for the next worker's random numbers. */
+    private long _seed;
+    /** Counters for the current (or last) search. */
+    private final SearchStats _stats = new SearchStats();
+
+}
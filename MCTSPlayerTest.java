@@ -0,0 +1,90 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import static qirkat.PieceColor.*;
+
+/** Tests of the MCTSPlayer class.
+ *  @author Sarah Jin
+ */
+public class MCTSPlayerTest {
+
+    @Test
+    public void testFindMove() {
+        Board b0 = new Board();
+        MCTSPlayer player = new MCTSPlayer(null, WHITE, 1);
+        Move move = player.findMove(b0, 500);
+        assertNotNull(move);
+        assertTrue(b0.isLegal(move.code()));
+        b0.setPieces("-----  -----  -----  -----  w---b", WHITE);
+        assertNull(player.findMove(b0, 500));
+    }
+
+    @Test
+    public void testCancelled() {
+        Board b0 = new Board();
+        MCTSPlayer player = new MCTSPlayer(null, WHITE, 2);
+        SearchControl control = new SearchControl();
+        control.cancel();
+        Move move = player.findMove(b0, 500, control);
+        assertNotNull(move);
+        assertTrue(b0.isLegal(move.code()));
+    }
+
+    @Test
+    public void testTreeReuse() {
+        Board b0 = new Board();
+        MCTSPlayer player = new MCTSPlayer(null, WHITE, 1);
+        Move move = player.findMove(b0, 2000);
+        MCTSTree tree = player.tree();
+        int node = child(tree, tree.root(), move.code());
+        assertTrue(node >= 0);
+        int reply = tree.childStart(node);
+        assertTrue(reply >= 0);
+        int visits = tree.visits(reply);
+        b0.makeMove(move.code());
+        b0.makeMove(tree.move(reply));
+        player.findMove(b0, 100);
+        assertEquals(reply, tree.root());
+        assertEquals(visits + 100, tree.visits(reply));
+
+        Board b1 = new Board();
+        b1.setPieces("w----  -----  -----  -----  ----b", WHITE);
+        player.findMove(b1, 100);
+        assertEquals(MCTSTree.ROOT, tree.root());
+        assertEquals(100, tree.visits(MCTSTree.ROOT));
+    }
+
+    @Test
+    public void testDrawnLeaves() {
+        Board b0 = new Board();
+        b0.setPieces("w-b--  -----  b-b--  -----  -----", WHITE);
+        b0.setNoCaptureLimit(1);
+        int n = b0.legalMoves(new int[MovePicker.MAX_MOVES]);
+        assertEquals(3, n);
+        MCTSPlayer player = new MCTSPlayer(null, WHITE, 1);
+        player.findMove(b0, n);
+        MCTSTree tree = player.tree();
+        int start = tree.childStart(tree.root());
+        assertEquals(n, tree.childCount(tree.root()));
+        for (int c = start; c < start + n; c += 1) {
+            assertEquals(1, tree.visits(c));
+            assertEquals(1, tree.reward(c));
+        }
+    }
+
+    /** Return the child of NODE in TREE reached by the move with code
+     *  CODE, or -1 if there is none. */
+    private static int child(MCTSTree tree, int node, int code) {
+        int start = tree.childStart(node);
+        for (int c = start; start >= 0 && c < start + tree.childCount(node);
+             c += 1) {
+            if (tree.move(c) == code) {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+}
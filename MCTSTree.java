@@ -0,0 +1,160 @@
+package qirkat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/** The search tree of an MCTSPlayer, kept in a preallocated arena of
+ *  primitive arrays indexed by node number, so that growing it creates
+ *  no objects.  The children of a node occupy consecutive node numbers.
+ *  Each node records the move (as a move code) that leads to it, its
+ *  visit count, and its total reward in half-points (2 for a win, 1 for
+ *  a draw) to the player who made that move.
+ *
+ *  Several threads may search the tree at once.  Counts are updated
+ *  atomically, and a node is expanded by whichever thread first claims
+ *  it; the others treat it as a leaf until the expansion is published.
+ *  @author Sarah Jin
+ */
+class MCTSTree {
+
+    /** Value of childStart for a node that has not been expanded. */
+    static final int UNEXPANDED = -1;
+    /** Value of childStart for a node some thread is expanding. */
+    static final int EXPANDING = -2;
+    /** Number of the root node. */
+    static final int ROOT = 0;
+
+    /** An empty tree with room for CAPACITY nodes. */
+    MCTSTree(int capacity) {
+        _moves = new int[capacity];
+        _childCounts = new int[capacity];
+        _childStarts = new AtomicIntegerArray(capacity);
+        _visits = new AtomicIntegerArray(capacity);
+        _rewards = new AtomicIntegerArray(capacity);
+        clear();
+    }
+
+    /** Remove all nodes but a fresh, unexpanded root. */
+    void clear() {
+        _size.set(0);
+        _root = allocate(1);
+        _moves[_root] = Move.NO_MOVE;
+    }
+
+    /** Return the number of the current root. */
+    int root() {
+        return _root;
+    }
+
+    /** Make NODE, a descendant of the current root, the root, keeping
+     *  its subtree.  Nodes no longer reachable are not reclaimed until
+     *  the next clear. */
+    void setRoot(int node) {
+        _root = node;
+    }
+
+    /** Return the number of nodes allocated. */
+    int size() {
+        return _size.get();
+    }
+
+    /** Return the fraction of my capacity in use. */
+    double load() {
+        return (double) size() / _moves.length;
+    }
+
+    /** Return the code of the move leading to NODE. */
+    int move(int node) {
+        return _moves[node];
+    }
+
+    /** Return the number of the first child of NODE, or UNEXPANDED or
+     *  EXPANDING. */
+    int childStart(int node) {
+        return _childStarts.get(node);
+    }
+
+    /** Return the number of children of NODE, which must be expanded. */
+    int childCount(int node) {
+        return _childCounts[node];
+    }
+
+    /** Return the number of times NODE has been visited, including
+     *  visits still in progress. */
+    int visits(int node) {
+        return _visits.get(node);
+    }
+
+    /** Return the total reward of NODE in half-points. */
+    int reward(int node) {
+        return _rewards.get(node);
+    }
+
+    /** Record the start of a visit to NODE.  Until addReward is called,
+     *  the visit counts as a loss (a virtual loss), which steers other
+     *  threads towards other parts of the tree. */
+    void visit(int node) {
+        _visits.incrementAndGet(node);
+    }
+
+    /** Add HALFPOINTS to the reward of NODE, completing a visit. */
+    void addReward(int node, int halfPoints) {
+        _rewards.addAndGet(node, halfPoints);
+    }
+
+    /** Claim NODE for expansion, returning true iff no other thread had
+     *  claimed it already. */
+    boolean claim(int node) {
+        return _childStarts.compareAndSet(node, UNEXPANDED, EXPANDING);
+    }
+
+    /** Expand NODE, which I have claimed, giving it children for the
+     *  moves MOVES[0 .. COUNT-1].  Returns false, leaving NODE
+     *  unexpanded, if the arena is full. */
+    boolean expand(int node, int[] moves, int count) {
+        int start = allocate(count);
+        if (start < 0) {
+            _childStarts.set(node, UNEXPANDED);
+            return false;
+        }
+        for (int i = 0; i < count; i += 1) {
+            _moves[start + i] = moves[i];
+        }
+        _childCounts[node] = count;
+        _childStarts.set(node, start);
+        return true;
+    }
+
+    /** Allocate COUNT fresh nodes, returning the number of the first, or
+     *  -1 if there is no room. */
+    private int allocate(int count) {
+        int start = _size.getAndAdd(count);
+        if (start + count > _moves.length) {
+            return -1;
+        }
+        for (int i = start; i < start + count; i += 1) {
+            _childStarts.set(i, UNEXPANDED);
+            _childCounts[i] = 0;
+            _visits.set(i, 0);
+            _rewards.set(i, 0);
+        }
+        return start;
+    }
+
+    /** The current root. */
+    private int _root;
+    /** Number of nodes allocated (possibly more than the capacity, after
+     *  a failed allocation). */
+    private final AtomicInteger _size = new AtomicInteger();
+    /** Move leading to each node. */
+    private final int[] _moves;
+    /** Number of children of each expanded node. */
+    private final int[] _childCounts;
+    /** First child of each node, or UNEXPANDED or EXPANDING. */
+    private final AtomicIntegerArray _childStarts;
+    /** Visit count of each node. */
+    private final AtomicIntegerArray _visits;
+    /** Total reward of each node. */
+    private final AtomicIntegerArray _rewards;
+
+}
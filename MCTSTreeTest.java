@@ -0,0 +1,59 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the MCTSTree class.
+ *  @author Sarah Jin
+ */
+public class MCTSTreeTest {
+
+    @Test
+    public void testExpand() {
+        MCTSTree tree = new MCTSTree(4);
+        int root = tree.root();
+        assertEquals(MCTSTree.ROOT, root);
+        assertEquals(1, tree.size());
+        assertEquals(MCTSTree.UNEXPANDED, tree.childStart(root));
+        assertTrue(tree.claim(root));
+        assertFalse(tree.claim(root));
+        assertEquals(MCTSTree.EXPANDING, tree.childStart(root));
+        int[] moves = { Move.code(5, 10, 0), Move.code(6, 10, 0),
+                        Move.code(7, 11, 0) };
+        assertTrue(tree.expand(root, moves, moves.length));
+        int start = tree.childStart(root);
+        assertEquals(3, tree.childCount(root));
+        for (int i = 0; i < moves.length; i += 1) {
+            assertEquals(moves[i], tree.move(start + i));
+            assertEquals(MCTSTree.UNEXPANDED, tree.childStart(start + i));
+            assertEquals(0, tree.visits(start + i));
+        }
+        tree.visit(start);
+        tree.addReward(start, 2);
+        assertEquals(1, tree.visits(start));
+        assertEquals(2, tree.reward(start));
+    }
+
+    @Test
+    public void testArenaFull() {
+        MCTSTree tree = new MCTSTree(4);
+        int root = tree.root();
+        int[] moves = new int[4];
+        assertTrue(tree.claim(root));
+        assertTrue(tree.expand(root, moves, 3));
+        assertEquals(4, tree.size());
+        int child = tree.childStart(root);
+        assertTrue(tree.claim(child));
+        assertFalse(tree.expand(child, moves, 1));
+        assertEquals(MCTSTree.UNEXPANDED, tree.childStart(child));
+        assertEquals(3, tree.childCount(root));
+        assertTrue(tree.load() >= 1.0);
+        tree.clear();
+        assertEquals(1, tree.size());
+        root = tree.root();
+        assertTrue(tree.claim(root));
+        assertFalse(tree.expand(root, moves, 4));
+        assertEquals(MCTSTree.UNEXPANDED, tree.childStart(root));
+    }
+
+}
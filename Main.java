@@ -1,21 +1,40 @@
 package qirkat;
 
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.InputStreamReader;
 import java.io.IOException;
-import java.io.PipedReader;
-import java.io.PipedWriter;
+import java.io.PrintWriter;
+import java.util.Set;
 
 /** The main program for Qirkat.
  *  @author P. N. Hilfinger */
 public class Main {
 
     /** Run Qirkat game.  Use display if ARGS[k] is '--display', timing
-     *  if ARGS[k] is "--timing". */
+     *  if ARGS[k] is "--timing", and report search statistics if ARGS[k]
+     *  is "--stats".  "--latency FILE" turns on timing and writes the
+     *  latency histograms to FILE on exit.  "--batch IN OUT" evaluates
+     *  the positions in file IN instead of playing (see Batch), writing
+     *  the results to OUT, searching "--depth D" plies or for "--time
+     *  MSEC" milliseconds per position with "--threads N" threads.
+     *  "--network FILE" makes the AIs evaluate positions with the
+     *  network in FILE (see Network), and "--disable NAME" turns off
+     *  the selective-search technique NAME (null, lmr, or futility;
+     *  see AI.Selectivity).  "--table FILE" keeps the AIs' transposition
+     *  table in FILE between runs (see Game.setTableFile).
+     *  "--protocol" makes the program an engine driven by another
+     *  program through standard input and output (see Protocol). */
     public static void main(String[] args) {
         init = false;
-        System.out.println("CS61B Qirkat! Version 2.0");
         useGUI = true;
         _timing = false;
+        _stats = false;
+        String batchIn = null, batchOut = null, tableFile = null;
+        int depth = 0, msec = 0;
+        boolean protocol = false;
+        int threads = Runtime.getRuntime().availableProcessors();
         for (int i = 0; i < args.length; i += 1) {
             switch (args[i]) {
             case "--display":
@@ -24,52 +43,186 @@ public class Main {
             case "--timing":
                 _timing = true;
                 break;
+            case "--stats":
+                _stats = true;
+                break;
+            case "--latency":
+                if (i + 1 == args.length) {
+                    usage();
+                }
+                _timing = true;
+                i += 1;
+                _latencyFile = args[i];
+                break;
+            case "--batch":
+                if (i + 2 >= args.length) {
+                    usage();
+                }
+                batchIn = args[i + 1];
+                batchOut = args[i + 2];
+                i += 2;
+                break;
+            case "--depth":
+                i += 1;
+                depth = intArg(args, i);
+                break;
+            case "--time":
+                i += 1;
+                msec = intArg(args, i);
+                break;
+            case "--threads":
+                i += 1;
+                threads = intArg(args, i);
+                break;
+            case "--network":
+                if (i + 1 == args.length) {
+                    usage();
+                }
+                i += 1;
+                loadNetwork(args[i]);
+                break;
+            case "--disable":
+                if (i + 1 == args.length) {
+                    usage();
+                }
+                i += 1;
+                disable(args[i]);
+                break;
+            case "--table":
+                if (i + 1 == args.length) {
+                    usage();
+                }
+                i += 1;
+                tableFile = args[i];
+                break;
+            case "--protocol":
+                protocol = true;
+                break;
             default:
                 usage();
                 break;
             }
         }
 
+        if (batchIn != null) {
+            if (depth == 0) {
+                depth = msec == 0 ? Batch.DEFAULT_DEPTH
+                    : Batch.UNLIMITED_DEPTH;
+            }
+            runBatch(batchIn, batchOut, new Batch(depth, msec, threads));
+            return;
+        }
+        if (protocol) {
+            runProtocol(tableFile);
+            return;
+        }
+
+        System.out.println("CS61B Qirkat! Version 2.0");
         Game game;
         Board board = new Board();
         init = true;
         game = null;
         if (useGUI) {
-            try {
-                PipedWriter writer = new PipedWriter();
-                display = new GUI("Qirkat", board, writer);
-                game = new Game(board,
-                                new ReaderSource(new PipedReader(writer,
-                                                                 BUFFER_LEN),
-                                                 false),
-                                display);
-                display.display(true);
-            } catch (IOException excp) {
-                System.err.printf("Could not connect to display.%n");
-                System.exit(1);
-            }
+            CommandQueue commands = new CommandQueue();
+            display = new GUI("Qirkat", board, commands);
+            game = new Game(board, commands, display);
+            display.display(true);
         } else {
             game = new Game(board,
                             new ReaderSource(new InputStreamReader(System.in),
                                              true),
                             new TextReporter());
         }
+        if (tableFile != null) {
+            game.setTableFile(tableFile);
+        }
         game.process();
     }
 
     /** Give usage message and exit. */
     static void usage() {
         System.err.println("Usage: java qirkat.Main [--display] [--timing]"
-                           + " [--strict]");
+                           + " [--stats] [--latency FILE] [--strict]"
+                           + " [--network FILE] [--disable NAME]"
+                           + " [--table FILE]");
+        System.err.println("       java qirkat.Main --batch IN OUT"
+                           + " [--depth D] [--time MSEC] [--threads N]"
+                           + " [--disable NAME]");
+        System.err.println("       java qirkat.Main --protocol"
+                           + " [--network FILE] [--disable NAME]"
+                           + " [--table FILE]");
         System.exit(1);
     }
 
+    /** Return ARGS[I] as a non-negative integer, giving a usage message
+     *  if it is missing or malformed. */
+    private static int intArg(String[] args, int i) {
+        try {
+            int result = Integer.parseInt(args[i]);
+            if (result >= 0) {
+                return result;
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            usage();
+        }
+        usage();
+        return 0;
+    }
+
+    /** Make the network in file NAME the standard network. */
+    private static void loadNetwork(String name) {
+        try {
+            Network.setStandard(Network.load(name));
+        } catch (IOException excp) {
+            System.err.printf("Could not load network %s: %s%n", name,
+                              excp.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** Turn off the selective-search technique called NAME for all
+     *  AIs, or give a usage message if there is none. */
+    private static void disable(String name) {
+        AI.Selectivity technique = AI.Selectivity.parse(name);
+        if (technique == null) {
+            usage();
+        }
+        Set<AI.Selectivity> techniques = AI.defaultSelectivity();
+        techniques.remove(technique);
+        AI.setDefaultSelectivity(techniques);
+    }
+
+    /** Run BATCH on the positions in file IN, writing to file OUT. */
+    private static void runBatch(String in, String out, Batch batch) {
+        try (BufferedReader input = new BufferedReader(new FileReader(in));
+             PrintWriter output = new PrintWriter(new FileWriter(out))) {
+            batch.run(input, output);
+        } catch (IOException excp) {
+            System.err.printf("Batch failed: %s%n", excp.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /** Act as an engine driven through standard input and output,
+     *  keeping the transposition table in file TABLEFILE if it is not
+     *  null. */
+    private static void runProtocol(String tableFile) {
+        PrintWriter out = new PrintWriter(System.out, false);
+        try {
+            new Protocol(out, tableFile).run(
+                new BufferedReader(new InputStreamReader(System.in)));
+        } catch (IOException excp) {
+            System.err.printf("Protocol failed: %s%n", excp.getMessage());
+            System.exit(1);
+        }
+    }
+
     /* TIMING */
 
-    /** Start timing an operation. */
+    /** Start timing an AI move. */
     static void startTiming() {
         if (_timing) {
-            _startTime = System.currentTimeMillis();
+            _startTime = System.nanoTime();
         }
     }
 
@@ -77,42 +230,117 @@ public class Main {
      *  Report result if we are timing. */
     static void endTiming() {
         if (_timing) {
-            long time = System.currentTimeMillis() - _startTime;
-            System.err.printf("[%d msec]%n", time);
-            _maxTime = Math.max(_maxTime, time);
-            _totalTime += time;
-            _numTimedOps += 1;
+            long time = System.nanoTime() - _startTime;
+            System.err.printf("[%d msec]%n", time / NANOS_PER_MSEC);
+            THINK_TIMES.record(time);
         }
     }
 
-    /** Report total time statistics, if timing. */
+    /** Return the current time for timing an operation, to be passed
+     *  to recordTime, or 0 if we are not timing. */
+    static long clock() {
+        return _timing ? System.nanoTime() : 0;
+    }
+
+    /** Record in HISTOGRAM the time since START, a value returned by
+     *  clock(), if we are timing. */
+    static void recordTime(LatencyHistogram histogram, long start) {
+        if (_timing) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /** Report total time statistics, if timing, and write the latency
+     *  histograms to the file requested by --latency, if any. */
     static void reportTotalTimes() {
-        if (_timing && _numTimedOps > 0) {
+        long numTimedOps = THINK_TIMES.count();
+        if (_timing && numTimedOps > 0) {
+            long totalTime = Math.round(THINK_TIMES.mean() * numTimedOps);
             System.err.printf("[Total time: %d msec for %d operations. "
                               + "Avg: %d msec/operation. "
-                              + "Max: %d msec]%n", _totalTime,
-                              _numTimedOps, _totalTime / _numTimedOps,
-                              _maxTime);
+                              + "Max: %d msec]%n",
+                              totalTime / NANOS_PER_MSEC, numTimedOps,
+                              totalTime / numTimedOps / NANOS_PER_MSEC,
+                              THINK_TIMES.max() / NANOS_PER_MSEC);
+        }
+        if (_timing) {
+            for (LatencyHistogram h : HISTOGRAMS) {
+                if (h.count() > 0) {
+                    System.err.printf("[%s]%n", h.summary());
+                }
+            }
+        }
+        if (_latencyFile != null) {
+            try (PrintWriter out =
+                 new PrintWriter(new FileWriter(_latencyFile))) {
+                for (LatencyHistogram h : HISTOGRAMS) {
+                    h.export(out);
+                }
+            } catch (IOException excp) {
+                System.err.printf("Could not write %s.%n", _latencyFile);
+            }
+        }
+    }
+
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MSEC = 1_000_000;
+
+    /** Times taken by AIs to choose a move. */
+    static final LatencyHistogram THINK_TIMES =
+        new LatencyHistogram("ai-think");
+
+    /** Times taken to generate the legal moves of the game position. */
+    static final LatencyHistogram MOVEGEN_TIMES =
+        new LatencyHistogram("movegen");
+
+    /** Times taken to execute commands, excluding reading them. */
+    static final LatencyHistogram COMMAND_TIMES =
+        new LatencyHistogram("command");
+
+    /** All latency histograms, in the order reported. */
+    private static final LatencyHistogram[] HISTOGRAMS = {
+        THINK_TIMES, MOVEGEN_TIMES, COMMAND_TIMES
+    };
+
+    /** File to which to export latency histograms on exit, or null. */
+    private static String _latencyFile;
+
+    /* SEARCH STATISTICS */
+
+    /** Report STATS, the statistics of the search by which the AI
+     *  playing COLOR chose MOVE, if we are reporting statistics. */
+    static void reportSearch(PieceColor color, String move,
+                             SearchStats stats) {
+        if (_stats) {
+            System.err.printf("[search %s %s %s]%n", color, move, stats);
+            synchronized (_totalStats) {
+                _totalStats.add(stats);
+            }
         }
     }
 
+    /** Report the statistics of all searches, if we are reporting
+     *  statistics. */
+    static void reportTotalStats() {
+        if (_stats) {
+            synchronized (_totalStats) {
+                System.err.printf("[search total %s]%n", _totalStats);
+            }
+        }
+    }
+
+    /** True iff AIs should report search statistics. */
+    private static boolean _stats;
+
+    /** Statistics accumulated over all searches. */
+    private static final SearchStats _totalStats = new SearchStats();
+
     /** True iff AIs should time. */
     private static boolean _timing;
 
-    /** Accumulated time. */
-    private static long _totalTime;
-
     /** Last start time. */
     private static long _startTime;
 
-    /** Number of operations timed. */
-    private static int _numTimedOps;
-
-    /** Maximum operation time. */
-    private static long _maxTime;
-
-    /** Size of the buffer for reading commands from a GUI (bytes). */
-    private static final int BUFFER_LEN = 128;
     /** return USEGUI. */
     private static boolean useGUI;
     /** return USEGUI. */
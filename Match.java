@@ -0,0 +1,462 @@
+package qirkat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static qirkat.PieceColor.*;
+
+/** A match between two engine configurations, to measure whether a
+ *  change makes the engine stronger.  Usage:
+ *  <pre>
+ *      java qirkat.Match [OPTIONS] PLAYER1 PLAYER2
+ *  </pre>
+ *  Each PLAYER is "ab" (the alpha-beta AI) or "mcts" (MCTSPlayer),
+ *  optionally followed by comma-separated settings:
+ *  <ul>
+ *  <li> weights=FILE: evaluate with the Evaluator weights in FILE (ab);
+ *  <li> network=FILE: evaluate with the Network in FILE (ab);
+ *  <li> disable=NAMES: turn off the selective-search techniques NAMES,
+ *       separated by '+' (ab; see AI.Selectivity);
+ *  <li> depth=N: search at most N plies (ab);
+ *  <li> playouts=N: run at most N playouts per move (mcts).
+ *  </ul>
+ *  For example, "ab,weights=new.txt" against "ab" tests new weights.
+ *  The options are
+ *  <ul>
+ *  <li> --games N: play at most N games (default DEFAULT_GAMES);
+ *  <li> --time MSEC: time per move (default DEFAULT_TIME; 0 for no
+ *       limit, in which case depth or playouts must be set);
+ *  <li> --threads N: games played at once (default: one per
+ *       processor);
+ *  <li> --openings FILE: start from the positions in FILE, one per line
+ *       as for Batch, in turn; otherwise each opening is OPENING_PLIES
+ *       random moves from the initial position;
+ *  <li> --seed S: seed for the random openings (default 0);
+ *  <li> --elo0 E0, --elo1 E1: the hypotheses of the SPRT (see Sprt;
+ *       defaults DEFAULT_ELO0 and DEFAULT_ELO1);
+ *  <li> --alpha A, --beta B: its error probabilities (default
+ *       DEFAULT_ERROR each).
+ *  </ul>
+ *  Games are played in pairs from the same opening, PLAYER1 taking
+ *  white in one and black in the other, on a pool of threads, each with
+ *  its own engines.  A game ends when a player cannot move, losing, or
+ *  in a draw by repetition or the no-capture limit.  After each pair, a
+ *  line gives the games so far, PLAYER1's wins, draws, and losses, the
+ *  Elo difference with a 95% confidence interval, and the SPRT's
+ *  log-likelihood ratio and bounds.  The match stops once the SPRT
+ *  accepts a hypothesis or the games run out.
+ *  @author Sarah Jin
+ */
+class Match {
+
+    /** Default maximum number of games. */
+    static final int DEFAULT_GAMES = 20000;
+    /** Default time per move, in milliseconds. */
+    static final long DEFAULT_TIME = 50;
+    /** Default hypotheses of the SPRT, in Elo. */
+    static final double DEFAULT_ELO0 = 0, DEFAULT_ELO1 = 10;
+    /** Default error probabilities of the SPRT. */
+    static final double DEFAULT_ERROR = 0.05;
+    /** Number of random moves in a generated opening. */
+    static final int OPENING_PLIES = 8;
+
+    /** Play a match as described in the class comment, with arguments
+     *  ARGS. */
+    public static void main(String[] args) {
+        int games = DEFAULT_GAMES;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long msec = DEFAULT_TIME, seed = 0;
+        double elo0 = DEFAULT_ELO0, elo1 = DEFAULT_ELO1,
+            alpha = DEFAULT_ERROR, beta = DEFAULT_ERROR;
+        String openings = null;
+        ArrayList<String> players = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i += 1) {
+                if (!args[i].startsWith("--")) {
+                    players.add(args[i]);
+                    continue;
+                } else if (i + 1 == args.length) {
+                    usage();
+                }
+                String value = args[i + 1];
+                i += 1;
+                switch (args[i - 1]) {
+                case "--games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "--time":
+                    msec = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--openings":
+                    openings = value;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--elo0":
+                    elo0 = Double.parseDouble(value);
+                    break;
+                case "--elo1":
+                    elo1 = Double.parseDouble(value);
+                    break;
+                case "--alpha":
+                    alpha = Double.parseDouble(value);
+                    break;
+                case "--beta":
+                    beta = Double.parseDouble(value);
+                    break;
+                default:
+                    usage();
+                }
+            }
+            if (players.size() != 2 || games < 2 || threads < 1
+                || msec < 0 || elo1 <= elo0 || alpha <= 0 || alpha >= 1
+                || beta <= 0 || beta >= 1) {
+                usage();
+            }
+            Config first = new Config(players.get(0)),
+                second = new Config(players.get(1));
+            if (msec == 0 && (!first.limited() || !second.limited())) {
+                usage();
+            }
+            Match match = new Match(first, second, msec, seed);
+            if (openings != null) {
+                match.readOpenings(openings);
+            }
+            match.run(games / 2, threads,
+                      new Sprt(elo0, elo1, alpha, beta));
+        } catch (IOException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+            usage();
+        }
+    }
+
+    /** Print a usage message and exit. */
+    private static void usage() {
+        System.err.println("Usage: java qirkat.Match [--games N]"
+                           + " [--time MSEC] [--threads N]"
+                           + " [--openings FILE] [--seed S]");
+        System.err.println("           [--elo0 E0] [--elo1 E1]"
+                           + " [--alpha A] [--beta B] PLAYER1 PLAYER2");
+        System.err.println("PLAYER is ab or mcts, optionally followed"
+                           + " by ,weights=FILE ,network=FILE"
+                           + " ,disable=NAME+... ,depth=N ,playouts=N");
+        System.exit(1);
+    }
+
+    /** A match between FIRST and SECOND, with MSEC milliseconds per
+     *  move, generating openings with random seed SEED. */
+    Match(Config first, Config second, long msec, long seed) {
+        _configs = new Config[] { first, second };
+        _msec = msec;
+        _seed = seed;
+    }
+
+    /** Use the positions in the file named NAME, one per line as the
+     *  operands of 'set', as openings. */
+    void readOpenings(String name) throws IOException {
+        _openings = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new FileReader(name))) {
+            int lineNum = 0;
+            for (String line = r.readLine(); line != null;
+                 line = r.readLine()) {
+                lineNum += 1;
+                if (line.indexOf('#') != -1) {
+                    line = line.substring(0, line.indexOf('#'));
+                }
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+", 2);
+                Board board = new Board();
+                try {
+                    board.setPieces(fields[1],
+                                    fields[0].equalsIgnoreCase("white")
+                                    ? WHITE : BLACK);
+                } catch (IllegalArgumentException
+                         | ArrayIndexOutOfBoundsException excp) {
+                    throw new IOException("bad opening at line " + lineNum);
+                }
+                _openings.add(board);
+            }
+        }
+        if (_openings.isEmpty()) {
+            throw new IOException("no openings in " + name);
+        }
+    }
+
+    /** Play up to PAIRS pairs of games on THREADS threads, reporting
+     *  the results and stopping early once TEST accepts a
+     *  hypothesis. */
+    void run(int pairs, int threads, Sprt test) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "match");
+            t.setDaemon(true);
+            return t;
+        });
+        ThreadLocal<Engine[]> engines = ThreadLocal.withInitial(() ->
+            new Engine[] { _configs[0].newEngine(),
+                           _configs[1].newEngine() });
+        CompletionService<int[]> results =
+            new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < pairs; i += 1) {
+            int pair = i;
+            results.submit(() -> playPair(pair, engines.get()));
+        }
+        long wins = 0, draws = 0, losses = 0;
+        try {
+            for (int i = 0; i < pairs; i += 1) {
+                int[] points = results.take().get();
+                for (int p : points) {
+                    wins += p == 2 ? 1 : 0;
+                    draws += p == 1 ? 1 : 0;
+                    losses += p == 0 ? 1 : 0;
+                }
+                test.addPair(points[0] + points[1]);
+                System.out.printf("%d games: +%d =%d -%d %s%n",
+                                  wins + draws + losses, wins, draws,
+                                  losses, test);
+                if (test.status() != Sprt.CONTINUE) {
+                    break;
+                }
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException excp) {
+            throw new Error("Internal failure: " + excp.getCause());
+        } finally {
+            _stopped = true;
+            pool.shutdownNow();
+        }
+        switch (test.status()) {
+        case Sprt.H1:
+            System.out.println("H1 accepted: PLAYER1 is stronger.");
+            break;
+        case Sprt.H0:
+            System.out.println("H0 accepted: PLAYER1 is not stronger.");
+            break;
+        default:
+            System.out.println("No decision.");
+            break;
+        }
+    }
+
+    /** Play pair number PAIR, with ENGINES[0] playing the first
+     *  configuration and ENGINES[1] the second, and return the
+     *  half-points the first configuration scored in each game. */
+    private int[] playPair(int pair, Engine[] engines) {
+        int[] points = new int[2];
+        if (_stopped) {
+            return points;
+        }
+        Board opening = opening(pair);
+        for (int g = 0; g < 2; g += 1) {
+            Engine white = engines[g], black = engines[1 - g];
+            PieceColor winner = playGame(new Board(opening), white, black);
+            PieceColor first = g == 0 ? WHITE : BLACK;
+            points[g] = winner == EMPTY ? 1 : winner == first ? 2 : 0;
+        }
+        return points;
+    }
+
+    /** Play a game from BOARD between WHITE and BLACK, and return the
+     *  winner, or EMPTY for a draw. */
+    private PieceColor playGame(Board board, Engine white, Engine black) {
+        white.clear();
+        black.clear();
+        SearchControl control = new SearchControl();
+        while (!board.isDraw()) {
+            if (!board.hasLegalMove()) {
+                return board.whoseMove().opposite();
+            }
+            control.start(_msec);
+            Engine engine = board.whoseMove() == WHITE ? white : black;
+            board.makeMove(engine.findMove(board, control));
+        }
+        return EMPTY;
+    }
+
+    /** Return opening number N: the next position from the openings
+     *  file, or else OPENING_PLIES random moves from the initial
+     *  position, chosen with random seed _seed + N. */
+    private Board opening(int n) {
+        if (_openings != null) {
+            return _openings.get(n % _openings.size());
+        }
+        SplittableRandom random = new SplittableRandom(_seed + n);
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        while (true) {
+            Board board = new Board();
+            int ply;
+            for (ply = 0; ply < OPENING_PLIES; ply += 1) {
+                int k = board.legalMoves(moves);
+                if (k == 0) {
+                    break;
+                }
+                board.makeMove(moves[random.nextInt(k)]);
+            }
+            if (ply == OPENING_PLIES && board.hasLegalMove()) {
+                return board;
+            }
+        }
+    }
+
+    /** A player in a match, which chooses moves for whichever side is
+     *  to move. */
+    interface Engine {
+
+        /** Return a move for the player to move on BOARD, which has one,
+         *  stopping when CONTROL says to. */
+        Move findMove(Board board, SearchControl control);
+
+        /** Forget what earlier games taught me. */
+        void clear();
+
+    }
+
+    /** A description of a player, as given on the command line. */
+    static class Config {
+
+        /** The configuration described by SPEC (see the comment on
+         *  Match). */
+        Config(String spec) throws IOException {
+            String[] fields = spec.split(",");
+            _mcts = fields[0].equalsIgnoreCase("mcts");
+            if (!_mcts && !fields[0].equalsIgnoreCase("ab")) {
+                throw new IllegalArgumentException("unknown player: "
+                                                   + fields[0]);
+            }
+            for (int i = 1; i < fields.length; i += 1) {
+                String[] setting = fields[i].split("=", 2);
+                if (setting.length != 2) {
+                    throw new IllegalArgumentException("bad setting: "
+                                                       + fields[i]);
+                }
+                set(setting[0], setting[1]);
+            }
+        }
+
+        /** Set my KEY to VALUE. */
+        private void set(String key, String value) throws IOException {
+            switch (key) {
+            case "weights":
+                try (BufferedReader r =
+                     new BufferedReader(new FileReader(value))) {
+                    _evaluator = Evaluator.read(r);
+                }
+                _network = null;
+                break;
+            case "network":
+                try (DataInputStream in = new DataInputStream(
+                         new BufferedInputStream(
+                             new FileInputStream(value)))) {
+                    _network = Network.read(in);
+                }
+                break;
+            case "disable":
+                for (String name : value.split("\\+")) {
+                    AI.Selectivity technique = AI.Selectivity.parse(name);
+                    if (technique == null) {
+                        throw new IllegalArgumentException(
+                            "unknown technique: " + name);
+                    }
+                    _selectivity.remove(technique);
+                }
+                break;
+            case "depth":
+                _depth = Integer.parseInt(value);
+                break;
+            case "playouts":
+                _playouts = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("unknown setting: "
+                                                   + key);
+            }
+        }
+
+        /** Return true iff my searches are limited other than by time:
+         *  by depth for an AI, or by playouts for an MCTSPlayer. */
+        boolean limited() {
+            return _mcts ? _playouts != Integer.MAX_VALUE
+                : _depth < Batch.UNLIMITED_DEPTH;
+        }
+
+        /** Return a new engine of my configuration. */
+        Engine newEngine() {
+            if (_mcts) {
+                MCTSPlayer player = new MCTSPlayer(null, WHITE, 1);
+                return new Engine() {
+                    @Override
+                    public Move findMove(Board board, SearchControl c) {
+                        return player.findMove(board, _playouts, c);
+                    }
+
+                    @Override
+                    public void clear() {
+                    }
+                };
+            }
+            AI ai = new AI(null, WHITE, _evaluator, _network);
+            ai.setSelectivity(_selectivity);
+            return new Engine() {
+                @Override
+                public Move findMove(Board board, SearchControl c) {
+                    return ai.findMove(board, _depth, c);
+                }
+
+                @Override
+                public void clear() {
+                    ai.clear();
+                }
+            };
+        }
+
+        /** True for MCTSPlayer, false for AI. */
+        private final boolean _mcts;
+        /** Evaluator of an AI. */
+        private Evaluator _evaluator = Evaluator.STANDARD;
+        /** Network of an AI, or null to use _evaluator. */
+        private Network _network = Network.standard();
+        /** Selective-search techniques of an AI. */
+        private EnumSet<AI.Selectivity> _selectivity =
+            EnumSet.allOf(AI.Selectivity.class);
+        /** Depth limit of an AI. */
+        private int _depth = Batch.UNLIMITED_DEPTH;
+        /** Playout limit of an MCTSPlayer. */
+        private int _playouts = Integer.MAX_VALUE;
+
+    }
+
+    /** The two configurations playing. */
+    private final Config[] _configs;
+    /** Time per move, in milliseconds. */
+    private final long _msec;
+    /** Seed for generated openings. */
+    private final long _seed;
+    /** The openings read by readOpenings, or null. */
+    private List<Board> _openings;
+    /** True once no more games should be started. */
+    private volatile boolean _stopped;
+
+}
@@ -62,10 +62,11 @@ class Move {
      * is at most one _staged object at any time, at most one call to move
      * may execute simultaneously.  Otherwise, two the methods may attempt
      * to use the same Move object for two different Moves, which clearly
-     * will not work.  Therefore, we indicate in the comments that a number
-     * of the operations are not "thread safe". Fortunately, you'll not run
-     * into this problem as long as you don't do anything fancy (such as
-     * trying to make your AI a parallel program).
+     * will not work.  Since AIs now search on their own threads (and the
+     * batch mode runs several at once), the one factory method that
+     * touches _staged and _internedMoves is synchronized; the others all
+     * go through it.  Searches work on move codes, so the lock is taken
+     * only at the edges.
      */
 
     /**
@@ -79,10 +80,10 @@ class Move {
      * A factory method that returns a Move from COL0 ROW0 to COL1 ROW1,
      * followed by NEXTJUMP, if this move is a jump. Assumes the column
      * and row designations are valid and that NEXTJUMP is null for a
-     * non-capturing move.  Not thread-safe.
+     * non-capturing move.
      */
-    static Move move(char col0, char row0, char col1, char row1,
-                     Move nextJump) {
+    static synchronized Move move(char col0, char row0, char col1,
+                                  char row1, Move nextJump) {
         if (_staged == null) {
             _staged = new Move();
         }
@@ -96,7 +97,6 @@ class Move {
 
     /**
      * Return a single move or jump from (COL0, ROW0) to (COL1, ROW1).
-     * Not thread-safe.
      */
     static Move move(char col0, char row0, char col1, char row1) {
         return move(col0, row0, col1, row1, null);
@@ -347,6 +347,161 @@ class Move {
         return _nextJump;
     }
 
+    /* Compact move codes.  Where Move objects are too heavy (move logs,
+     * tables), a move is encoded in an int: the source square in bits
+     * 0-4, the final destination square in bits 5-9, and the set of
+     * captured squares in bits 10-30.  Corners can never be jumped over,
+     * so one bit for each of the 21 other squares suffices.  Two jumps
+     * that start and end on the same squares and capture the same pieces
+     * have the same code, which is harmless, since they have the same
+     * effect. */
+
+    /**
+     * Code denoting no move.
+     */
+    static final int NO_MOVE = -1;
+
+    /**
+     * Number of bits used for a square index in a move code.
+     */
+    private static final int SQUARE_BITS = 5;
+
+    /**
+     * Mask for a square index in a move code.
+     */
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+
+    /**
+     * Position of the captured-square set in a move code.
+     */
+    private static final int CAPTURE_SHIFT = 2 * SQUARE_BITS;
+
+    /**
+     * CAPTURE_BIT[k] is the bit position (less CAPTURE_SHIFT) standing
+     * for square k in a move code, or -1 for corners.
+     */
+    private static final int[] CAPTURE_BIT = new int[MAX_INDEX + 1];
+
+    /**
+     * CAPTURE_SQUARE[b] is the square whose capture bit is b.
+     */
+    private static final int[] CAPTURE_SQUARE = new int[MAX_INDEX + 1];
+
+    static {
+        int b;
+        b = 0;
+        for (int k = 0; k <= MAX_INDEX; k += 1) {
+            boolean corner = (col(k) == 'a' || col(k) == 'e')
+                && (row(k) == '1' || row(k) == '5');
+            if (corner) {
+                CAPTURE_BIT[k] = -1;
+            } else {
+                CAPTURE_BIT[k] = b;
+                CAPTURE_SQUARE[b] = k;
+                b += 1;
+            }
+        }
+    }
+
+    /**
+     * Return the code for a move from square FROM to square TO that
+     * captures the set of squares CAPTURED (bit k for square k).
+     */
+    static int code(int from, int to, int captured) {
+        int result = from | (to << SQUARE_BITS);
+        while (captured != 0) {
+            int k = Integer.numberOfTrailingZeros(captured);
+            captured &= captured - 1;
+            result |= 1 << (CAPTURE_SHIFT + CAPTURE_BIT[k]);
+        }
+        return result;
+    }
+
+    /**
+     * Return the source square of the move with code CODE.
+     */
+    static int codeFrom(int code) {
+        return code & SQUARE_MASK;
+    }
+
+    /**
+     * Return the final destination square of the move with code CODE.
+     */
+    static int codeTo(int code) {
+        return (code >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    /**
+     * Return true iff CODE denotes a capture.
+     */
+    static boolean codeIsJump(int code) {
+        return (code >>> CAPTURE_SHIFT) != 0;
+    }
+
+    /**
+     * Return the set of squares captured by the move with code CODE
+     * (bit k for square k).
+     */
+    static int codeCaptures(int code) {
+        int bits = code >>> CAPTURE_SHIFT;
+        int result = 0;
+        while (bits != 0) {
+            int b = Integer.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            result |= 1 << CAPTURE_SQUARE[b];
+        }
+        return result;
+    }
+
+    /**
+     * Return the square that is the mirror image of square K under
+     * reflection of the board left to right (column a to column e).
+     */
+    static int mirrorSquare(int k) {
+        return k - k % SIDE + SIDE - 1 - k % SIDE;
+    }
+
+    /**
+     * Return the set of squares that is the mirror image of SQUARES (bit
+     * k for square k) under left-right reflection.
+     */
+    static int mirrorSquares(int squares) {
+        int result = 0;
+        while (squares != 0) {
+            int k = Integer.numberOfTrailingZeros(squares);
+            squares &= squares - 1;
+            result |= 1 << mirrorSquare(k);
+        }
+        return result;
+    }
+
+    /**
+     * Return the code of the mirror image under left-right reflection of
+     * the move with code CODE, or NO_MOVE if CODE is NO_MOVE.
+     */
+    static int mirrorCode(int code) {
+        if (code == NO_MOVE) {
+            return NO_MOVE;
+        }
+        return code(mirrorSquare(codeFrom(code)), mirrorSquare(codeTo(code)),
+                    mirrorSquares(codeCaptures(code)));
+    }
+
+    /**
+     * Return the code for this move.
+     */
+    int code() {
+        int captured = 0;
+        Move last = this;
+        if (isJump()) {
+            for (Move m = this; m != null; m = m._nextJump) {
+                captured |= 1 << m.jumpedIndex();
+                last = m;
+            }
+        }
+        return code(_fromIndex, last._toIndex, captured);
+    }
+
     @Override
     public int hashCode() {
         return (_fromIndex << 5) | _toIndex;
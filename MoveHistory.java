@@ -0,0 +1,180 @@
+package qirkat;
+
+import java.util.Arrays;
+
+/** The record of the moves made on a Board, for undo, redo, and jumping
+ *  to an arbitrary ply.  Each move is kept as two ints: its move code
+ *  (see Move.code) and the mover's lateral-move state before the move,
+ *  which is all that is needed to take it back.  In addition, every
+ *  CHECKPOINT_INTERVAL plies a snapshot of the whole position is kept,
+ *  so that any ply can be reached by restoring a snapshot and replaying
+ *  fewer than CHECKPOINT_INTERVAL moves.
+ *
+ *  Moves after the current ply (undone, but not yet overwritten by a new
+ *  move) are retained, so that they may be redone.
+ *  @author Sarah Jin
+ */
+class MoveHistory {
+
+    /** Number of plies between checkpoints. */
+    static final int CHECKPOINT_INTERVAL = 16;
+    /** Initial capacity, in moves. */
+    private static final int INITIAL_MOVES = 16;
+    /** Initial capacity, in checkpoints. */
+    private static final int INITIAL_CHECKPOINTS = 2;
+    /** Number of squares. */
+    private static final int SQUARES = Move.MAX_INDEX + 1;
+    /** Position of the player to move in a checkpoint. */
+    private static final int WHOSE_MOVE = SQUARES;
+    /** Position of white's lateral-move state in a checkpoint. */
+    private static final int WHITE_LATERAL = SQUARES + 1;
+    /** Position of black's lateral-move state in a checkpoint. */
+    private static final int BLACK_LATERAL = SQUARES + 2;
+    /** Number of ints in a checkpoint. */
+    private static final int CHECKPOINT_SIZE = SQUARES + 3;
+
+    /** An empty history whose initial position is that of BOARD, with
+     *  WHOSEMOVE to play and lateral-move states WHITELATERAL and
+     *  BLACKLATERAL. */
+    MoveHistory(PieceColor[] board, PieceColor whoseMove,
+                int whiteLateral, int blackLateral) {
+        _codes = new int[INITIAL_MOVES];
+        _priorLaterals = new int[INITIAL_MOVES];
+        _checkpoints = new int[INITIAL_CHECKPOINTS * CHECKPOINT_SIZE];
+        saveCheckpoint(0, board, whoseMove, whiteLateral, blackLateral);
+    }
+
+    /** Return the number of moves made to reach the current position. */
+    int ply() {
+        return _ply;
+    }
+
+    /** Return the number of moves recorded, including those undone that
+     *  may still be redone. */
+    int length() {
+        return _length;
+    }
+
+    /** Return the code of the move that was made at ply PLY (numbering
+     *  from 0), where 0 <= PLY < length(). */
+    int code(int ply) {
+        return _codes[ply];
+    }
+
+    /** Return the lateral-move state of the player who made the move at
+     *  ply PLY, as it was before that move. */
+    int priorLateral(int ply) {
+        return _priorLaterals[ply];
+    }
+
+    /** Record the move with code CODE, made at the current ply by a
+     *  player whose lateral-move state had been PRIORLATERAL, discarding
+     *  any moves that could have been redone. */
+    void record(int code, int priorLateral) {
+        if (_ply == _codes.length) {
+            _codes = Arrays.copyOf(_codes, 2 * _ply);
+            _priorLaterals = Arrays.copyOf(_priorLaterals, 2 * _ply);
+        }
+        _codes[_ply] = code;
+        _priorLaterals[_ply] = priorLateral;
+        _savedCheckpoints = Math.min(_savedCheckpoints,
+                                     _ply / CHECKPOINT_INTERVAL + 1);
+        _ply += 1;
+        _length = _ply;
+    }
+
+    /** Move the current ply back one, returning the code of the move
+     *  taken back, or Move.NO_MOVE if at ply 0. */
+    int back() {
+        if (_ply == 0) {
+            return Move.NO_MOVE;
+        }
+        _ply -= 1;
+        return _codes[_ply];
+    }
+
+    /** Move the current ply forward one, returning the code of the move
+     *  to be redone, or Move.NO_MOVE if there is none. */
+    int forward() {
+        if (_ply == _length) {
+            return Move.NO_MOVE;
+        }
+        _ply += 1;
+        return _codes[_ply - 1];
+    }
+
+    /** Return true iff the current ply is a multiple of
+     *  CHECKPOINT_INTERVAL that has no checkpoint yet. */
+    boolean needsCheckpoint() {
+        return _ply % CHECKPOINT_INTERVAL == 0
+            && _ply / CHECKPOINT_INTERVAL >= _savedCheckpoints;
+    }
+
+    /** Save a checkpoint for the current ply of the position given by
+     *  BOARD, WHOSEMOVE, WHITELATERAL, and BLACKLATERAL. */
+    void checkpoint(PieceColor[] board, PieceColor whoseMove,
+                    int whiteLateral, int blackLateral) {
+        saveCheckpoint(_ply / CHECKPOINT_INTERVAL, board, whoseMove,
+                       whiteLateral, blackLateral);
+    }
+
+    /** Return the ply of the latest checkpoint at or before PLY. */
+    int checkpointPly(int ply) {
+        int c = Math.min(ply / CHECKPOINT_INTERVAL, _savedCheckpoints - 1);
+        return c * CHECKPOINT_INTERVAL;
+    }
+
+    /** Set the current ply to CHECKPLY, which must be a value returned by
+     *  checkpointPly, and copy the position saved there into BOARD.
+     *  Return {whose move, white lateral state, black lateral state},
+     *  with the first as an ordinal of PieceColor. */
+    int[] restore(int checkPly, PieceColor[] board) {
+        int base = checkPly / CHECKPOINT_INTERVAL * CHECKPOINT_SIZE;
+        for (int k = 0; k < SQUARES; k += 1) {
+            board[k] = Board.PIECE_VALUES[_checkpoints[base + k]];
+        }
+        _ply = checkPly;
+        return new int[] {
+            _checkpoints[base + WHOSE_MOVE],
+            _checkpoints[base + WHITE_LATERAL],
+            _checkpoints[base + BLACK_LATERAL]
+        };
+    }
+
+    /** Save checkpoint number C of the position given by BOARD,
+     *  WHOSEMOVE, WHITELATERAL, and BLACKLATERAL, discarding any later
+     *  ones. */
+    private void saveCheckpoint(int c, PieceColor[] board,
+                                PieceColor whoseMove, int whiteLateral,
+                                int blackLateral) {
+        int base = c * CHECKPOINT_SIZE;
+        if (base + CHECKPOINT_SIZE > _checkpoints.length) {
+            _checkpoints = Arrays.copyOf(_checkpoints,
+                                         2 * _checkpoints.length);
+        }
+        for (int k = 0; k < SQUARES; k += 1) {
+            _checkpoints[base + k] = board[k].ordinal();
+        }
+        _checkpoints[base + WHOSE_MOVE] = whoseMove.ordinal();
+        _checkpoints[base + WHITE_LATERAL] = whiteLateral;
+        _checkpoints[base + BLACK_LATERAL] = blackLateral;
+        _savedCheckpoints = c + 1;
+    }
+
+    /** Codes of the moves made, indexed by ply. */
+    private int[] _codes;
+    /** _priorLaterals[p] is the lateral-move state of the player who
+     *  made move p, before that move. */
+    private int[] _priorLaterals;
+    /** Checkpoint c occupies CHECKPOINT_SIZE ints starting at
+     *  c * CHECKPOINT_SIZE: the ordinals of the 25 squares, the ordinal
+     *  of the player to move, and the two lateral-move states. */
+    private int[] _checkpoints;
+    /** Number of valid checkpoints. */
+    private int _savedCheckpoints;
+    /** Number of moves made to reach the current position. */
+    private int _ply;
+    /** Number of moves recorded. */
+    private int _length;
+
+}
@@ -0,0 +1,127 @@
+package qirkat;
+
+/** Supplies the legal moves from a position to the search one at a
+ *  time, as move codes (see Move.code), in the order most likely to
+ *  produce an early cutoff, and generating as little as possible before
+ *  the search has what it needs.  The stages are:
+ *  <ol>
+ *  <li> the hash move (the best move found for the position earlier),
+ *       which needs no generation at all, only a legality check;
+ *  <li> captures;
+ *  <li> killer moves (quiet moves that caused cutoffs at the same ply
+ *       elsewhere in the tree), again only checked for legality;
+ *  <li> the remaining quiet moves.
+ *  </ol>
+ *  Captures are compulsory, so if there are any, the last two stages are
+ *  skipped.  A picker owns a fixed buffer and may be reused for one node
+ *  after another; the search keeps one per ply.
+ *  @author Sarah Jin
+ */
+class MovePicker {
+
+    /** Capacity of the move buffer.  No reachable position has nearly
+     *  this many moves. */
+    static final int MAX_MOVES = 256;
+
+    /** Stages. */
+    private static final int HASH = 0, CAPTURES = 1, KILLER1 = 2,
+        KILLER2 = 3, QUIETS = 4, DONE = 5;
+
+    /** Prepare to supply the moves of BOARD, trying HASHMOVE first and
+     *  KILLER1 and KILLER2 first among quiet moves (any of which may be
+     *  Move.NO_MOVE or illegal).  BOARD must not change while I am in
+     *  use, except temporarily between calls to next. */
+    void init(Board board, int hashMove, int killer1, int killer2) {
+        _board = board;
+        _hashMove = hashMove;
+        _killer1 = killer1;
+        _killer2 = killer2;
+        _stage = HASH;
+        _next = _count = 0;
+    }
+
+    /** Return the code of the next move, or Move.NO_MOVE if there are
+     *  no more. */
+    int next() {
+        while (true) {
+            switch (_stage) {
+            case HASH:
+                _stage = CAPTURES;
+                if (_hashMove != Move.NO_MOVE && _board.isLegal(_hashMove)) {
+                    return _hashMove;
+                }
+                break;
+            case CAPTURES:
+                if (_count == 0 && _next == 0) {
+                    _count = _board.jumpMoves(_moves, 0);
+                    if (_count == 0) {
+                        _stage = KILLER1;
+                        break;
+                    }
+                }
+                if (_next < _count) {
+                    int move = _moves[_next];
+                    _next += 1;
+                    if (move != _hashMove) {
+                        return move;
+                    }
+                } else {
+                    _stage = DONE;
+                }
+                break;
+            case KILLER1:
+                _stage = KILLER2;
+                if (isNewKiller(_killer1)) {
+                    return _killer1;
+                }
+                break;
+            case KILLER2:
+                _stage = QUIETS;
+                if (_killer2 != _killer1 && isNewKiller(_killer2)) {
+                    return _killer2;
+                }
+                break;
+            case QUIETS:
+                if (_count == 0 && _next == 0) {
+                    _count = _board.quietMoves(_moves, 0);
+                    _next = 0;
+                }
+                while (_next < _count) {
+                    int move = _moves[_next];
+                    _next += 1;
+                    if (move != _hashMove && move != _killer1
+                        && move != _killer2) {
+                        return move;
+                    }
+                }
+                _stage = DONE;
+                break;
+            default:
+                return Move.NO_MOVE;
+            }
+        }
+    }
+
+    /** Return true iff KILLER is a legal quiet move other than the hash
+     *  move. */
+    private boolean isNewKiller(int killer) {
+        return killer != Move.NO_MOVE && killer != _hashMove
+            && !Move.codeIsJump(killer) && _board.isLegal(killer);
+    }
+
+    /** The position whose moves I supply. */
+    private Board _board;
+    /** The move to try first, or Move.NO_MOVE. */
+    private int _hashMove;
+    /** Quiet moves to try before the others, or Move.NO_MOVE. */
+    private int _killer1, _killer2;
+    /** Current stage. */
+    private int _stage;
+    /** Moves generated for the current stage. */
+    private final int[] _moves = new int[MAX_MOVES];
+    /** Number of moves in _moves. */
+    private int _count;
+    /** Index in _moves of the next move to supply. */
+    private int _next;
+
+}
@@ -0,0 +1,111 @@
+package qirkat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import static qirkat.PieceColor.*;
+
+/** Tests of the MovePicker class.
+ *  @author Sarah Jin
+ */
+public class MovePickerTest {
+
+    @Test
+    public void testQuiets() {
+        Board b0 = new Board();
+        int[] legal = legal(b0);
+        assertTrue(legal.length >= 3);
+        assertEquals(0, b0.jumpMoves(new int[MovePicker.MAX_MOVES], 0));
+        List<Integer> moves = pick(b0, legal[2], legal[0], legal[1]);
+        assertEquals(legal[2], (int) moves.get(0));
+        assertEquals(legal[0], (int) moves.get(1));
+        assertEquals(legal[1], (int) moves.get(2));
+        checkSame(legal, moves);
+        moves = pick(b0, legal[1], legal[1], legal[1]);
+        assertEquals(legal[1], (int) moves.get(0));
+        checkSame(legal, moves);
+        checkSame(legal, pick(b0, Move.NO_MOVE, Move.NO_MOVE,
+                              Move.NO_MOVE));
+    }
+
+    @Test
+    public void testCaptures() {
+        int[] quiets = legal(new Board());
+        Board b0 = captures();
+        int[] legal = legal(b0);
+        assertTrue(legal.length >= 2);
+        for (int move : legal) {
+            assertTrue(Move.codeIsJump(move));
+        }
+        List<Integer> moves = pick(b0, legal[1], quiets[0], quiets[1]);
+        assertEquals(legal[1], (int) moves.get(0));
+        checkSame(legal, moves);
+    }
+
+    @Test
+    public void testStale() {
+        Board b0 = captures();
+        int[] jumps = legal(b0);
+        Board b1 = new Board();
+        int[] quiets = legal(b1);
+        int badQuiet = Move.code(Move.index('c', '1'),
+                                 Move.index('c', '2'), 0);
+        assertFalse(b1.isLegal(badQuiet));
+        assertFalse(b1.isLegal(jumps[0]));
+        checkSame(quiets, pick(b1, jumps[0], jumps[0], badQuiet));
+        checkSame(quiets, pick(b1, badQuiet, badQuiet, jumps[0]));
+        List<Integer> moves = pick(b1, badQuiet, quiets[3], jumps[0]);
+        assertEquals(quiets[3], (int) moves.get(0));
+        checkSame(quiets, moves);
+        assertFalse(b0.isLegal(quiets[0]));
+        checkSame(jumps, pick(b0, quiets[0], quiets[0], quiets[1]));
+    }
+
+    /** Return a board on which black has several captures. */
+    private static Board captures() {
+        Board result = new Board();
+        result.setPieces("-----  -www-  --b--  -----  -----", BLACK);
+        return result;
+    }
+
+    /** Return the legal moves of BOARD. */
+    private static int[] legal(Board board) {
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        int n = board.legalMoves(moves);
+        int[] result = new int[n];
+        System.arraycopy(moves, 0, result, 0, n);
+        return result;
+    }
+
+    /** Return the moves a MovePicker supplies for BOARD, given HASHMOVE,
+     *  KILLER1, and KILLER2. */
+    private static List<Integer> pick(Board board, int hashMove,
+                                      int killer1, int killer2) {
+        MovePicker picker = new MovePicker();
+        picker.init(board, hashMove, killer1, killer2);
+        List<Integer> result = new ArrayList<>();
+        for (int move = picker.next(); move != Move.NO_MOVE;
+             move = picker.next()) {
+            result.add(move);
+        }
+        assertEquals(Move.NO_MOVE, picker.next());
+        return result;
+    }
+
+    /** Check that MOVES has no repetitions and contains exactly the
+     *  moves in LEGAL. */
+    private static void checkSame(int[] legal, List<Integer> moves) {
+        Set<Integer> expected = new HashSet<>();
+        for (int move : legal) {
+            expected.add(move);
+        }
+        assertEquals(legal.length, moves.size());
+        assertEquals(expected, new HashSet<>(moves));
+    }
+
+}
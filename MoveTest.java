@@ -50,4 +50,33 @@ public class MoveTest {
         assertEquals("a3-a5-c3-e1-d1-a1",
                 parseMove("a3-a5-c3-e1-d1-a1").toString());
     }
+
+    @Test
+    public void testCode() {
+        Move m = parseMove("a3-a5-c3-e1");
+        int code = m.code();
+        assertEquals(Move.index('a', '3'), Move.codeFrom(code));
+        assertEquals(Move.index('e', '1'), Move.codeTo(code));
+        assertTrue(Move.codeIsJump(code));
+        int captured = (1 << Move.index('a', '4'))
+            | (1 << Move.index('b', '4')) | (1 << Move.index('d', '2'));
+        assertEquals(captured, Move.codeCaptures(code));
+        assertEquals(Move.code(Move.index('a', '3'), Move.index('e', '1'),
+                               captured), code);
+        int step = parseMove("c2-c3").code();
+        assertFalse(Move.codeIsJump(step));
+        assertEquals(0, Move.codeCaptures(step));
+    }
+
+    @Test
+    public void testMirror() {
+        assertEquals(Move.index('e', '2'), Move.mirrorSquare(
+                         Move.index('a', '2')));
+        assertEquals(Move.index('c', '5'), Move.mirrorSquare(
+                         Move.index('c', '5')));
+        int code = parseMove("a3-a5-c3-e1").code();
+        assertEquals(parseMove("e3-e5-c3-a1").code(), Move.mirrorCode(code));
+        assertEquals(code, Move.mirrorCode(Move.mirrorCode(code)));
+        assertEquals(Move.NO_MOVE, Move.mirrorCode(Move.NO_MOVE));
+    }
 }
@@ -0,0 +1,302 @@
+package qirkat;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static qirkat.Network.HIDDEN_SCALE;
+import static qirkat.Network.INPUTS;
+import static qirkat.Network.OUTPUT_SCALE;
+import static qirkat.Network.SQUARES;
+import static qirkat.Network.TO_MOVE;
+import static qirkat.PieceColor.*;
+
+/** Offline training of a Network from the self-play records written by
+ *  'Tuner generate'.  Usage:
+ *  <pre>
+ *      java qirkat.NetTrainer RECORDS NETWORK [HIDDEN [EPOCHS [SEED]]]
+ *  </pre>
+ *  Each position is reduced to the list of its active inputs.  The
+ *  network is then trained in floating point, with the same clipped
+ *  hidden units as Network, by minibatch Adam on the squared difference
+ *  between each game's result and the predicted probability that white
+ *  wins, holding out the last tenth of the positions (whole games, since
+ *  records are written game by game) to report the error on games not
+ *  trained on.  Finally the weights are quantized and
+ *  written to the file NETWORK.
+ *  @author Sarah Jin
+ */
+class NetTrainer {
+
+    /** Default number of hidden units. */
+    static final int DEFAULT_HIDDEN = 32;
+    /** Default number of passes over the training positions. */
+    static final int DEFAULT_EPOCHS = 8;
+    /** The last 1/HOLDOUT of the positions are used only for
+     *  validation. */
+    private static final int HOLDOUT = 10;
+    /** Positions per minibatch. */
+    private static final int BATCH = 256;
+    /** Step size and decay rates of the Adam optimizer. */
+    private static final double RATE = 1e-3, BETA1 = 0.9, BETA2 = 0.999,
+        EPSILON = 1e-8;
+    /** Standard deviation of the initial weights. */
+    private static final double INIT_SCALE = 0.1;
+    /** Most inputs a position can have active: one per square plus the
+     *  side to move. */
+    private static final int MAX_ACTIVE = SQUARES + 1;
+    /** Initial capacity, in positions. */
+    private static final int INITIAL_POSITIONS = 1 << 16;
+
+    /** Train a network as described in the class comment, with
+     *  arguments ARGS. */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 5) {
+            usage();
+        }
+        try {
+            int hidden = args.length > 2 ? Integer.parseInt(args[2])
+                : DEFAULT_HIDDEN;
+            int epochs = args.length > 3 ? Integer.parseInt(args[3])
+                : DEFAULT_EPOCHS;
+            long seed = args.length > 4 ? Long.parseLong(args[4]) : 0;
+            if (hidden <= 0 || hidden > Network.MAX_HIDDEN || epochs < 0) {
+                usage();
+            }
+            NetTrainer trainer = new NetTrainer(hidden, new Random(seed));
+            trainer.load(args[0]);
+            trainer.train(epochs);
+            trainer.quantize().save(args[1]);
+        } catch (IOException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+            System.exit(1);
+        } catch (NumberFormatException excp) {
+            usage();
+        }
+    }
+
+    /** Print a usage message and exit. */
+    private static void usage() {
+        System.err.println("Usage: java qirkat.NetTrainer RECORDS NETWORK"
+                           + " [HIDDEN [EPOCHS [SEED]]]");
+        System.exit(1);
+    }
+
+    /** A trainer for a network with HIDDEN hidden units, using RANDOM
+     *  for initialization and shuffling. */
+    NetTrainer(int hidden, Random random) {
+        _hidden = hidden;
+        _random = random;
+        _biases = INPUTS * hidden;
+        _outputs = _biases + hidden;
+        _outputBias = _outputs + hidden;
+        int n = _outputBias + 1;
+        _weights = new double[n];
+        _grad = new double[n];
+        _m = new double[n];
+        _v = new double[n];
+        for (int i = 0; i < INPUTS * hidden; i += 1) {
+            _weights[i] = random.nextGaussian() * INIT_SCALE;
+        }
+        for (int i = 0; i < hidden; i += 1) {
+            _weights[_outputs + i] = random.nextGaussian() * INIT_SCALE;
+        }
+    }
+
+    /** Read the records in the file named IN. */
+    void load(String in) throws IOException {
+        _inputs = new byte[INITIAL_POSITIONS * MAX_ACTIVE];
+        _sizes = new byte[INITIAL_POSITIONS];
+        _results = new float[INITIAL_POSITIONS];
+        _count = 0;
+        Tuner.readRecords(in, (result, board) -> {
+            if (_count == _results.length) {
+                _inputs = Arrays.copyOf(_inputs, 2 * _count * MAX_ACTIVE);
+                _sizes = Arrays.copyOf(_sizes, 2 * _count);
+                _results = Arrays.copyOf(_results, 2 * _count);
+            }
+            int base = _count * MAX_ACTIVE, n = 0;
+            for (int k = 0; k < SQUARES; k += 1) {
+                PieceColor p = board.get(k);
+                if (p != EMPTY) {
+                    _inputs[base + n] = (byte) Network.input(k, p);
+                    n += 1;
+                }
+            }
+            if (board.whoseMove() == BLACK) {
+                _inputs[base + n] = (byte) TO_MOVE;
+                n += 1;
+            }
+            _sizes[_count] = (byte) n;
+            _results[_count] = result;
+            _count += 1;
+        });
+        System.err.printf("Loaded %d positions.%n", _count);
+    }
+
+    /** Train for EPOCHS passes over the loaded positions. */
+    void train(int epochs) throws IOException {
+        if (_count == 0) {
+            throw new IOException("no positions");
+        }
+        _training = Math.max(1, _count - _count / HOLDOUT);
+        int[] order = new int[_training];
+        for (int i = 0; i < _training; i += 1) {
+            order[i] = i;
+        }
+        double[] hidden = new double[_hidden];
+        for (int epoch = 1; epoch <= epochs; epoch += 1) {
+            shuffle(order);
+            double error = 0.0;
+            for (int start = 0; start < order.length; start += BATCH) {
+                int end = Math.min(order.length, start + BATCH);
+                Arrays.fill(_grad, 0.0);
+                for (int i = start; i < end; i += 1) {
+                    error += backward(order[i], hidden);
+                }
+                step(end - start);
+            }
+            System.err.printf("Epoch %d: training error %.6f,"
+                              + " validation error %.6f%n", epoch,
+                              error / order.length, validationError(hidden));
+        }
+    }
+
+    /** Return the mean squared error on the held-out positions, using
+     *  HIDDEN as scratch space. */
+    private double validationError(double[] hidden) {
+        double error = 0.0;
+        for (int i = _training; i < _count; i += 1) {
+            double diff = sigmoid(forward(i, hidden)) - _results[i];
+            error += diff * diff;
+        }
+        return _count == _training ? 0.0 : error / (_count - _training);
+    }
+
+    /** Return the output (log-odds) of the network for position POS,
+     *  leaving the hidden units' inputs in HIDDEN. */
+    private double forward(int pos, double[] hidden) {
+        double[] w = _weights;
+        int h = _hidden;
+        System.arraycopy(w, _biases, hidden, 0, h);
+        int base = pos * MAX_ACTIVE;
+        for (int j = 0; j < _sizes[pos]; j += 1) {
+            int col = _inputs[base + j] * h;
+            for (int i = 0; i < h; i += 1) {
+                hidden[i] += w[col + i];
+            }
+        }
+        double z = w[_outputBias];
+        for (int i = 0; i < h; i += 1) {
+            z += clip(hidden[i]) * w[_outputs + i];
+        }
+        return z;
+    }
+
+    /** Add the gradient of the squared error on position POS to _grad,
+     *  using HIDDEN as scratch space, and return the error. */
+    private double backward(int pos, double[] hidden) {
+        double[] w = _weights, g = _grad;
+        int h = _hidden;
+        double p = sigmoid(forward(pos, hidden));
+        double diff = p - _results[pos];
+        double dz = 2.0 * diff * p * (1.0 - p);
+        g[_outputBias] += dz;
+        int base = pos * MAX_ACTIVE;
+        for (int i = 0; i < h; i += 1) {
+            g[_outputs + i] += dz * clip(hidden[i]);
+            if (hidden[i] > 0.0 && hidden[i] < 1.0) {
+                double dh = dz * w[_outputs + i];
+                g[_biases + i] += dh;
+                for (int j = 0; j < _sizes[pos]; j += 1) {
+                    g[_inputs[base + j] * h + i] += dh;
+                }
+            }
+        }
+        return diff * diff;
+    }
+
+    /** Take one Adam step with the gradient in _grad, summed over N
+     *  positions. */
+    private void step(int n) {
+        _steps += 1;
+        double c1 = 1 - Math.pow(BETA1, _steps),
+            c2 = 1 - Math.pow(BETA2, _steps);
+        for (int f = 0; f < _weights.length; f += 1) {
+            double g = _grad[f] / n;
+            _m[f] = BETA1 * _m[f] + (1 - BETA1) * g;
+            _v[f] = BETA2 * _v[f] + (1 - BETA2) * g * g;
+            _weights[f] -= RATE * (_m[f] / c1)
+                / (Math.sqrt(_v[f] / c2) + EPSILON);
+        }
+    }
+
+    /** Return my weights as a quantized Network. */
+    Network quantize() {
+        int h = _hidden;
+        short[] inputWeights = new short[INPUTS * h],
+            hiddenBias = new short[h], outputWeights = new short[h];
+        for (int i = 0; i < INPUTS * h; i += 1) {
+            inputWeights[i] = toShort(_weights[i] * HIDDEN_SCALE);
+        }
+        for (int i = 0; i < h; i += 1) {
+            hiddenBias[i] = toShort(_weights[_biases + i] * HIDDEN_SCALE);
+            outputWeights[i] = toShort(_weights[_outputs + i] * OUTPUT_SCALE);
+        }
+        int outputBias = (int) Math.round(_weights[_outputBias]
+                                          * HIDDEN_SCALE * OUTPUT_SCALE);
+        return new Network(h, inputWeights, hiddenBias, outputWeights,
+                           outputBias);
+    }
+
+    /** Return X rounded to the nearest short. */
+    private static short toShort(double x) {
+        return (short) Math.max(Short.MIN_VALUE,
+                                Math.min(Short.MAX_VALUE, Math.round(x)));
+    }
+
+    /** Return X clipped to 0 .. 1, as Network clips its hidden units. */
+    private static double clip(double x) {
+        return Math.min(Math.max(x, 0.0), 1.0);
+    }
+
+    /** Return the logistic function of X. */
+    private static double sigmoid(double x) {
+        return 1.0 / (1.0 + Math.exp(-x));
+    }
+
+    /** Randomly permute A. */
+    private void shuffle(int[] a) {
+        for (int i = a.length - 1; i > 0; i -= 1) {
+            int j = _random.nextInt(i + 1);
+            int t = a[i];
+            a[i] = a[j];
+            a[j] = t;
+        }
+    }
+
+    /** Number of hidden units. */
+    private final int _hidden;
+    /** Index in _weights of the hidden biases, the output weights, and
+     *  the output bias; the input weights, column by column as in
+     *  Network, come first. */
+    private final int _biases, _outputs, _outputBias;
+    /** Source of randomness. */
+    private final Random _random;
+    /** All weights, and the gradient and Adam moments of each. */
+    private final double[] _weights, _grad, _m, _v;
+    /** Number of Adam steps taken. */
+    private int _steps;
+    /** Active inputs of each position, MAX_ACTIVE entries per position
+     *  of which the first _sizes[i] are used. */
+    private byte[] _inputs;
+    /** Number of active inputs of each position. */
+    private byte[] _sizes;
+    /** Result for white of the game from which each position came. */
+    private float[] _results;
+    /** Number of positions loaded. */
+    private int _count;
+    /** Number of positions trained on. */
+    private int _training;
+
+}
@@ -0,0 +1,305 @@
+package qirkat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import static qirkat.PieceColor.*;
+
+/** A small neural-network evaluation function, an alternative to
+ *  Evaluator.  Its inputs are 50 piece-square features (one for each
+ *  color on each square) plus the side to move; they feed one hidden
+ *  layer of clipped linear units and then a single output, the log-odds
+ *  that white wins.  The weights are quantized to 16-bit integers, and
+ *  the first-layer sums over the piece-square features are kept in an
+ *  Accumulator that a Board updates as pieces come and go, so that an
+ *  evaluation costs only the hidden layer and the output.
+ *  <p>
+ *  The inner loops are plain counted loops over primitive arrays, the
+ *  form HotSpot compiles to SIMD instructions where the processor has
+ *  them.
+ *  <p>
+ *  Networks are trained by NetTrainer and stored in the binary format
+ *  written by write.  If the resource qirkat/network.bin exists, it is
+ *  the standard network, which AIs use by default.
+ *  @author Sarah Jin
+ */
+class Network {
+
+    /** Number of squares. */
+    static final int SQUARES = Move.MAX_INDEX + 1;
+    /** Input number of the side-to-move feature, which is 1 when black
+     *  is to move.  Inputs 0 .. SQUARES-1 are white pieces and the next
+     *  SQUARES black pieces. */
+    static final int TO_MOVE = 2 * SQUARES;
+    /** Number of inputs. */
+    static final int INPUTS = TO_MOVE + 1;
+    /** Quantized value of 1.0 for first-layer weights and hidden-unit
+     *  outputs, which are clipped to 0 .. HIDDEN_SCALE. */
+    static final int HIDDEN_SCALE = 127;
+    /** Quantized value of 1.0 for output weights. */
+    static final int OUTPUT_SCALE = 64;
+    /** Evaluation units per unit of log-odds, chosen to put scores on
+     *  roughly the scale of Evaluator's. */
+    static final int UNITS_PER_LOGIT = 100;
+    /** First word of a network file. */
+    static final int MAGIC = 0x514e_4e31;
+    /** Largest number of hidden units accepted. */
+    static final int MAX_HIDDEN = 1024;
+    /** Name of the standard network's resource. */
+    static final String RESOURCE = "qirkat/network.bin";
+
+    /** A network with HIDDEN hidden units, weights INPUTWEIGHTS (INPUTS
+     *  columns of HIDDEN, one column per input), hidden-unit biases
+     *  HIDDENBIAS, output weights OUTPUTWEIGHTS, and output bias
+     *  OUTPUTBIAS, all quantized as described above. */
+    Network(int hidden, short[] inputWeights, short[] hiddenBias,
+            short[] outputWeights, int outputBias) {
+        if (hidden <= 0 || hidden > MAX_HIDDEN
+            || inputWeights.length != INPUTS * hidden
+            || hiddenBias.length != hidden
+            || outputWeights.length != hidden) {
+            throw new IllegalArgumentException("bad network shape");
+        }
+        _hidden = hidden;
+        _inputWeights = inputWeights.clone();
+        _hiddenBias = hiddenBias.clone();
+        _outputWeights = outputWeights.clone();
+        _outputBias = outputBias;
+    }
+
+    /** Return my number of hidden units. */
+    int hidden() {
+        return _hidden;
+    }
+
+    /** Return the input number of a piece of color P on square K. */
+    static int input(int k, PieceColor p) {
+        return p == WHITE ? k : SQUARES + k;
+    }
+
+    /** Return a new Accumulator for me, holding the sums for an empty
+     *  board. */
+    Accumulator newAccumulator() {
+        return new Accumulator();
+    }
+
+    /** Return the value of BOARD, positive if it favors white,
+     *  computed from scratch. */
+    int score(Board board) {
+        Accumulator acc = new Accumulator();
+        acc.refresh(board);
+        return acc.score(board.whoseMove());
+    }
+
+    /** Read a network from IN, in the format produced by write. */
+    static Network read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a network file");
+        }
+        int hidden = in.readInt();
+        if (hidden <= 0 || hidden > MAX_HIDDEN) {
+            throw new IOException("bad hidden-layer size: " + hidden);
+        }
+        short[] inputWeights = readShorts(in, INPUTS * hidden),
+            hiddenBias = readShorts(in, hidden),
+            outputWeights = readShorts(in, hidden);
+        return new Network(hidden, inputWeights, hiddenBias,
+                           outputWeights, in.readInt());
+    }
+
+    /** Return the next N shorts from IN. */
+    private static short[] readShorts(DataInputStream in, int n)
+        throws IOException {
+        short[] result = new short[n];
+        for (int i = 0; i < n; i += 1) {
+            result[i] = in.readShort();
+        }
+        return result;
+    }
+
+    /** Write me to OUT: MAGIC, the number of hidden units, the input
+     *  weights column by column, the hidden biases, the output weights
+     *  (all as shorts), and the output bias, all big-endian. */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(_hidden);
+        for (short[] a : new short[][] {
+                _inputWeights, _hiddenBias, _outputWeights }) {
+            for (short w : a) {
+                out.writeShort(w);
+            }
+        }
+        out.writeInt(_outputBias);
+    }
+
+    /** Return a checksum of my weights in the format produced by
+     *  write, which identifies me among networks that score positions
+     *  differently. */
+    long fingerprint() {
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(
+                 new CheckedOutputStream(OutputStream.nullOutputStream(),
+                                         crc))) {
+            write(out);
+        } catch (IOException excp) {
+            throw new Error("Internal failure: " + excp.getMessage());
+        }
+        return crc.getValue();
+    }
+
+    /** Return the network in the file named NAME. */
+    static Network load(String name) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                 new BufferedInputStream(new FileInputStream(name)))) {
+            return read(in);
+        }
+    }
+
+    /** Write me to the file named NAME. */
+    void save(String name) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                 new BufferedOutputStream(new FileOutputStream(name)))) {
+            write(out);
+        }
+    }
+
+    /** Return the standard network, or null if there is none. */
+    static synchronized Network standard() {
+        if (!_standardLoaded) {
+            _standardLoaded = true;
+            InputStream in =
+                Network.class.getClassLoader().getResourceAsStream(RESOURCE);
+            if (in != null) {
+                try (DataInputStream data = new DataInputStream(
+                         new BufferedInputStream(in))) {
+                    _standard = read(data);
+                } catch (IOException excp) {
+                    System.err.printf("Bad network %s: %s%n", RESOURCE,
+                                      excp.getMessage());
+                }
+            }
+        }
+        return _standard;
+    }
+
+    /** Make NET the standard network (none if null). */
+    static synchronized void setStandard(Network net) {
+        _standardLoaded = true;
+        _standard = net;
+    }
+
+    /** The first-layer sums of my hidden units over the piece-square
+     *  inputs of one position, kept up to date by a Board (see
+     *  Board.setAccumulator) as pieces are placed and removed. */
+    class Accumulator {
+
+        /** An accumulator for an empty board. */
+        Accumulator() {
+            _sums = new int[_hidden];
+            _active = new int[_hidden];
+            clear();
+        }
+
+        /** Reset me to the sums for an empty board. */
+        void clear() {
+            for (int i = 0; i < _hidden; i += 1) {
+                _sums[i] = _hiddenBias[i];
+            }
+        }
+
+        /** Set me to the sums for the pieces on BOARD. */
+        void refresh(Board board) {
+            clear();
+            for (int k = 0; k < SQUARES; k += 1) {
+                PieceColor p = board.get(k);
+                if (p != EMPTY) {
+                    add(input(k, p));
+                }
+            }
+        }
+
+        /** Record that square K has changed from OLD to NOW. */
+        void update(int k, PieceColor old, PieceColor now) {
+            if (old != EMPTY) {
+                subtract(input(k, old));
+            }
+            if (now != EMPTY) {
+                add(input(k, now));
+            }
+        }
+
+        /** Add the column of input F to my sums. */
+        private void add(int f) {
+            int[] sums = _sums;
+            short[] w = _inputWeights;
+            int base = f * _hidden;
+            for (int i = 0; i < sums.length; i += 1) {
+                sums[i] += w[base + i];
+            }
+        }
+
+        /** Subtract the column of input F from my sums. */
+        private void subtract(int f) {
+            int[] sums = _sums;
+            short[] w = _inputWeights;
+            int base = f * _hidden;
+            for (int i = 0; i < sums.length; i += 1) {
+                sums[i] -= w[base + i];
+            }
+        }
+
+        /** Return the value, positive if it favors white, of the position
+         *  whose pieces I sum, with TOMOVE to move. */
+        int score(PieceColor toMove) {
+            int[] sums = _sums, active = _active;
+            short[] w = _inputWeights, out = _outputWeights;
+            int base = toMove == BLACK ? TO_MOVE * _hidden : -1;
+            if (base >= 0) {
+                for (int i = 0; i < sums.length; i += 1) {
+                    active[i] = sums[i] + w[base + i];
+                }
+            } else {
+                System.arraycopy(sums, 0, active, 0, sums.length);
+            }
+            int total = _outputBias;
+            for (int i = 0; i < active.length; i += 1) {
+                int a = Math.min(Math.max(active[i], 0), HIDDEN_SCALE);
+                total += a * out[i];
+            }
+            return (int) ((long) total * UNITS_PER_LOGIT
+                          / (HIDDEN_SCALE * OUTPUT_SCALE));
+        }
+
+        /** First-layer sums, including the biases. */
+        private final int[] _sums;
+        /** Scratch space for the hidden-unit inputs during score. */
+        private final int[] _active;
+    }
+
+    /** Number of hidden units. */
+    private final int _hidden;
+    /** Weights from the inputs to the hidden units, the HIDDEN weights
+     *  from input F starting at F * HIDDEN. */
+    private final short[] _inputWeights;
+    /** Hidden-unit biases. */
+    private final short[] _hiddenBias;
+    /** Weights from the hidden units to the output. */
+    private final short[] _outputWeights;
+    /** Output bias, scaled by HIDDEN_SCALE * OUTPUT_SCALE. */
+    private final int _outputBias;
+
+    /** The standard network, if _standardLoaded. */
+    private static Network _standard;
+    /** True once _standard has been looked up. */
+    private static boolean _standardLoaded;
+
+}
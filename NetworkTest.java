@@ -0,0 +1,46 @@
+package qirkat;
+
+import java.util.Random;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the Network class.
+ *  @author Sarah Jin
+ */
+public class NetworkTest {
+
+    @Test
+    public void testNetworkAccumulator() {
+        int hidden = 8;
+        Random random = new Random(1);
+        short[] inputs = new short[Network.INPUTS * hidden];
+        short[] bias = new short[hidden], out = new short[hidden];
+        for (int i = 0; i < inputs.length; i += 1) {
+            inputs[i] = (short) (random.nextInt(65) - 32);
+        }
+        for (int i = 0; i < hidden; i += 1) {
+            bias[i] = (short) random.nextInt(64);
+            out[i] = (short) (random.nextInt(129) - 64);
+        }
+        Network net = new Network(hidden, inputs, bias, out, 0);
+        Network.Accumulator acc = net.newAccumulator();
+        Board b0 = new Board();
+        b0.setAccumulator(acc);
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        for (int ply = 0; ply < 12; ply += 1) {
+            int n = b0.legalMoves(moves);
+            if (n == 0) {
+                break;
+            }
+            for (int i = 0; i < n; i += 1) {
+                int undo = b0.play(moves[i]);
+                assertEquals(net.score(b0), acc.score(b0.whoseMove()));
+                b0.retract(moves[i], undo);
+            }
+            b0.play(moves[random.nextInt(n)]);
+            assertEquals(net.score(b0), acc.score(b0.whoseMove()));
+        }
+    }
+
+}
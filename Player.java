@@ -31,6 +31,17 @@ abstract class Player {
      *  board.whoseMove() == myColor and that !board.gameOver(). */
     abstract Move myMove();
 
+    /** Start thinking in the background about BOARD, on which my
+     *  opponent is to move, until stopPondering is called.  By default,
+     *  does nothing. */
+    void ponder(Board board) {
+    }
+
+    /** Stop any thinking begun by ponder, returning when it has
+     *  stopped. */
+    void stopPondering() {
+    }
+
     /** The game I am playing in. */
     private final Game _game;
     /** The color of my pieces. */
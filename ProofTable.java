@@ -0,0 +1,149 @@
+package qirkat;
+
+/** A table of proof and disproof numbers for Solver, indexed by
+ *  position key (see Board.canonicalKey) and kept in parallel primitive
+ *  arrays.  Slots are grouped in buckets of BUCKET; a new entry goes into
+ *  an empty slot of its bucket if there is one, and otherwise replaces
+ *  the entry whose subtree took the least work to search.  When the
+ *  table is more than GC_LOAD full, gc removes the entries for the
+ *  smallest subtrees, which are the cheapest to recompute, until at most
+ *  GC_TARGET of it is in use.
+ *  @author Sarah Jin
+ */
+class ProofTable {
+
+    /** Slots per bucket. */
+    static final int BUCKET = 4;
+    /** Fraction of slots in use that triggers garbage collection. */
+    static final double GC_LOAD = 0.75;
+    /** Fraction of slots in use after garbage collection. */
+    static final double GC_TARGET = 0.5;
+    /** Denominator of hashfull. */
+    private static final int PER_MILLE = 1000;
+
+    /** An empty table with 2**LOG2SIZE slots, which must be at least
+     *  BUCKET. */
+    ProofTable(int log2Size) {
+        int size = 1 << log2Size;
+        if (size < BUCKET) {
+            throw new IllegalArgumentException("table too small");
+        }
+        _mask = size - 1;
+        _keys = new long[size];
+        _phis = new int[size];
+        _deltas = new int[size];
+        _works = new int[size];
+        clear();
+    }
+
+    /** Remove all entries. */
+    void clear() {
+        for (int i = 0; i <= _mask; i += 1) {
+            _keys[i] = 0;
+            _works[i] = 0;
+        }
+        _used = 0;
+        _collections = 0;
+    }
+
+    /** Return the number of slots in use. */
+    int used() {
+        return _used;
+    }
+
+    /** Return the number of slots in use per thousand. */
+    int hashfull() {
+        return (int) ((long) _used * PER_MILLE / (_mask + 1));
+    }
+
+    /** Return the number of garbage collections since the last
+     *  clear. */
+    int collections() {
+        return _collections;
+    }
+
+    /** Return the slot holding the entry for the position with key KEY,
+     *  or -1 if there is none. */
+    int probe(long key) {
+        int bucket = (int) key & _mask & -BUCKET;
+        for (int slot = bucket; slot < bucket + BUCKET; slot += 1) {
+            if (_keys[slot] == key && _works[slot] > 0) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** Return the proof number stored in SLOT, for the player to move
+     *  in its position. */
+    int phi(int slot) {
+        return _phis[slot];
+    }
+
+    /** Return the disproof number stored in SLOT. */
+    int delta(int slot) {
+        return _deltas[slot];
+    }
+
+    /** Return the number of nodes searched to compute SLOT (at least
+     *  1). */
+    int work(int slot) {
+        return _works[slot];
+    }
+
+    /** Record that the position with key KEY has proof number PHI and
+     *  disproof number DELTA, found by searching WORK nodes. */
+    void store(long key, int phi, int delta, int work) {
+        int bucket = (int) key & _mask & -BUCKET;
+        int victim = bucket;
+        for (int slot = bucket; slot < bucket + BUCKET; slot += 1) {
+            if (_works[slot] == 0 || _keys[slot] == key) {
+                victim = slot;
+                break;
+            }
+            if (_works[slot] < _works[victim]) {
+                victim = slot;
+            }
+        }
+        if (_works[victim] == 0) {
+            _used += 1;
+        }
+        _keys[victim] = key;
+        _phis[victim] = phi;
+        _deltas[victim] = delta;
+        _works[victim] = Math.max(1, work);
+        if (_used > GC_LOAD * (_mask + 1)) {
+            gc();
+        }
+    }
+
+    /** Remove the entries with the least work until at most GC_TARGET
+     *  of the table is in use. */
+    void gc() {
+        _collections += 1;
+        for (int cutoff = 1; _used > GC_TARGET * (_mask + 1);
+             cutoff = cutoff > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE
+                 : 2 * cutoff) {
+            for (int i = 0; i <= _mask; i += 1) {
+                if (_works[i] > 0 && _works[i] <= cutoff) {
+                    _works[i] = 0;
+                    _used -= 1;
+                }
+            }
+        }
+    }
+
+    /** Mask extracting a slot number from a key. */
+    private final int _mask;
+    /** The key of the position in each slot. */
+    private final long[] _keys;
+    /** The proof and disproof numbers in each slot. */
+    private final int[] _phis, _deltas;
+    /** The work of each slot, or 0 if it is empty. */
+    private final int[] _works;
+    /** The number of slots in use. */
+    private int _used;
+    /** The number of garbage collections. */
+    private int _collections;
+
+}
@@ -0,0 +1,342 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static qirkat.PieceColor.*;
+
+/** A line-oriented protocol through which another program (a GUI or a
+ *  tournament manager) drives the engine, modeled on UCI.  There are no
+ *  prompts, boards, or other chatter: each input line is one command,
+ *  and the engine writes only the replies below.
+ *  <pre>
+ *  uci             Reply with "id name ...", "id author ...", an
+ *                  "option name N type check default B" line for
+ *                  each selective-search technique N (see
+ *                  AI.Selectivity), where B is true or false, and
+ *                  "uciok".
+ *  isready         Reply "readyok", at once, even while searching.
+ *  setoption name N value V
+ *                  Turn technique N on (V is true or on) or off.
+ *  ucinewgame      Forget the results of earlier searches.
+ *  position startpos [moves M ...]
+ *  position set SIDE SQUARES [moves M ...]
+ *                  Set up the initial position, or the position given
+ *                  as for the 'set' command, then play the moves M,
+ *                  each written as in "bestmove" lines.
+ *  go [depth D] [movetime MSEC] [nodes N] [infinite]
+ *                  Search the current position in the background,
+ *                  within the given limits, of which there may be any
+ *                  number (none means until 'stop'), and reply
+ *                  "bestmove M", or "bestmove none" if there is no
+ *                  legal move.  After each depth, an "info depth ..."
+ *                  line gives the depth, nodes, time, value, and
+ *                  principal variation, as for 'analyze'.  With
+ *                  'infinite' or no limits, the reply waits for 'stop'
+ *                  even if the search ends sooner.
+ *  stop            End the search, which replies at once.
+ *  quit            Stop searching and exit.
+ *  </pre>
+ *  Unknown commands and bad operands are answered by "info string"
+ *  lines.  Output is buffered: replies that the other program waits
+ *  for (uciok, readyok, bestmove, and errors) are flushed at once, and
+ *  info lines only along with them or every FLUSH_INTERVAL
+ *  milliseconds, so that a fast search costs one write per move.
+ *  @author Sarah Jin
+ */
+class Protocol implements Reporter {
+
+    /** The engine's name. */
+    static final String NAME = "Qirkat 2.0";
+    /** Log2 of the number of entries in the transposition table. */
+    static final int TABLE_BITS = 20;
+    /** Longest time that info lines are held before being flushed, in
+     *  milliseconds. */
+    static final long FLUSH_INTERVAL = 500;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MSEC = 1_000_000;
+
+    /** A protocol session writing to OUT and keeping the transposition
+     *  table in the file named TABLEFILE between sessions, if it is not
+     *  null (see Game.setTableFile). */
+    Protocol(PrintWriter out, String tableFile) {
+        _out = out;
+        _tableFile = tableFile;
+        _table = new TranspositionTable(TABLE_BITS);
+        _ai = new AI(null, WHITE, Evaluator.STANDARD, Network.standard(),
+                     _table);
+    }
+
+    /** Execute the commands read from IN until 'quit' or the end of
+     *  input. */
+    void run(BufferedReader in) throws IOException {
+        if (_tableFile != null && Files.exists(Paths.get(_tableFile))) {
+            try {
+                _table.load(_tableFile, _ai.fingerprint());
+            } catch (IOException excp) {
+                errMsg("ignoring table %s: %s", _tableFile,
+                       excp.getMessage());
+            }
+        }
+        try {
+            for (String line = in.readLine(); line != null;
+                 line = in.readLine()) {
+                String[] words = line.trim().split("\\s+");
+                if (words[0].equals("quit")) {
+                    break;
+                }
+                try {
+                    execute(words);
+                } catch (IllegalArgumentException excp) {
+                    errMsg("%s", excp.getMessage());
+                }
+            }
+        } finally {
+            stopSearch();
+            _searcher.shutdown();
+            if (_tableFile != null) {
+                _table.save(_tableFile, _ai.fingerprint());
+            }
+            flush();
+        }
+    }
+
+    /** Execute the command whose words are WORDS, throwing an
+     *  IllegalArgumentException if it is erroneous. */
+    private void execute(String[] words) {
+        switch (words[0]) {
+        case "":
+            break;
+        case "uci":
+            println("id name " + NAME);
+            println("id author Sarah Jin");
+            for (AI.Selectivity s : AI.Selectivity.values()) {
+                println("option name " + s + " type check default "
+                        + _ai.selectivity().contains(s));
+            }
+            respond("uciok");
+            break;
+        case "isready":
+            respond("readyok");
+            break;
+        case "setoption":
+            setOption(words);
+            break;
+        case "ucinewgame":
+            stopSearch();
+            _ai.clear();
+            break;
+        case "position":
+            stopSearch();
+            position(words);
+            break;
+        case "go":
+            stopSearch();
+            go(words);
+            break;
+        case "stop":
+            stopSearch();
+            break;
+        default:
+            throw new IllegalArgumentException("unknown command: "
+                                               + words[0]);
+        }
+    }
+
+    /** Perform 'setoption name N value V', whose words are WORDS. */
+    private void setOption(String[] words) {
+        if (words.length != 5 || !words[1].equals("name")
+            || !words[3].equals("value")) {
+            throw new IllegalArgumentException("bad setoption");
+        }
+        AI.Selectivity technique = AI.Selectivity.parse(words[2]);
+        if (technique == null) {
+            throw new IllegalArgumentException("unknown option: "
+                                               + words[2]);
+        }
+        Set<AI.Selectivity> techniques = _ai.selectivity();
+        switch (words[4].toLowerCase()) {
+        case "true":
+        case "on":
+            techniques.add(technique);
+            break;
+        case "false":
+        case "off":
+            techniques.remove(technique);
+            break;
+        default:
+            throw new IllegalArgumentException("bad value: " + words[4]);
+        }
+        _ai.setSelectivity(techniques);
+    }
+
+    /** Perform the 'position' command whose words are WORDS.  Leaves the
+     *  position unchanged if there is an error. */
+    private void position(String[] words) {
+        Board board = new Board();
+        int movesAt = Arrays.asList(words).indexOf("moves");
+        int end = movesAt < 0 ? words.length : movesAt;
+        if (words.length >= 4 && words[1].equals("set")) {
+            PieceColor side = words[2].equalsIgnoreCase("white") ? WHITE
+                : words[2].equalsIgnoreCase("black") ? BLACK : EMPTY;
+            String squares =
+                String.join("", Arrays.copyOfRange(words, 3, end));
+            board.setPieces(squares, side);
+        } else if (end != 2 || !words[1].equals("startpos")) {
+            throw new IllegalArgumentException("bad position");
+        }
+        for (int i = end + 1; i < words.length; i += 1) {
+            int code = Move.parseMove(words[i]).code();
+            if (!board.isLegal(code)
+                || !board.toMove(code).toString().equals(words[i])) {
+                throw new IllegalArgumentException("illegal move: "
+                                                   + words[i]);
+            }
+            board.makeMove(code);
+        }
+        _board = board;
+    }
+
+    /** Perform the 'go' command whose words are WORDS. */
+    private void go(String[] words) {
+        int depth = Batch.UNLIMITED_DEPTH;
+        long msec = 0, nodes = 0;
+        boolean infinite = words.length == 1;
+        for (int i = 1; i < words.length; i += 1) {
+            String limit = words[i];
+            if (limit.equals("infinite")) {
+                infinite = true;
+                continue;
+            } else if (i + 1 == words.length) {
+                throw new IllegalArgumentException("missing value for "
+                                                   + limit);
+            }
+            i += 1;
+            long value = Long.parseLong(words[i]);
+            if (value <= 0) {
+                throw new IllegalArgumentException("bad value for "
+                                                   + limit);
+            }
+            switch (limit) {
+            case "depth":
+                depth = (int) Math.min(value, Batch.UNLIMITED_DEPTH);
+                break;
+            case "movetime":
+                msec = value;
+                break;
+            case "nodes":
+                nodes = value;
+                break;
+            default:
+                throw new IllegalArgumentException("unknown limit: "
+                                                   + limit);
+            }
+        }
+        Board board = new Board(_board);
+        int maxDepth = depth;
+        boolean untilStop = infinite;
+        _control.start(msec, nodes);
+        _search = _searcher.submit(() -> {
+            Move move = board.hasLegalMove()
+                ? _ai.findMove(board, maxDepth, _control, this) : null;
+            if (untilStop) {
+                flush();
+                _control.awaitCancel();
+            }
+            respond("bestmove " + (move == null ? "none" : move));
+            return null;
+        });
+    }
+
+    /** Stop the current search, if any, and wait for its reply. */
+    private void stopSearch() {
+        if (_search == null) {
+            return;
+        }
+        _control.cancel();
+        try {
+            _search.get();
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException excp) {
+            errMsg("search failed: %s", excp.getCause());
+        }
+        _search = null;
+    }
+
+    /** Write LINE, to be flushed later. */
+    private synchronized void println(String line) {
+        _out.println(line);
+    }
+
+    /** Write LINE and flush all output. */
+    private synchronized void respond(String line) {
+        _out.println(line);
+        flush();
+    }
+
+    /** Flush all output. */
+    private synchronized void flush() {
+        _out.flush();
+        _lastFlush = System.nanoTime();
+    }
+
+    @Override
+    public void errMsg(String format, Object... args) {
+        respond("info string " + String.format(format, args));
+    }
+
+    @Override
+    public void outcomeMsg(String format, Object... args) {
+        println("info string " + String.format(format, args));
+    }
+
+    @Override
+    public void moveMsg(String format, Object... args) {
+        println("info string " + String.format(format, args));
+    }
+
+    @Override
+    public synchronized void infoMsg(String format, Object... args) {
+        _out.println(String.format(format, args));
+        if (System.nanoTime() - _lastFlush
+            >= FLUSH_INTERVAL * NANOS_PER_MSEC) {
+            flush();
+        }
+    }
+
+    /** Where replies go. */
+    private final PrintWriter _out;
+    /** Time of the last flush of _out, as from System.nanoTime. */
+    private long _lastFlush = System.nanoTime();
+    /** File holding the transposition table between sessions, or
+     *  null. */
+    private final String _tableFile;
+    /** The engine's transposition table. */
+    private final TranspositionTable _table;
+    /** The engine. */
+    private final AI _ai;
+    /** The current position. */
+    private Board _board = new Board();
+    /** Runs searches, one at a time. */
+    private final ExecutorService _searcher =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "search");
+            t.setDaemon(true);
+            return t;
+        });
+    /** Controls the current search. */
+    private final SearchControl _control = new SearchControl();
+    /** The current search, or null if there is none. */
+    private Future<?> _search;
+
+}
@@ -0,0 +1,105 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the Protocol class.
+ *  @author Sarah Jin
+ */
+public class ProtocolTest {
+
+    /** Time between input lines in testInfinite, in milliseconds. */
+    private static final long PAUSE = 50;
+
+    @Test
+    public void testGo() throws IOException {
+        String[] lines = run("isready\n"
+                             + "position startpos moves c2-c3\n"
+                             + "go depth 3 nodes 100000\n"
+                             + "quit\n");
+        assertEquals("readyok", lines[0]);
+        assertTrue(lines[1].startsWith("info depth 1 "));
+        assertEquals("bestmove ", lines[lines.length - 1].substring(0, 9));
+        assertFalse(lines[lines.length - 1].contains("none"));
+    }
+
+    @Test
+    public void testBadMoves() throws IOException {
+        String[] lines = run("position startpos moves c2-c3 a5-a4\n"
+                             + "position startpos moves c2-c3-c4\n"
+                             + "position startpos moves c2-c3\n"
+                             + "go depth 1\n");
+        assertEquals("info string illegal move: a5-a4", lines[0]);
+        assertEquals("info string illegal move: c2-c3-c4", lines[1]);
+        assertTrue(lines[2].startsWith("info depth 1 "));
+        assertEquals("bestmove ", lines[3].substring(0, 9));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        String[] lines = run("bogus\n"
+                             + "go depth\n"
+                             + "position set white -----\n"
+                             + "setoption name lmr value maybe\n"
+                             + "isready\n");
+        assertEquals("info string unknown command: bogus", lines[0]);
+        assertEquals("info string missing value for depth", lines[1]);
+        assertEquals("info string bad board description", lines[2]);
+        assertEquals("info string bad value: maybe", lines[3]);
+        assertEquals("readyok", lines[4]);
+    }
+
+    @Test
+    public void testInfinite() throws IOException {
+        String position = "position set white ----- ----- ----- ----- "
+            + "----b\n";
+        String[] lines = run(position
+                             + "go infinite\n"
+                             + "isready\n"
+                             + "stop\n"
+                             + "go\n"
+                             + "isready\n"
+                             + "stop\n"
+                             + "go depth 2 infinite\n"
+                             + "isready\n"
+                             + "quit\n", PAUSE);
+        assertArrayEquals(new String[] {
+                "readyok", "bestmove none", "readyok", "bestmove none",
+                "readyok", "bestmove none"
+            }, lines);
+        lines = run(position + "go depth 2\n" + "isready\n", PAUSE);
+        assertArrayEquals(new String[] { "bestmove none", "readyok" },
+                          lines);
+    }
+
+    /** Return the lines written by a Protocol given the input IN. */
+    private static String[] run(String in) throws IOException {
+        return run(in, 0);
+    }
+
+    /** Return the lines written by a Protocol given the input IN, each
+     *  line of which arrives PAUSE milliseconds after the last. */
+    private static String[] run(String in, long pause) throws IOException {
+        StringWriter out = new StringWriter();
+        BufferedReader input = new BufferedReader(new StringReader(in)) {
+            @Override
+            public String readLine() throws IOException {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException excp) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.readLine();
+            }
+        };
+        new Protocol(new PrintWriter(out), null).run(input);
+        return out.toString().split("\\R");
+    }
+
+}
@@ -17,4 +17,9 @@ interface Reporter {
      *  formed from FORMAT and OPERANDS as for String.format. */
     void moveMsg(String format, Object... operands);
 
+    /** Display a progress or analysis message from an engine, formed
+     *  from FORMAT and OPERANDS as for String.format.  May be called
+     *  from any thread. */
+    void infoMsg(String format, Object... operands);
+
 }
@@ -0,0 +1,79 @@
+package qirkat;
+
+/** A cancellation token and time limit for one search.  Another thread
+ *  may cancel the search at any time; the search itself polls
+ *  shouldStop, every POLL_INTERVAL nodes or so, and on seeing true
+ *  unwinds and returns the best result it has completed.
+ *  @author Sarah Jin
+ */
+class SearchControl {
+
+    /** Number of nodes a search may visit between polls.  A power of
+     *  two. */
+    static final int POLL_INTERVAL = 1024;
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MSEC = 1_000_000;
+
+    /** A control that has not been cancelled and has no time limit. */
+    SearchControl() {
+        start(0);
+    }
+
+    /** Prepare for a new search that may run for at most MSEC
+     *  milliseconds from now, or without limit if MSEC is 0. */
+    void start(long msec) {
+        start(msec, 0);
+    }
+
+    /** Prepare for a new search that may run for at most MSEC
+     *  milliseconds from now and visit at most NODES nodes, where 0
+     *  means no limit. */
+    void start(long msec, long nodes) {
+        _deadline = msec > 0 ? System.nanoTime() + msec * NANOS_PER_MSEC
+            : 0;
+        _maxNodes = nodes;
+        _cancelled = false;
+    }
+
+    /** Ask the current search to stop as soon as possible. */
+    synchronized void cancel() {
+        _cancelled = true;
+        notifyAll();
+    }
+
+    /** Wait until cancel has been called since the last start. */
+    synchronized void awaitCancel() throws InterruptedException {
+        while (!_cancelled) {
+            wait();
+        }
+    }
+
+    /** Return true iff cancel has been called since the last start. */
+    boolean cancelled() {
+        return _cancelled;
+    }
+
+    /** Return true iff the current search should stop: it has been
+     *  cancelled or has run out of time. */
+    boolean shouldStop() {
+        return _cancelled
+            || (_deadline != 0 && System.nanoTime() - _deadline >= 0);
+    }
+
+    /** Return true iff the current search, which has visited NODES
+     *  nodes, should stop: shouldStop() is true or it has reached its
+     *  node limit. */
+    boolean shouldStop(long nodes) {
+        return shouldStop() || (_maxNodes != 0 && nodes >= _maxNodes);
+    }
+
+    /** True iff the search has been cancelled. */
+    private volatile boolean _cancelled;
+    /** Value of System.nanoTime at which the search must stop, or 0 for
+     *  no limit. */
+    private volatile long _deadline;
+    /** Largest number of nodes the search may visit, or 0 for no
+     *  limit. */
+    private volatile long _maxNodes;
+
+}
@@ -0,0 +1,240 @@
+package qirkat;
+
+/** Counters describing the work done by one or more searches.  The
+ *  counters are plain fields so that the search can bump them without
+ *  synchronization; each thread that searches must use its own
+ *  SearchStats, and combine them with add afterwards.
+ *  @author Sarah Jin
+ */
+class SearchStats {
+
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MSEC = 1_000_000;
+    /** Nanoseconds per second. */
+    private static final double NANOS_PER_SEC = 1e9;
+    /** Percent. */
+    private static final double PERCENT = 100.0;
+
+    /** Reset all counters in preparation for a search to DEPTH plies. */
+    void start(int depth) {
+        _searches = 1;
+        _depth = depth;
+        _selDepth = 0;
+        _nodes = _leaves = _cutoffs = _firstMoveCutoffs = 0;
+        _ttProbes = _ttHits = 0;
+        _nullMoves = _nullCutoffs = _reductions = _researches = 0;
+        _futile = 0;
+        _ebfSum = 0.0;
+        _elapsed = 0;
+        _startTime = System.nanoTime();
+    }
+
+    /** Record the end of the search begun by the last start. */
+    void stop() {
+        _elapsed = System.nanoTime() - _startTime;
+        _ebfSum = branchingFactor(_nodes, _depth);
+    }
+
+    /** Add the counts in OTHER to mine. */
+    void add(SearchStats other) {
+        _searches += other._searches;
+        _depth = Math.max(_depth, other._depth);
+        _selDepth = Math.max(_selDepth, other._selDepth);
+        _nodes += other._nodes;
+        _leaves += other._leaves;
+        _cutoffs += other._cutoffs;
+        _firstMoveCutoffs += other._firstMoveCutoffs;
+        _ttProbes += other._ttProbes;
+        _ttHits += other._ttHits;
+        _nullMoves += other._nullMoves;
+        _nullCutoffs += other._nullCutoffs;
+        _reductions += other._reductions;
+        _researches += other._researches;
+        _futile += other._futile;
+        _ebfSum += other._ebfSum;
+        _elapsed += other._elapsed;
+    }
+
+    /** Record a visit to a node PLY plies from the root. */
+    void node(int ply) {
+        _nodes += 1;
+        if (ply > _selDepth) {
+            _selDepth = ply;
+        }
+    }
+
+    /** Record a static evaluation. */
+    void leaf() {
+        _leaves += 1;
+    }
+
+    /** Record a beta cutoff caused by the MOVENUM'th move (numbered
+     *  from 0) searched at a node. */
+    void cutoff(int moveNum) {
+        _cutoffs += 1;
+        if (moveNum == 0) {
+            _firstMoveCutoffs += 1;
+        }
+    }
+
+    /** Record a transposition-table probe, which succeeded iff HIT. */
+    void ttProbe(boolean hit) {
+        _ttProbes += 1;
+        if (hit) {
+            _ttHits += 1;
+        }
+    }
+
+    /** Record a null-move search, which produced a cutoff iff
+     *  CUTOFF. */
+    void nullMove(boolean cutoff) {
+        _nullMoves += 1;
+        if (cutoff) {
+            _nullCutoffs += 1;
+        }
+    }
+
+    /** Record a move searched to reduced depth, which had to be
+     *  searched again to full depth iff RESEARCHED. */
+    void reduction(boolean researched) {
+        _reductions += 1;
+        if (researched) {
+            _researches += 1;
+        }
+    }
+
+    /** Record a move skipped by futility pruning. */
+    void futile() {
+        _futile += 1;
+    }
+
+    /** Return the number of null-move searches. */
+    long nullMoves() {
+        return _nullMoves;
+    }
+
+    /** Return the number of null-move searches that caused a cutoff. */
+    long nullCutoffs() {
+        return _nullCutoffs;
+    }
+
+    /** Return the number of moves searched to reduced depth. */
+    long reductions() {
+        return _reductions;
+    }
+
+    /** Return the number of reduced moves searched again. */
+    long researches() {
+        return _researches;
+    }
+
+    /** Return the number of moves pruned as futile. */
+    long futilePrunes() {
+        return _futile;
+    }
+
+    /** Return the number of nodes visited. */
+    long nodes() {
+        return _nodes;
+    }
+
+    /** Return the number of static evaluations. */
+    long leaves() {
+        return _leaves;
+    }
+
+    /** Return the number of beta cutoffs. */
+    long cutoffs() {
+        return _cutoffs;
+    }
+
+    /** Return the deepest ply reached. */
+    int selDepth() {
+        return _selDepth;
+    }
+
+    /** Return elapsed search time in nanoseconds. */
+    long elapsedNanos() {
+        return _elapsed;
+    }
+
+    /** Return the time since the last start, in nanoseconds. */
+    long runningNanos() {
+        return System.nanoTime() - _startTime;
+    }
+
+    /** Return nodes searched per second. */
+    long nodesPerSecond() {
+        return _elapsed == 0 ? 0
+            : (long) (_nodes * NANOS_PER_SEC / _elapsed);
+    }
+
+    /** Return the percentage of cutoffs that came from the first move
+     *  searched. */
+    double firstMoveCutoffRate() {
+        return _cutoffs == 0 ? 0.0 : PERCENT * _firstMoveCutoffs / _cutoffs;
+    }
+
+    /** Return the effective branching factor (the mean over all
+     *  searches, if I am an aggregate). */
+    double branchingFactor() {
+        return _searches == 0 ? 0.0 : _ebfSum / _searches;
+    }
+
+    /** Return the effective branching factor of a search of DEPTH plies
+     *  that visited NODES nodes: the B for which a uniform tree of depth
+     *  DEPTH and branching factor B has NODES nodes. */
+    static double branchingFactor(long nodes, int depth) {
+        if (depth <= 0 || nodes <= 1) {
+            return 0.0;
+        }
+        return Math.pow(nodes, 1.0 / depth);
+    }
+
+    /** Return my counters as a sequence of KEY=VALUE fields. */
+    @Override
+    public String toString() {
+        return String.format("depth=%d seldepth=%d nodes=%d leaves=%d "
+                             + "nps=%d cutoffs=%d fmc=%.1f%% ebf=%.2f "
+                             + "tthits=%d/%d null=%d/%d lmr=%d/%d "
+                             + "futile=%d msec=%d",
+                             _depth, _selDepth, _nodes, _leaves,
+                             nodesPerSecond(), _cutoffs,
+                             firstMoveCutoffRate(), branchingFactor(),
+                             _ttHits, _ttProbes, _nullCutoffs, _nullMoves,
+                             _researches, _reductions, _futile,
+                             _elapsed / NANOS_PER_MSEC);
+    }
+
+    /** Number of searches counted. */
+    private int _searches;
+    /** Nominal search depth (maximum, for an aggregate). */
+    private int _depth;
+    /** Deepest ply actually reached. */
+    private int _selDepth;
+    /** Nodes visited. */
+    private long _nodes;
+    /** Static evaluations performed. */
+    private long _leaves;
+    /** Beta cutoffs. */
+    private long _cutoffs;
+    /** Beta cutoffs produced by the first move tried. */
+    private long _firstMoveCutoffs;
+    /** Transposition-table probes. */
+    private long _ttProbes;
+    /** Transposition-table probes that found an entry. */
+    private long _ttHits;
+    /** Null-move searches, and those that caused cutoffs. */
+    private long _nullMoves, _nullCutoffs;
+    /** Moves searched to reduced depth, and those searched again. */
+    private long _reductions, _researches;
+    /** Moves pruned as futile. */
+    private long _futile;
+    /** Sum of the effective branching factors of all searches. */
+    private double _ebfSum;
+    /** Total elapsed time in nanoseconds. */
+    private long _elapsed;
+    /** Value of System.nanoTime() at the start of the last search. */
+    private long _startTime;
+
+}
@@ -0,0 +1,80 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the SearchStats class.
+ *  @author Sarah Jin
+ */
+public class SearchStatsTest {
+
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MSEC = 1_000_000;
+    /** Time slept during a search in testTiming, in milliseconds. */
+    private static final long SLEEP = 20;
+
+    @Test
+    public void testCounts() {
+        SearchStats stats = new SearchStats();
+        stats.start(4);
+        stats.node(1);
+        stats.node(3);
+        stats.node(2);
+        stats.leaf();
+        stats.cutoff(0);
+        stats.cutoff(2);
+        stats.reduction(false);
+        stats.reduction(true);
+        stats.nullMove(true);
+        stats.futile();
+        assertEquals(3, stats.nodes());
+        assertEquals(3, stats.selDepth());
+        assertEquals(1, stats.leaves());
+        assertEquals(2, stats.cutoffs());
+        assertEquals(50.0, stats.firstMoveCutoffRate(), 1e-9);
+        assertEquals(2, stats.reductions());
+        assertEquals(1, stats.researches());
+        assertEquals(1, stats.nullMoves());
+        assertEquals(1, stats.nullCutoffs());
+        assertEquals(1, stats.futilePrunes());
+
+        stats.start(2);
+        assertEquals(0, stats.nodes());
+        assertEquals(0, stats.selDepth());
+        assertEquals(0, stats.cutoffs());
+        assertEquals(0.0, stats.firstMoveCutoffRate(), 0.0);
+    }
+
+    @Test
+    public void testTiming() throws InterruptedException {
+        SearchStats stats = new SearchStats();
+        stats.start(2);
+        for (int i = 0; i < 16; i += 1) {
+            stats.node(1);
+        }
+        assertEquals(0, stats.elapsedNanos());
+        assertEquals(0, stats.nodesPerSecond());
+        Thread.sleep(SLEEP);
+        assertTrue(stats.runningNanos() >= SLEEP * NANOS_PER_MSEC);
+        stats.stop();
+        long elapsed = stats.elapsedNanos();
+        assertTrue(elapsed >= SLEEP * NANOS_PER_MSEC);
+        assertEquals((long) (16 * 1e9 / elapsed), stats.nodesPerSecond());
+        assertEquals(4.0, stats.branchingFactor(), 1e-9);
+
+        SearchStats total = new SearchStats();
+        total.add(stats);
+        total.add(stats);
+        assertEquals(32, total.nodes());
+        assertEquals(2 * elapsed, total.elapsedNanos());
+        assertEquals(4.0, total.branchingFactor(), 1e-9);
+    }
+
+    @Test
+    public void testBranchingFactor() {
+        assertEquals(2.0, SearchStats.branchingFactor(16, 4), 1e-9);
+        assertEquals(0.0, SearchStats.branchingFactor(1, 4), 0.0);
+        assertEquals(0.0, SearchStats.branchingFactor(100, 0), 0.0);
+    }
+
+}
@@ -0,0 +1,231 @@
+package qirkat;
+
+import java.util.Arrays;
+
+/** A solver that tries to prove or disprove that the player to move can
+ *  force a win, by depth-first proof-number search (df-pn).  Each node
+ *  has, from the point of view of the player to move there, a proof
+ *  number PHI (roughly, how many more leaves must be proven to show
+ *  that player wins) and a disproof number DELTA; a node's PHI is the
+ *  least DELTA of its children, and its DELTA the sum of their PHIs.
+ *  The search always descends into the most-proving child, with
+ *  thresholds that tell it when to come back, and keeps the numbers of
+ *  the nodes it has finished with in a ProofTable.
+ *  <p>
+ *  A player with no legal move loses.  A position that repeats one on
+ *  the current line, or lies more than MAX_PATH plies from the root, is
+ *  taken to be a draw, and so not a win for the player to move at the
+ *  root; thus "disproven" means that player cannot force a win.  As
+ *  usual with df-pn, results for positions reached along different
+ *  lines can depend on which line first found them, so in rare cases
+ *  involving repetitions a disproof may be wrong; proofs are not
+ *  affected.
+ *  @author Sarah Jin
+ */
+class Solver {
+
+    /** Results of solve: the player to move wins, does not, or it is
+     *  not known. */
+    static final int PROVEN = 1, DISPROVEN = -1, UNKNOWN = 0;
+    /** Proof and disproof numbers at least this large are infinite. */
+    static final int INFINITY = 1 << 30;
+    /** Longest line searched. */
+    static final int MAX_PATH = 200;
+
+    /** A solver whose table has 2**LOG2SIZE entries. */
+    Solver(int log2Size) {
+        _table = new ProofTable(log2Size);
+    }
+
+    /** Try to solve BOARD, which is not modified, searching at most
+     *  MAXNODES nodes, or until CONTROL says to stop.  Return PROVEN if
+     *  the player to move can force a win, DISPROVEN if not, and UNKNOWN
+     *  if the search ended first.  Starts with an empty table, since
+     *  what counts as a draw depends on who is to move at the root. */
+    int solve(Board board, long maxNodes, SearchControl control) {
+        Board b = new Board(board);
+        _table.clear();
+        _maxNodes = maxNodes;
+        _control = control;
+        _nodes = 0;
+        _abort = false;
+        _lineLength = 0;
+        long key = b.canonicalKey();
+        if (!b.hasLegalMove()) {
+            _table.store(key, INFINITY, 0, 1);
+        } else {
+            mid(b, key, INFINITY, INFINITY, 0);
+        }
+        int slot = _table.probe(key);
+        if (slot >= 0 && _table.phi(slot) == 0) {
+            findLine(b);
+            return PROVEN;
+        } else if (slot >= 0 && _table.delta(slot) == 0) {
+            return DISPROVEN;
+        }
+        return UNKNOWN;
+    }
+
+    /** Return the number of nodes searched by the last solve. */
+    long nodes() {
+        return _nodes;
+    }
+
+    /** Return my table. */
+    ProofTable table() {
+        return _table;
+    }
+
+    /** Return the winning line found by the last solve that returned
+     *  PROVEN, as move codes, starting with the winner's move.  It ends
+     *  when the loser has no move, or, if some of the proof has been
+     *  lost from the table, sooner. */
+    int[] line() {
+        return Arrays.copyOf(_line, _lineLength);
+    }
+
+    /** Expand the node for BOARD, whose canonical key is KEY, at PLY
+     *  plies from the root, until its PHI reaches THPHI or its DELTA
+     *  reaches THDELTA, and store its numbers. */
+    private void mid(Board board, long key, int thPhi, int thDelta,
+                     int ply) {
+        long start = _nodes;
+        _nodes += 1;
+        if (_nodes >= _maxNodes
+            || ((_nodes & (SearchControl.POLL_INTERVAL - 1)) == 0
+                && _control.shouldStop())) {
+            _abort = true;
+        }
+        int[] moves = _moves[ply];
+        long[] keys = _childKeys[ply];
+        int n = board.legalMoves(moves);
+        for (int i = 0; i < n; i += 1) {
+            int undo = board.play(moves[i]);
+            keys[i] = board.canonicalKey();
+            if (_table.probe(keys[i]) < 0 && !board.hasLegalMove()) {
+                _table.store(keys[i], INFINITY, 0, 1);
+            }
+            board.retract(moves[i], undo);
+        }
+        _path[ply] = key;
+        int phi, delta;
+        while (true) {
+            phi = INFINITY;
+            delta = 0;
+            int best = -1, bestPhi = 0, delta2 = INFINITY;
+            for (int i = 0; i < n; i += 1) {
+                int cPhi, cDelta;
+                if (isDraw(keys[i], ply + 1)) {
+                    boolean attacker = (ply & 1) == 1;
+                    cPhi = attacker ? INFINITY : 0;
+                    cDelta = attacker ? 0 : INFINITY;
+                } else {
+                    int slot = _table.probe(keys[i]);
+                    cPhi = slot < 0 ? 1 : _table.phi(slot);
+                    cDelta = slot < 0 ? 1 : _table.delta(slot);
+                }
+                delta = (int) Math.min(INFINITY, (long) delta + cPhi);
+                if (cDelta < phi) {
+                    delta2 = phi;
+                    phi = cDelta;
+                    best = i;
+                    bestPhi = cPhi;
+                } else if (cDelta < delta2) {
+                    delta2 = cDelta;
+                }
+            }
+            if (phi >= thPhi || delta >= thDelta || _abort) {
+                break;
+            }
+            long childPhi = (long) thDelta + bestPhi - delta;
+            int childDelta = Math.min(thPhi,
+                                      delta2 >= INFINITY ? INFINITY
+                                      : delta2 + 1);
+            int undo = board.play(moves[best]);
+            mid(board, keys[best],
+                (int) Math.min(INFINITY, childPhi), childDelta, ply + 1);
+            board.retract(moves[best], undo);
+        }
+        long work = _nodes - start;
+        _table.store(key, phi, delta,
+                     (int) Math.min(Integer.MAX_VALUE, work));
+    }
+
+    /** Return true iff the position with key KEY, at PLY plies from the
+     *  root, counts as a draw: it is too deep, or repeats a position on
+     *  the current line. */
+    private boolean isDraw(long key, int ply) {
+        if (ply >= MAX_PATH) {
+            return true;
+        }
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (_path[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Set _line to the winning line from BOARD, which has been
+     *  proven, following the table: the winner plays a move to a
+     *  disproven position, and the loser the move whose proof took the
+     *  most work.  BOARD is left unchanged. */
+    private void findLine(Board board) {
+        int[] undos = new int[MAX_PATH];
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        _lineLength = 0;
+        while (_lineLength < MAX_PATH) {
+            boolean winner = (_lineLength & 1) == 0;
+            int n = board.legalMoves(moves);
+            int choice = Move.NO_MOVE, most = -1;
+            for (int i = 0; i < n; i += 1) {
+                int undo = board.play(moves[i]);
+                int slot = _table.probe(board.canonicalKey());
+                board.retract(moves[i], undo);
+                if (slot < 0) {
+                    continue;
+                }
+                if (winner && _table.delta(slot) == 0) {
+                    choice = moves[i];
+                    break;
+                } else if (!winner && _table.phi(slot) == 0
+                           && _table.work(slot) > most) {
+                    choice = moves[i];
+                    most = _table.work(slot);
+                }
+            }
+            if (choice == Move.NO_MOVE) {
+                break;
+            }
+            _line[_lineLength] = choice;
+            undos[_lineLength] = board.play(choice);
+            _lineLength += 1;
+        }
+        for (int i = _lineLength - 1; i >= 0; i -= 1) {
+            board.retract(_line[i], undos[i]);
+        }
+    }
+
+    /** Proof and disproof numbers found so far. */
+    private final ProofTable _table;
+    /** The legal moves at each ply of the current line. */
+    private final int[][] _moves = new int[MAX_PATH][MovePicker.MAX_MOVES];
+    /** The canonical keys of the positions after each of _moves. */
+    private final long[][] _childKeys =
+        new long[MAX_PATH][MovePicker.MAX_MOVES];
+    /** The canonical keys of the positions on the current line. */
+    private final long[] _path = new long[MAX_PATH];
+    /** The winning line found by the last solve, and its length. */
+    private final int[] _line = new int[MAX_PATH];
+    /** See _line. */
+    private int _lineLength;
+    /** Node budget of the current solve. */
+    private long _maxNodes;
+    /** Nodes searched by the current solve. */
+    private long _nodes;
+    /** Controls the current solve. */
+    private SearchControl _control;
+    /** True once the current solve must stop. */
+    private boolean _abort;
+
+}
@@ -0,0 +1,33 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the Solver class.
+ *  @author Sarah Jin
+ */
+public class SolverTest {
+
+    @Test
+    public void testSolver() {
+        Solver solver = new Solver(16);
+        Board b0 = new Board();
+        b0.setPieces("----- ----- --w-- --b-- -----", PieceColor.BLACK);
+        assertEquals(Solver.PROVEN,
+                     solver.solve(b0, 1000, new SearchControl()));
+        assertArrayEquals(new int[] { Move.code(17, 7, 1 << 12) },
+                          solver.line());
+        b0.setPieces("ww--- ----- ----- ---bb -----", PieceColor.WHITE);
+        assertEquals(Solver.PROVEN,
+                     solver.solve(b0, 1000000, new SearchControl()));
+        for (int code : solver.line()) {
+            assertTrue(b0.isLegal(code));
+            b0.play(code);
+        }
+        assertFalse(b0.hasLegalMove());
+        b0.setPieces("-w-w- ----- ----- b-b-b -----", PieceColor.WHITE);
+        assertEquals(Solver.DISPROVEN,
+                     solver.solve(b0, 1000000, new SearchControl()));
+    }
+
+}
@@ -0,0 +1,165 @@
+package qirkat;
+
+/** A sequential probability ratio test of whether one player is
+ *  stronger than another, fed with the results of pairs of games played
+ *  from the same opening with colors swapped.  Each pair scores 0 to 4
+ *  half-points for the first player.  The pair scores are treated as
+ *  samples of a distribution with mean S, the first player's expected
+ *  score per game, and the test weighs the hypothesis H0 that S is the
+ *  expected score of an Elo difference ELO0 against H1 that it is that
+ *  of ELO1, using the normal approximation of the generalized SPRT:
+ *  the log-likelihood ratio of N pairs with mean M and variance V is
+ *  N (S1 - S0) (2M - S0 - S1) / 2V.  H1 is accepted once it reaches
+ *  log((1 - BETA) / ALPHA), and H0 once it falls to
+ *  log(BETA / (1 - ALPHA)), where ALPHA and BETA are the probabilities
+ *  of accepting H1 wrongly and H0 wrongly.  Treating pairs rather than
+ *  games as the samples accounts for the correlation between the two
+ *  games of a pair, which makes the test stop sooner.
+ *  @author Sarah Jin
+ */
+class Sprt {
+
+    /** Results of status: H0 or H1 accepted, or no decision yet. */
+    static final int H0 = -1, H1 = 1, CONTINUE = 0;
+    /** Half-points per pair. */
+    static final int PAIR_POINTS = 4;
+    /** Multiple of the standard error giving a 95% confidence
+     *  interval. */
+    private static final double Z95 = 1.96;
+    /** Elo points per factor of 10 in the odds of winning. */
+    private static final double ELO_SCALE = 400.0;
+    /** Scores are kept this far from 0 and 1 when converted to Elo. */
+    private static final double MIN_SCORE = 1e-6;
+
+    /** A test of H0: the Elo difference is ELO0, against H1: it is
+     *  ELO1, with error probabilities ALPHA and BETA. */
+    Sprt(double elo0, double elo1, double alpha, double beta) {
+        _s0 = expectedScore(elo0);
+        _s1 = expectedScore(elo1);
+        _lower = Math.log(beta / (1 - alpha));
+        _upper = Math.log((1 - beta) / alpha);
+    }
+
+    /** Record a pair of games in which the first player scored POINTS
+     *  half-points. */
+    void addPair(int points) {
+        if (points < 0 || points > PAIR_POINTS) {
+            throw new IllegalArgumentException("bad pair score");
+        }
+        _pairs[points] += 1;
+    }
+
+    /** Return the number of pairs recorded in which the first player
+     *  scored POINTS half-points. */
+    long pairs(int points) {
+        return _pairs[points];
+    }
+
+    /** Return the number of pairs recorded. */
+    long pairs() {
+        long n = 0;
+        for (long count : _pairs) {
+            n += count;
+        }
+        return n;
+    }
+
+    /** Return the first player's mean score per game so far. */
+    double score() {
+        long n = pairs();
+        if (n == 0) {
+            return 0.5;
+        }
+        double sum = 0;
+        for (int p = 0; p <= PAIR_POINTS; p += 1) {
+            sum += _pairs[p] * p;
+        }
+        return sum / (n * PAIR_POINTS);
+    }
+
+    /** Return the variance of the pair scores (each divided by
+     *  PAIR_POINTS) so far. */
+    private double variance() {
+        long n = pairs();
+        if (n == 0) {
+            return 0;
+        }
+        double mean = score(), sum = 0;
+        for (int p = 0; p <= PAIR_POINTS; p += 1) {
+            double d = (double) p / PAIR_POINTS - mean;
+            sum += _pairs[p] * d * d;
+        }
+        return sum / n;
+    }
+
+    /** Return the estimated Elo difference between the first player and
+     *  the second. */
+    double elo() {
+        return elo(score());
+    }
+
+    /** Return the half-width, in Elo, of a 95% confidence interval for
+     *  elo(). */
+    double eloError() {
+        long n = pairs();
+        if (n == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double err = Z95 * Math.sqrt(variance() / n), s = score();
+        return (elo(s + err) - elo(s - err)) / 2;
+    }
+
+    /** Return the log-likelihood ratio of H1 to H0 so far. */
+    double llr() {
+        double var = variance();
+        if (var == 0) {
+            return 0;
+        }
+        return pairs() * (_s1 - _s0) * (2 * score() - _s0 - _s1)
+            / (2 * var);
+    }
+
+    /** Return the value of llr at or below which H0 is accepted. */
+    double lowerBound() {
+        return _lower;
+    }
+
+    /** Return the value of llr at or above which H1 is accepted. */
+    double upperBound() {
+        return _upper;
+    }
+
+    /** Return H0 or H1 if that hypothesis has been accepted, and
+     *  otherwise CONTINUE. */
+    int status() {
+        double llr = llr();
+        return llr >= _upper ? H1 : llr <= _lower ? H0 : CONTINUE;
+    }
+
+    /** Return the expected score per game of a player ELO points
+     *  stronger than its opponent. */
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / ELO_SCALE));
+    }
+
+    /** Return the Elo difference for expected score S. */
+    static double elo(double s) {
+        s = Math.min(Math.max(s, MIN_SCORE), 1 - MIN_SCORE);
+        return -ELO_SCALE * Math.log10(1 / s - 1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("elo %+.1f +- %.1f llr %.2f (%.2f, %.2f)",
+                             elo(), eloError(), llr(), _lower, _upper);
+    }
+
+    /** Expected scores under H0 and H1. */
+    private final double _s0, _s1;
+    /** Bounds on llr for accepting H0 and H1. */
+    private final double _lower, _upper;
+    /** _pairs[p] is the number of pairs in which the first player scored
+     *  p half-points. */
+    private final long[] _pairs = new long[PAIR_POINTS + 1];
+
+}
@@ -0,0 +1,42 @@
+package qirkat;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the Sprt class.
+ *  @author Sarah Jin
+ */
+public class SprtTest {
+
+    @Test
+    public void testSprt() {
+        assertEquals(0.0, Sprt.elo(0.5), 1e-9);
+        assertEquals(0.7, Sprt.expectedScore(Sprt.elo(0.7)), 1e-9);
+        Sprt better = new Sprt(0, 10, 0.05, 0.05),
+            worse = new Sprt(0, 10, 0.05, 0.05);
+        int[] pattern = { 4, 3, 2, 3, 1, 2 };
+        for (int i = 0; i < 2000
+                 && (better.status() == Sprt.CONTINUE
+                     || worse.status() == Sprt.CONTINUE); i += 1) {
+            better.addPair(pattern[i % pattern.length]);
+            worse.addPair(Sprt.PAIR_POINTS - pattern[i % pattern.length]);
+        }
+        assertEquals(Sprt.H1, better.status());
+        assertEquals(Sprt.H0, worse.status());
+        assertEquals(-better.elo(), worse.elo(), 1e-9);
+        assertTrue(better.elo() > better.eloError());
+    }
+
+    @Test
+    public void testEmpty() {
+        Sprt test = new Sprt(0, 10, 0.05, 0.05);
+        assertEquals(0, test.pairs());
+        assertEquals(0.5, test.score(), 1e-9);
+        assertEquals(Sprt.CONTINUE, test.status());
+        test.addPair(2);
+        test.addPair(2);
+        assertEquals(2, test.pairs(2));
+        assertEquals(0.0, test.llr(), 1e-9);
+    }
+
+}
@@ -16,14 +16,17 @@ public class TestBoard extends Board {
         set(mov.toIndex(), super.whoseMove());
         set(mov.fromIndex(), EMPTY);
         set(mov.jumpedCol(), mov.jumpedRow(), EMPTY);
-        setChanged();
-        notifyObservers();
     }
-    /** return M.*/
+    /** Return a continuation of the jump M by the piece that made it,
+     *  or null if it cannot jump again. */
     Move returnNextJump(Move m) {
         makeMove(m);
         if (canJump(super.whoseMove())) {
-            return findlegalmoves(this, super.whoseMove()).get(0);
+            for (Move x : findlegalmoves(this, super.whoseMove())) {
+                if (x.isJump() && x.fromIndex() == m.toIndex()) {
+                    return x;
+                }
+            }
         }
         return null;
     }
@@ -23,5 +23,10 @@ class TextReporter implements Reporter {
         System.out.println();
     }
 
+    @Override
+    public void infoMsg(String format, Object... args) {
+        System.out.println(String.format(format, args));
+    }
+
 }
 
@@ -0,0 +1,228 @@
+package qirkat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/** A table of search results indexed by position key (see Board.key),
+ *  kept off the Java heap in one direct buffer of fixed-size entries,
+ *  so that it holds no objects and can be written to and read from a
+ *  file as it stands.  Each slot holds one entry; a new entry replaces
+ *  an old one for a different position, and replaces one for the same
+ *  position unless the old one came from a deeper search.
+ *  <p>
+ *  A saved table begins with a header giving MAGIC, VERSION, the size of
+ *  the table, a fingerprint of the evaluation function that produced
+ *  the values (supplied by the caller), and a CRC-32 checksum of the
+ *  entries, all little-endian like the entries themselves; load rejects
+ *  a file whose header does not match.
+ *  <p>
+ *  A table does no locking, and an entry is written one field at a
+ *  time, so searches that share a table must not run at once: an entry
+ *  read while another thread writes it could pair one position's key
+ *  with another's value and bound.
+ *  @author Sarah Jin
+ */
+class TranspositionTable {
+
+    /** Bound types: the stored value is exact, a lower bound (the search
+     *  failed high), or an upper bound (it failed low). */
+    static final int EXACT = 0, LOWER = 1, UPPER = 2;
+    /** First word of a saved table. */
+    static final int MAGIC = 0x5154_5431;
+    /** Version of the format of saved tables and of their entries. */
+    static final int VERSION = 1;
+    /** Largest Log2 of the number of slots. */
+    static final int MAX_LOG2_SIZE = 26;
+    /** Denominator of hashfull. */
+    private static final int PER_MILLE = 1000;
+
+    /** Offsets in the header of the magic number, version, log2 of the
+     *  size, fingerprint, and checksum, and the size of the header. */
+    private static final int MAGIC_OFFSET = 0, VERSION_OFFSET = 4,
+        SIZE_OFFSET = 8, FINGERPRINT_OFFSET = 16, CHECKSUM_OFFSET = 24,
+        HEADER = 32;
+    /** Offsets in an entry of the key, best move, value, depth plus one
+     *  (0 for an empty slot), and bound type, and the size of an
+     *  entry. */
+    private static final int KEY = 0, MOVE = 8, VALUE = 12, DEPTH = 16,
+        BOUND = 17, ENTRY = 20;
+
+    /** An empty table with 2**LOG2SIZE slots. */
+    TranspositionTable(int log2Size) {
+        if (log2Size < 0 || log2Size > MAX_LOG2_SIZE) {
+            throw new IllegalArgumentException("bad table size");
+        }
+        _log2Size = log2Size;
+        _mask = (1 << log2Size) - 1;
+        _buffer = ByteBuffer.allocateDirect(HEADER + (_mask + 1) * ENTRY)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Remove all entries. */
+    void clear() {
+        int i;
+        for (i = HEADER; i + Long.BYTES <= _buffer.capacity();
+             i += Long.BYTES) {
+            _buffer.putLong(i, 0);
+        }
+        for (; i < _buffer.capacity(); i += 1) {
+            _buffer.put(i, (byte) 0);
+        }
+    }
+
+    /** Return the number of the first (up to) 1000 slots that are in
+     *  use, an estimate of how full the table is in parts per
+     *  thousand. */
+    int hashfull() {
+        int sample = Math.min(PER_MILLE, _mask + 1), used = 0;
+        for (int i = 0; i < sample; i += 1) {
+            if (_buffer.get(offset(i) + DEPTH) != 0) {
+                used += 1;
+            }
+        }
+        return used * PER_MILLE / sample;
+    }
+
+    /** Return the slot holding the entry for the position with key KEY,
+     *  or -1 if there is none. */
+    int probe(long key) {
+        int slot = (int) key & _mask, e = offset(slot);
+        return _buffer.getLong(e + KEY) == key && _buffer.get(e + DEPTH) != 0
+            ? slot : -1;
+    }
+
+    /** Return the best move stored in SLOT. */
+    int move(int slot) {
+        return _buffer.getInt(offset(slot) + MOVE);
+    }
+
+    /** Return the value stored in SLOT. */
+    int value(int slot) {
+        return _buffer.getInt(offset(slot) + VALUE);
+    }
+
+    /** Return the depth of the search that stored SLOT. */
+    int depth(int slot) {
+        return _buffer.get(offset(slot) + DEPTH) - 1;
+    }
+
+    /** Return the bound type (EXACT, LOWER, or UPPER) of SLOT. */
+    int bound(int slot) {
+        return _buffer.get(offset(slot) + BOUND);
+    }
+
+    /** Record that a search of DEPTH plies from the position with key
+     *  KEY produced VALUE, of bound type BOUND, with best move MOVE
+     *  (Move.NO_MOVE if unknown). */
+    void store(long key, int depth, int value, int bound, int move) {
+        int slot = (int) key & _mask, e = offset(slot);
+        if (_buffer.getLong(e + KEY) == key
+            && _buffer.get(e + DEPTH) > depth + 1) {
+            return;
+        }
+        _buffer.putLong(e + KEY, key);
+        _buffer.put(e + DEPTH, (byte) (depth + 1));
+        _buffer.putInt(e + VALUE, value);
+        _buffer.put(e + BOUND, (byte) bound);
+        _buffer.putInt(e + MOVE, move);
+    }
+
+    /** Write me to the file named NAME, recording that my values come
+     *  from the evaluation function with fingerprint FINGERPRINT.  The
+     *  file is replaced only once it has been written completely. */
+    void save(String name, long fingerprint) throws IOException {
+        Path path = Paths.get(name).toAbsolutePath();
+        Path temp = Files.createTempFile(path.getParent(), ".qirkat", null);
+        try {
+            _buffer.putInt(MAGIC_OFFSET, MAGIC);
+            _buffer.putInt(VERSION_OFFSET, VERSION);
+            _buffer.putInt(SIZE_OFFSET, _log2Size);
+            _buffer.putLong(FINGERPRINT_OFFSET, fingerprint);
+            _buffer.putLong(CHECKSUM_OFFSET, checksum());
+            try (FileChannel out = FileChannel.open(
+                     temp, StandardOpenOption.WRITE)) {
+                ByteBuffer all = _buffer.duplicate();
+                all.clear();
+                while (all.hasRemaining()) {
+                    out.write(all);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /** Replace my entries with those in the file named NAME, which must
+     *  have been saved by a table of my size for the evaluation function
+     *  with fingerprint FINGERPRINT.  If not, or if the file is damaged,
+     *  throws an IOException and leaves me empty. */
+    void load(String name, long fingerprint) throws IOException {
+        clear();
+        try (FileChannel in = FileChannel.open(Paths.get(name),
+                                               StandardOpenOption.READ)) {
+            if (in.size() != _buffer.capacity()) {
+                throw new IOException("wrong size for a table of 2^"
+                                      + _log2Size + " entries");
+            }
+            ByteBuffer all = _buffer.duplicate();
+            all.clear();
+            while (all.hasRemaining()) {
+                if (in.read(all) < 0) {
+                    throw new IOException("file truncated");
+                }
+            }
+            if (_buffer.getInt(MAGIC_OFFSET) != MAGIC
+                || _buffer.getInt(VERSION_OFFSET) != VERSION
+                || _buffer.getInt(SIZE_OFFSET) != _log2Size) {
+                throw new IOException("not a table of this version"
+                                      + " and size");
+            }
+            if (_buffer.getLong(FINGERPRINT_OFFSET) != fingerprint) {
+                throw new IOException("table is for another evaluation");
+            }
+            if (_buffer.getLong(CHECKSUM_OFFSET) != checksum()) {
+                throw new IOException("bad checksum");
+            }
+        } catch (NoSuchFileException excp) {
+            throw new IOException("no such file");
+        } catch (IOException excp) {
+            clear();
+            throw excp;
+        }
+    }
+
+    /** Return the CRC-32 checksum of my entries. */
+    private long checksum() {
+        CRC32 crc = new CRC32();
+        ByteBuffer entries = _buffer.duplicate();
+        entries.clear();
+        entries.position(HEADER);
+        crc.update(entries);
+        return crc.getValue();
+    }
+
+    /** Return the position in _buffer of the entry for SLOT. */
+    private static int offset(int slot) {
+        return HEADER + slot * ENTRY;
+    }
+
+    /** Log2 of the number of slots. */
+    private final int _log2Size;
+    /** Mask that reduces a key to a slot number. */
+    private final int _mask;
+    /** A header (filled in only when saving) followed by the entry for
+     *  each slot. */
+    private final ByteBuffer _buffer;
+
+}
@@ -0,0 +1,59 @@
+package qirkat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of the TranspositionTable class.
+ *  @author Sarah Jin
+ */
+public class TranspositionTableTest {
+
+    @Test
+    public void testTableSaveLoad() throws IOException {
+        final long fingerprint = 42;
+        TranspositionTable t0 = new TranspositionTable(4);
+        t0.store(3, 7, -100, TranspositionTable.LOWER, Move.code(0, 1, 0));
+        t0.store(21, 0, 5, TranspositionTable.EXACT, Move.NO_MOVE);
+        File file = File.createTempFile("qirkat", ".tt");
+        try {
+            t0.save(file.getPath(), fingerprint);
+            TranspositionTable t1 = new TranspositionTable(4);
+            assertTrue(loads(t1, file, fingerprint));
+            int slot = t1.probe(3);
+            assertTrue(slot >= 0);
+            assertEquals(7, t1.depth(slot));
+            assertEquals(-100, t1.value(slot));
+            assertEquals(TranspositionTable.LOWER, t1.bound(slot));
+            assertEquals(Move.code(0, 1, 0), t1.move(slot));
+            assertEquals(0, t1.depth(t1.probe(21)));
+            assertEquals(-1, t1.probe(5));
+            assertFalse(loads(t1, file, fingerprint + 1));
+            assertEquals(-1, t1.probe(3));
+            assertFalse(loads(new TranspositionTable(5), file, fingerprint));
+            try (RandomAccessFile f = new RandomAccessFile(file, "rw")) {
+                f.seek(f.length() - 1);
+                f.write(1);
+            }
+            assertFalse(loads(t1, file, fingerprint));
+        } finally {
+            file.delete();
+        }
+    }
+
+    /** Return true iff TABLE successfully loads FILE, saved for
+     *  FINGERPRINT. */
+    private static boolean loads(TranspositionTable table, File file,
+                                 long fingerprint) {
+        try {
+            table.load(file.getPath(), fingerprint);
+            return true;
+        } catch (IOException excp) {
+            return false;
+        }
+    }
+
+}
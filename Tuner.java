@@ -0,0 +1,332 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static qirkat.Evaluator.NUM_FEATURES;
+import static qirkat.PieceColor.*;
+
+/** Offline fitting of the weights of Evaluator to game outcomes
+ *  (Texel's method).  Usage:
+ *  <pre>
+ *      java qirkat.Tuner generate GAMES RECORDS [SEED]
+ *      java qirkat.Tuner tune RECORDS WEIGHTS
+ *  </pre>
+ *  The first plays GAMES games of the AI against itself, in parallel,
+ *  and writes every position after the opening to RECORDS, one per line,
+ *  as "RESULT SIDE SQUARES": the eventual score for white (1, 0.5, or
+ *  0), the player to move, and the 25 squares as for 'set'.
+ *  <p>
+ *  The second reads such records, reduces each position to its feature
+ *  vector (see Evaluator.features) in one primitive array, and then,
+ *  with no Board in sight, finds the weights that minimize the mean
+ *  squared difference between each result and the win probability
+ *  1 / (1 + exp(-K * score)) predicted from the position's score.  K is
+ *  first fitted with the starting weights and then held fixed, which
+ *  fixes the scale of the weights.  The error and its gradient are
+ *  summed over the positions with parallel streams.  The weights are
+ *  written to WEIGHTS, for installation as qirkat/weights.txt.
+ *  @author Sarah Jin
+ */
+class Tuner {
+
+    /** Search depth of self-play games. */
+    private static final int GAME_DEPTH = 3;
+    /** Number of random plies that open each self-play game. */
+    private static final int RANDOM_PLIES = 16;
+    /** Number of positions per parallel work unit. */
+    private static final int CHUNK = 1 << 14;
+    /** Maximum number of optimization steps. */
+    private static final int MAX_STEPS = 3000;
+    /** Optimization stops when the error improves less than this over
+     *  PATIENCE steps. */
+    private static final double TOLERANCE = 1e-9;
+    /** See TOLERANCE. */
+    private static final int PATIENCE = 100;
+    /** Step size and decay rates of the Adam optimizer. */
+    private static final double RATE = 0.5, BETA1 = 0.9, BETA2 = 0.999,
+        EPSILON = 1e-8;
+    /** Range of K searched, and number of ternary-search rounds. */
+    private static final double MIN_K = 1e-4, MAX_K = 1e-1;
+    /** See MIN_K. */
+    private static final int K_ROUNDS = 60;
+    /** Initial capacity, in positions. */
+    private static final int INITIAL_POSITIONS = 1 << 16;
+
+    /** Run the tuner as described in the class comment, with arguments
+     *  ARGS. */
+    public static void main(String[] args) {
+        try {
+            if (args.length >= 3 && args[0].equals("generate")) {
+                long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+                generate(Integer.parseInt(args[1]), args[2], seed);
+            } else if (args.length == 3 && args[0].equals("tune")) {
+                Tuner tuner = new Tuner();
+                tuner.load(args[1]);
+                tuner.tune(args[2]);
+            } else {
+                usage();
+            }
+        } catch (IOException excp) {
+            System.err.printf("Error: %s%n", excp.getMessage());
+            System.exit(1);
+        } catch (NumberFormatException excp) {
+            usage();
+        }
+    }
+
+    /** Print a usage message and exit. */
+    private static void usage() {
+        System.err.println("Usage: java qirkat.Tuner generate GAMES"
+                           + " RECORDS [SEED]");
+        System.err.println("       java qirkat.Tuner tune RECORDS WEIGHTS");
+        System.exit(1);
+    }
+
+    /* GENERATION */
+
+    /** Play GAMES self-play games in parallel, game G using random seed
+     *  SEED + G, and write their positions to the file named OUT.  The
+     *  games use SplittableRandom because, unlike Random, it gives
+     *  unrelated sequences for consecutive seeds. */
+    static void generate(int games, String out, long seed)
+        throws IOException {
+        ThreadLocal<AI> engines =
+            ThreadLocal.withInitial(() -> new AI(null, WHITE));
+        List<List<String>> records =
+            IntStream.range(0, games).parallel()
+            .mapToObj(g -> playGame(engines.get(),
+                                    new SplittableRandom(seed + g)))
+            .collect(Collectors.toList());
+        try (PrintWriter w = new PrintWriter(new FileWriter(out))) {
+            for (List<String> game : records) {
+                for (String line : game) {
+                    w.println(line);
+                }
+            }
+        }
+    }
+
+    /** Play one game with AI, choosing the opening moves with RANDOM,
+     *  and return its records.  The game ends when a player cannot move
+     *  or, by repetition or the no-capture limit, in a draw. */
+    private static List<String> playGame(AI ai, SplittableRandom random) {
+        ai.clear();
+        Board board = new Board();
+        ArrayList<String> positions = new ArrayList<>();
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        String result = "0.5";
+        for (int ply = 0; !board.isDraw(); ply += 1) {
+            int n = board.legalMoves(moves);
+            if (n == 0) {
+                result = board.whoseMove() == WHITE ? "0" : "1";
+                break;
+            }
+            if (ply >= RANDOM_PLIES) {
+                positions.add(record(board));
+            }
+            if (ply < RANDOM_PLIES) {
+                board.play(moves[random.nextInt(n)]);
+            } else {
+                board.makeMove(ai.findMove(board, GAME_DEPTH));
+            }
+        }
+        for (int i = 0; i < positions.size(); i += 1) {
+            positions.set(i, result + " " + positions.get(i));
+        }
+        return positions;
+    }
+
+    /** Return BOARD as "SIDE SQUARES". */
+    private static String record(Board board) {
+        StringBuilder result = new StringBuilder();
+        result.append(board.whoseMove() == WHITE ? "white " : "black ");
+        for (int k = 0; k <= Move.MAX_INDEX; k += 1) {
+            result.append(board.get(k).shortName());
+        }
+        return result.toString();
+    }
+
+    /* TUNING */
+
+    /** Read the records in the file named IN into my feature matrix. */
+    void load(String in) throws IOException {
+        _features = new short[INITIAL_POSITIONS * NUM_FEATURES];
+        _results = new float[INITIAL_POSITIONS];
+        _count = 0;
+        readRecords(in, (result, board) -> {
+            if (_count == _results.length) {
+                _results = Arrays.copyOf(_results, 2 * _count);
+                _features = Arrays.copyOf(_features,
+                                          2 * _count * NUM_FEATURES);
+            }
+            _results[_count] = result;
+            Evaluator.features(board, _features, _count * NUM_FEATURES);
+            _count += 1;
+        });
+        System.err.printf("Loaded %d positions.%n", _count);
+    }
+
+    /** Read the records in the file named IN, passing each one's result
+     *  and position to ACTION.  The Board passed is reused for every
+     *  record. */
+    static void readRecords(String in, BiConsumer<Float, Board> action)
+        throws IOException {
+        Board board = new Board();
+        try (BufferedReader r = new BufferedReader(new FileReader(in))) {
+            int lineNum = 0;
+            for (String line = r.readLine(); line != null;
+                 line = r.readLine()) {
+                lineNum += 1;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+", 3);
+                if (fields.length != 3) {
+                    throw new IOException("bad record at line " + lineNum);
+                }
+                float result;
+                try {
+                    result = Float.parseFloat(fields[0]);
+                    board.setPieces(fields[2],
+                                    fields[1].equalsIgnoreCase("white")
+                                    ? WHITE : BLACK);
+                } catch (IllegalArgumentException excp) {
+                    throw new IOException("bad record at line " + lineNum);
+                }
+                action.accept(result, board);
+            }
+        }
+    }
+
+    /** Fit the weights to the loaded positions and write them to the
+     *  file named OUT. */
+    void tune(String out) throws IOException {
+        if (_count == 0) {
+            throw new IOException("no positions");
+        }
+        int[] initial = Evaluator.STANDARD.weights();
+        double[] w = new double[NUM_FEATURES];
+        for (int f = 0; f < NUM_FEATURES; f += 1) {
+            w[f] = initial[f];
+        }
+        _k = fitK(w);
+        System.err.printf("K = %.6f, initial error %.6f%n", _k,
+                          gradient(w)[NUM_FEATURES]);
+        double[] m = new double[NUM_FEATURES], v = new double[NUM_FEATURES];
+        double[] history = new double[PATIENCE];
+        double error = 0.0;
+        int step;
+        for (step = 1; step <= MAX_STEPS; step += 1) {
+            double[] g = gradient(w);
+            error = g[NUM_FEATURES];
+            double previous = history[step % PATIENCE];
+            history[step % PATIENCE] = error;
+            if (step > PATIENCE && previous - error < TOLERANCE) {
+                break;
+            }
+            for (int f = 0; f < NUM_FEATURES; f += 1) {
+                m[f] = BETA1 * m[f] + (1 - BETA1) * g[f];
+                v[f] = BETA2 * v[f] + (1 - BETA2) * g[f] * g[f];
+                double mHat = m[f] / (1 - Math.pow(BETA1, step));
+                double vHat = v[f] / (1 - Math.pow(BETA2, step));
+                w[f] -= RATE * mHat / (Math.sqrt(vHat) + EPSILON);
+            }
+        }
+        int[] weights = new int[NUM_FEATURES];
+        for (int f = 0; f < NUM_FEATURES; f += 1) {
+            weights[f] = (int) Math.round(w[f]);
+        }
+        System.err.printf("Final error %.6f after %d steps.%n", error,
+                          step - 1);
+        try (PrintWriter p = new PrintWriter(new FileWriter(out))) {
+            p.printf("# Fitted to %d positions; K = %.6f; error %.6f.%n",
+                     _count, _k, error);
+            new Evaluator(weights).write(p);
+        }
+    }
+
+    /** Return the K that minimizes the error of weights W. */
+    private double fitK(double[] w) {
+        double lo = Math.log(MIN_K), hi = Math.log(MAX_K);
+        for (int i = 0; i < K_ROUNDS; i += 1) {
+            double a = lo + (hi - lo) / 3, b = hi - (hi - lo) / 3;
+            _k = Math.exp(a);
+            double ea = gradient(w)[NUM_FEATURES];
+            _k = Math.exp(b);
+            double eb = gradient(w)[NUM_FEATURES];
+            if (ea < eb) {
+                hi = b;
+            } else {
+                lo = a;
+            }
+        }
+        return Math.exp((lo + hi) / 2);
+    }
+
+    /** Return the gradient of the mean squared error with respect to
+     *  weights W, with the error itself as its last element. */
+    private double[] gradient(double[] w) {
+        int chunks = (_count + CHUNK - 1) / CHUNK;
+        double[] sum = IntStream.range(0, chunks).parallel()
+            .mapToObj(c -> chunkGradient(w, c * CHUNK,
+                                         Math.min(_count, (c + 1) * CHUNK)))
+            .reduce(new double[NUM_FEATURES + 1], Tuner::add);
+        for (int f = 0; f <= NUM_FEATURES; f += 1) {
+            sum[f] /= _count;
+        }
+        return sum;
+    }
+
+    /** Return the unnormalized gradient and error, as for gradient, of
+     *  weights W over positions FROM .. TO-1. */
+    private double[] chunkGradient(double[] w, int from, int to) {
+        double[] g = new double[NUM_FEATURES + 1];
+        short[] x = _features;
+        for (int i = from; i < to; i += 1) {
+            int base = i * NUM_FEATURES;
+            double score = 0.0;
+            for (int f = 0; f < NUM_FEATURES; f += 1) {
+                score += w[f] * x[base + f];
+            }
+            double p = 1.0 / (1.0 + Math.exp(-_k * score));
+            double diff = p - _results[i];
+            double scale = 2.0 * diff * p * (1.0 - p) * _k;
+            for (int f = 0; f < NUM_FEATURES; f += 1) {
+                g[f] += scale * x[base + f];
+            }
+            g[NUM_FEATURES] += diff * diff;
+        }
+        return g;
+    }
+
+    /** Return the element-wise sum of A and B. */
+    private static double[] add(double[] a, double[] b) {
+        double[] result = new double[a.length];
+        for (int i = 0; i < a.length; i += 1) {
+            result[i] = a[i] + b[i];
+        }
+        return result;
+    }
+
+    /** Features of each position, NUM_FEATURES per position. */
+    private short[] _features;
+    /** Result for white of the game from which each position came. */
+    private float[] _results;
+    /** Number of positions loaded. */
+    private int _count;
+    /** Scale factor from scores to log-odds of winning. */
+    private double _k;
+
+}
@@ -11,7 +11,18 @@ public class UnitTest {
      *  the arguments of runClasses to run other JUnit tests. */
     public static void main(String[] ignored) {
         System.exit(textui.runClasses(MoveTest.class, BoardTest.class,
-                                      CommandTest.class));
+                                      CommandTest.class, EvaluatorTest.class,
+                                      NetworkTest.class, SolverTest.class,
+                                      TranspositionTableTest.class,
+                                      SprtTest.class, ProtocolTest.class,
+                                      MCTSTreeTest.class,
+                                      MCTSPlayerTest.class,
+                                      BoardWidgetTest.class, AITest.class,
+                                      BatchTest.class, MovePickerTest.class,
+                                      BoardChangeTest.class,
+                                      BoardChangeBatcherTest.class,
+                                      LatencyHistogramTest.class,
+                                      SearchStatsTest.class));
     }
 
 }
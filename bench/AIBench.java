@@ -0,0 +1,62 @@
+package qirkat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static qirkat.PieceColor.*;
+
+/** Benchmarks of a complete AI search to a fixed depth over every
+ *  position of one phase of the corpus (see BenchPositions).
+ *  @author Sarah Jin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AIBench {
+
+    /** The phase of the game from which positions are taken. */
+    @Param({"midgame", "endgame"})
+    public String phase;
+
+    /** The search depth, in plies. */
+    @Param({"2", "4", "6"})
+    public int depth;
+
+    /** Load the corpus for PHASE. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        _boards = BenchPositions.load(phase);
+        _ai = new AI(null, WHITE);
+    }
+
+    /** Search each position to DEPTH, consuming the moves in BH. */
+    @Benchmark
+    public void findMove(Blackhole bh) {
+        for (Board b : _boards) {
+            bh.consume(_ai.findMove(b, depth));
+        }
+    }
+
+    /** The positions being searched. */
+    private Board[] _boards;
+    /** The player doing the searching.  It has no Game, and is used only
+     *  through findMove(Board, int). */
+    private AI _ai;
+
+}
@@ -0,0 +1,69 @@
+package qirkat;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import static qirkat.PieceColor.*;
+
+/** The corpus of positions used as inputs by the benchmarks.  Each
+ *  phase of the game is a file PHASE.txt in the directory named by the
+ *  system property qirkat.bench.positions (by default, bench/positions).
+ *  @author Sarah Jin
+ */
+class BenchPositions {
+
+    /** Default directory holding the position files. */
+    static final String DEFAULT_DIR = "bench/positions";
+
+    /** Return the boards listed in the position file for PHASE. */
+    static Board[] load(String phase) {
+        String dir = System.getProperty("qirkat.bench.positions",
+                                        DEFAULT_DIR);
+        String name = dir + "/" + phase + ".txt";
+        ArrayList<Board> result = new ArrayList<>();
+        try (BufferedReader r = new BufferedReader(new FileReader(name))) {
+            while (true) {
+                String line = r.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (line.indexOf('#') != -1) {
+                    line = line.substring(0, line.indexOf('#'));
+                }
+                line = line.trim();
+                if (!line.isEmpty()) {
+                    result.add(parse(line));
+                }
+            }
+        } catch (IOException excp) {
+            throw new IllegalArgumentException("cannot read " + name);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("no positions in " + name);
+        }
+        return result.toArray(new Board[result.size()]);
+    }
+
+    /** Return the board described by LINE, which has the form
+     *  SIDE BOARD, as for the operands of the 'set' command. */
+    static Board parse(String line) {
+        String[] fields = line.split("\\s+", 2);
+        PieceColor side;
+        if (fields.length != 2) {
+            throw new IllegalArgumentException("bad position: " + line);
+        } else if (fields[0].equalsIgnoreCase("white")) {
+            side = WHITE;
+        } else if (fields[0].equalsIgnoreCase("black")) {
+            side = BLACK;
+        } else {
+            throw new IllegalArgumentException("bad side: " + line);
+        }
+        Board b = new Board();
+        b.setPieces(fields[1], side);
+        b.setWhoseMove(side);
+        return b;
+    }
+
+}
@@ -0,0 +1,135 @@
+package qirkat;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static qirkat.PieceColor.*;
+
+/** Benchmarks of the Board operations used by the AI.  Each benchmark
+ *  invocation covers every position of the selected phase of the corpus
+ *  (see BenchPositions), so scores are per corpus, not per position.
+ *  @author Sarah Jin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BoardBench {
+
+    /** The phase of the game from which positions are taken. */
+    @Param({"midgame", "endgame"})
+    public String phase;
+
+    /** Load the corpus for PHASE and precompute the moves each
+     *  benchmark replays. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        _boards = BenchPositions.load(phase);
+        _candidates = new Move[_boards.length][];
+        _firstMoves = new Move[_boards.length];
+        for (int i = 0; i < _boards.length; i += 1) {
+            Board b = _boards[i];
+            _candidates[i] = candidates(b);
+            ArrayList<Move> legal = b.findlegalmoves(b, b.whoseMove());
+            if (!legal.isEmpty()) {
+                _firstMoves[i] = Move.parseMove(legal.get(0).toString());
+            }
+        }
+    }
+
+    /** Generate all legal moves in each position, consuming them in
+     *  BH. */
+    @Benchmark
+    public void findlegalmoves(Blackhole bh) {
+        for (Board b : _boards) {
+            bh.consume(b.findlegalmoves(b, b.whoseMove()));
+        }
+    }
+
+    /** Check every candidate single step or jump for legality,
+     *  consuming the results in BH. */
+    @Benchmark
+    public void legalMove(Blackhole bh) {
+        for (int i = 0; i < _boards.length; i += 1) {
+            Board b = _boards[i];
+            for (Move mov : _candidates[i]) {
+                bh.consume(b.legalMove(mov));
+            }
+        }
+    }
+
+    /** Test each position for captures by either side, consuming the
+     *  results in BH. */
+    @Benchmark
+    public void canJump(Blackhole bh) {
+        for (Board b : _boards) {
+            bh.consume(b.canJump(WHITE));
+            bh.consume(b.canJump(BLACK));
+        }
+    }
+
+    /** Make and then undo one legal move in each position. */
+    @Benchmark
+    public void makeMoveUndo() {
+        for (int i = 0; i < _boards.length; i += 1) {
+            if (_firstMoves[i] != null) {
+                _boards[i].makeMove(_firstMoves[i]);
+                _boards[i].undo();
+            }
+        }
+    }
+
+    /** Copy each position, consuming the copies in BH. */
+    @Benchmark
+    public void copy(Blackhole bh) {
+        for (Board b : _boards) {
+            bh.consume(new Board(b));
+        }
+    }
+
+    /** Return every single step or jump (legal or not) of at most two
+     *  squares for a piece of the player to move on B. */
+    private static Move[] candidates(Board b) {
+        ArrayList<Move> result = new ArrayList<>();
+        for (int k = 0; k <= Move.MAX_INDEX; k += 1) {
+            if (b.get(k) != b.whoseMove()) {
+                continue;
+            }
+            char c = Move.col(k), r = Move.row(k);
+            for (int dc = -2; dc <= 2; dc += 1) {
+                for (int dr = -2; dr <= 2; dr += 1) {
+                    char c1 = (char) (c + dc), r1 = (char) (r + dr);
+                    if ((dc != 0 || dr != 0) && Move.validSquare(c1, r1)) {
+                        result.add(Move.move(c, r, c1, r1));
+                    }
+                }
+            }
+        }
+        return result.toArray(new Move[result.size()]);
+    }
+
+    /** The positions being measured. */
+    private Board[] _boards;
+    /** _CANDIDATES[i] are the moves tested by legalMove on _BOARDS[i]. */
+    private Move[][] _candidates;
+    /** _FIRSTMOVES[i] is the move made by makeMoveUndo on _BOARDS[i],
+     *  or null if there is none. */
+    private Move[] _firstMoves;
+
+}
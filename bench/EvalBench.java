@@ -0,0 +1,117 @@
+package qirkat;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks of the static evaluators over the midgame positions of
+ *  the corpus: Evaluator, a Network evaluated from scratch, and a
+ *  Network whose accumulator follows a move and its retraction, as in a
+ *  search.  The network has random weights, since only its size
+ *  matters here.
+ *  @author Sarah Jin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EvalBench {
+
+    /** Largest magnitude of the random weights. */
+    private static final int WEIGHT = 32;
+
+    /** Number of hidden units in the network. */
+    @Param({"16", "32", "64"})
+    public int hidden;
+
+    /** Load the corpus, pick one legal move from each position, and
+     *  build a random network. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        _boards = BenchPositions.load("midgame");
+        _moves = new int[_boards.length];
+        int[] moves = new int[MovePicker.MAX_MOVES];
+        for (int i = 0; i < _boards.length; i += 1) {
+            int n = _boards[i].jumpMoves(moves, 0);
+            if (n == 0) {
+                n = _boards[i].quietMoves(moves, 0);
+            }
+            _moves[i] = n == 0 ? Move.NO_MOVE : moves[0];
+        }
+        Random random = new Random(0);
+        short[] inputs = new short[Network.INPUTS * hidden];
+        short[] bias = new short[hidden], out = new short[hidden];
+        for (int i = 0; i < inputs.length; i += 1) {
+            inputs[i] = (short) (random.nextInt(2 * WEIGHT + 1) - WEIGHT);
+        }
+        for (int i = 0; i < hidden; i += 1) {
+            out[i] = (short) (random.nextInt(2 * WEIGHT + 1) - WEIGHT);
+        }
+        _network = new Network(hidden, inputs, bias, out, 0);
+        _accumulators = new Network.Accumulator[_boards.length];
+        _searchBoards = new Board[_boards.length];
+        for (int i = 0; i < _boards.length; i += 1) {
+            _searchBoards[i] = new Board(_boards[i]);
+            _accumulators[i] = _network.newAccumulator();
+            _searchBoards[i].setAccumulator(_accumulators[i]);
+        }
+    }
+
+    /** Score each position with Evaluator.STANDARD. */
+    @Benchmark
+    public void evaluator(Blackhole bh) {
+        for (Board b : _boards) {
+            bh.consume(Evaluator.STANDARD.score(b));
+        }
+    }
+
+    /** Score each position with the network, from scratch. */
+    @Benchmark
+    public void networkRefresh(Blackhole bh) {
+        for (Board b : _boards) {
+            bh.consume(_network.score(b));
+        }
+    }
+
+    /** Make a move in each position, score the result with the
+     *  network's accumulator, and take the move back. */
+    @Benchmark
+    public void networkIncremental(Blackhole bh) {
+        for (int i = 0; i < _searchBoards.length; i += 1) {
+            Board b = _searchBoards[i];
+            int move = _moves[i];
+            if (move != Move.NO_MOVE) {
+                int undo = b.play(move);
+                bh.consume(_accumulators[i].score(b.whoseMove()));
+                b.retract(move, undo);
+            }
+        }
+    }
+
+    /** The positions being scored. */
+    private Board[] _boards;
+    /** Copies of _boards, each keeping its accumulator up to date. */
+    private Board[] _searchBoards;
+    /** One legal move in each position, or Move.NO_MOVE. */
+    private int[] _moves;
+    /** The network. */
+    private Network _network;
+    /** The accumulator of each of _searchBoards. */
+    private Network.Accumulator[] _accumulators;
+
+}
@@ -0,0 +1,60 @@
+package qirkat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Benchmarks of the Move factory and parser.
+ *  @author Sarah Jin
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MoveBench {
+
+    /** Denotations parsed by the parseMove benchmark: steps, single
+     *  jumps and multi-jumps of the kinds produced in play. */
+    private static final String[] DENOTATIONS = {
+        "c2-c3", "b2-c3", "a3-a4", "e3-d3", "c4-c2", "a3-c1",
+        "c3-a3", "a3-c5-c3", "a1-c3-e5", "e1-c1-c3-a5", "c3-a5-c5-e5",
+    };
+
+    /** Fetch every single step from each square to its eight
+     *  neighbors, consuming the results in BH. */
+    @Benchmark
+    public void move(Blackhole bh) {
+        for (char c = 'a'; c <= 'e'; c += 1) {
+            for (char r = '1'; r <= '5'; r += 1) {
+                for (int dc = -1; dc <= 1; dc += 1) {
+                    for (int dr = -1; dr <= 1; dr += 1) {
+                        char c1 = (char) (c + dc), r1 = (char) (r + dr);
+                        if (Move.validSquare(c1, r1)) {
+                            bh.consume(Move.move(c, r, c1, r1));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Parse each of DENOTATIONS, consuming the results in BH. */
+    @Benchmark
+    public void parseMove(Blackhole bh) {
+        for (String s : DENOTATIONS) {
+            bh.consume(Move.parseMove(s));
+        }
+    }
+
+}